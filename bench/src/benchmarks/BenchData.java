@@ -0,0 +1,67 @@
+package benchmarks;
+
+import jsondatabase.DatasetGenerator;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Builds a data folder of a given size for the benchmarks with {@link DatasetGenerator},
+ * so the files are exactly what the app writes.
+ *
+ * Shape per 100 users: 95 students, 5 instructors, 1 course (at least 10 courses),
+ * 5 lessons per course with a 5-question quiz, 3 enrollments and 3 attempts per student.
+ */
+final class BenchData {
+
+    static final int LESSONS_PER_COURSE = 5;
+
+    final Path folder;
+    final int userCount;
+    final int courseCount;
+    final int firstStudentId;
+
+    private BenchData(Path folder, DatasetGenerator gen) {
+        this.folder = folder;
+        this.firstStudentId = gen.firstStudentId();
+        this.userCount = firstStudentId + gen.students - 1;
+        this.courseCount = gen.courses;
+    }
+
+    static String courseId(int i) {
+        return DatasetGenerator.courseId(i);
+    }
+
+    static String lessonId(int course, int lesson) {
+        return DatasetGenerator.lessonId(course, lesson);
+    }
+
+    /** Removes the dataset folder (multi-GB at 1M users); close the store on it first. */
+    void delete() throws IOException {
+        try (Stream<Path> paths = Files.walk(folder)) {
+            for (Path p : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(p);
+            }
+        }
+    }
+
+    /** Writes a fresh dataset into a new temp folder. */
+    static BenchData create(int userCount, long seed) throws IOException {
+        DatasetGenerator gen = new DatasetGenerator();
+        gen.instructors = Math.max(1, userCount / 20);
+        gen.students = Math.max(1, userCount - gen.instructors - 1);
+        gen.courses = Math.max(10, userCount / 100);
+        gen.lessonsPerCourse = LESSONS_PER_COURSE;
+        gen.questionsPerQuiz = 5;
+        gen.enrollmentsPerStudent = 3;
+        gen.attemptsPerStudent = 3;
+        gen.pendingRatio = 0;
+        gen.seed = seed;
+        Path folder = Files.createTempDirectory("skillforge-bench-" + userCount + "-");
+        gen.generate(folder);
+        return new BenchData(folder, gen);
+    }
+}
@@ -0,0 +1,119 @@
+package benchmarks;
+
+import jsondatabase.JsonDatabaseManager;
+import models.Course;
+import models.QuizAttempt;
+import models.Student;
+import models.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks for the persistence layer at 1k / 10k / 100k / 1M users.
+ *
+ * Run with {@code ant bench} (see build.xml; it fetches JMH on the first run).
+ * Throughput and average time come from the two benchmark modes; allocation rate
+ * from the gc profiler the target enables. Each trial generates its dataset in a
+ * temp folder and deletes it afterwards.
+ * Pick one scale with e.g. {@code ant bench -Dbench.args="-p users=10000"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx12g"})
+public class PersistenceBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int users;
+
+    private BenchData data;
+    private JsonDatabaseManager db;
+    private List<User> allUsers;
+    private List<Course> allCourses;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        data = BenchData.create(users, 42L);
+        db = new JsonDatabaseManager(data.folder.toString());
+        allUsers = db.loadUsers();
+        allCourses = db.loadCourses();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        db.close();
+        data.delete();
+    }
+
+    private int randomStudentId() {
+        return ThreadLocalRandom.current().nextInt(data.firstStudentId, data.userCount + 1);
+    }
+
+    private String randomCourseId() {
+        return BenchData.courseId(ThreadLocalRandom.current().nextInt(data.courseCount));
+    }
+
+    // ===================================================================
+    // WHOLE-LIST LOADS AND SAVES
+    // ===================================================================
+
+    @Benchmark
+    public List<User> loadUsers() {
+        return db.loadUsers();
+    }
+
+    @Benchmark
+    public void saveUsers() {
+        db.saveUsers(allUsers);
+    }
+
+    @Benchmark
+    public List<Course> loadCourses() {
+        return db.loadCourses();
+    }
+
+    @Benchmark
+    public void saveCourses() {
+        db.saveCourses(allCourses);
+    }
+
+    // ===================================================================
+    // SINGLE-RECORD WRITES
+    // ===================================================================
+
+    @Benchmark
+    public void recordQuizAttempt() {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        int course = rnd.nextInt(data.courseCount);
+        String lessonId = BenchData.lessonId(course, rnd.nextInt(BenchData.LESSONS_PER_COURSE));
+        int correct = rnd.nextInt(6);
+        QuizAttempt attempt = new QuizAttempt(lessonId, System.currentTimeMillis(), correct * 20, correct, 5);
+        db.recordQuizAttempt(randomStudentId(), lessonId, attempt, 60);
+    }
+
+    @Benchmark
+    public Object updateUser() {
+        String courseId = randomCourseId();
+        return db.updateUser(randomStudentId(), u -> ((Student) u).enrollInCourse(courseId));
+    }
+
+    // ===================================================================
+    // ANALYTICS
+    // ===================================================================
+
+    @Benchmark
+    public Map<String, Double> getCoursePerformanceData() {
+        return db.getCoursePerformanceData(randomCourseId());
+    }
+
+    @Benchmark
+    public double getCourseCompletionRate() {
+        return db.getCourseCompletionRate(randomCourseId());
+    }
+}
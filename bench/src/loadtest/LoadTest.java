@@ -0,0 +1,226 @@
+package loadtest;
+
+import jsondatabase.DatasetGenerator;
+import jsondatabase.JsonDatabaseManager;
+import models.*;
+import services.AuthService;
+import services.EnrollmentService;
+import services.QuizService;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Load generator for the services layer: N virtual-thread students each loop
+ * login, browse the catalog, open a lesson and submit its quiz, pausing for a
+ * random think time between steps. Latency of every step, failed or not, goes
+ * into a histogram, and the run ends with throughput, failures and
+ * p50/p95/p99/p99.9 per operation.
+ *
+ * Runs in-process against a data folder; without {@code --data} a dataset is
+ * generated into a temp folder first (see {@link DatasetGenerator}).
+ *
+ * <pre>
+ *   ant loadtest -Dloadtest.args="--students 2000 --duration 60 --think 200"
+ *   options: --data folder | --dataset-students N, --students N, --duration s,
+ *            --warmup s, --think ms (mean, exponential)
+ * </pre>
+ *
+ * Each student waits for its previous step before starting the next (closed loop),
+ * so when the system slows down the offered load drops too; compare runs at the
+ * same think time.
+ */
+public final class LoadTest {
+
+    enum Op { LOGIN, BROWSE, ENROLL, OPEN_LESSON, SUBMIT_QUIZ }
+
+    private final JsonDatabaseManager db;
+    private final AuthService auth;
+    private final EnrollmentService enrollment;
+    private final QuizService quizzes;
+    private final long thinkMillis;
+
+    private final Map<Op, LatencyHistogram> latency = new ConcurrentHashMap<>();
+    private final Map<Op, LongAdder> failures = new ConcurrentHashMap<>();
+    private final LongAdder errors = new LongAdder();
+    private volatile boolean measuring;
+    private volatile boolean running = true;
+
+    private LoadTest(JsonDatabaseManager db, long thinkMillis) {
+        this.db = db;
+        this.auth = new AuthService(db);
+        this.enrollment = new EnrollmentService(db);
+        this.quizzes = new QuizService(db);
+        this.thinkMillis = thinkMillis;
+        for (Op op : Op.values()) {
+            latency.put(op, new LatencyHistogram());
+            failures.put(op, new LongAdder());
+        }
+    }
+
+    // ===================================================================
+    // ONE SIMULATED STUDENT
+    // ===================================================================
+
+    private void student(String username) {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        while (running) {
+            try {
+                Student s = (Student) timed(Op.LOGIN, () -> auth.login(username, DatasetGenerator.PASSWORD, User.ROLE_STUDENT));
+                think(rnd);
+
+                List<Course> available = timed(Op.BROWSE, () -> enrollment.availableCourses(s));
+                think(rnd);
+
+                List<String> enrolled = s.getEnrolledCourseIds();
+                String courseId;
+                if (enrolled.isEmpty() || (!available.isEmpty() && rnd.nextInt(20) == 0)) {
+                    // Now and then a student picks up one more course
+                    if (available.isEmpty()) continue;
+                    courseId = available.get(rnd.nextInt(available.size())).getCourseId();
+                    timed(Op.ENROLL, () -> enrollment.enroll(s.getUserId(), courseId));
+                    think(rnd);
+                } else {
+                    courseId = enrolled.get(rnd.nextInt(enrolled.size()));
+                }
+
+                Course course = db.getCourseById(courseId);
+                if (course == null || course.getLessons().isEmpty()) continue;
+                String lessonId = course.getLessons().get(rnd.nextInt(course.getLessons().size())).getLessonId();
+                Lesson lesson = timed(Op.OPEN_LESSON, () -> quizzes.findLesson(courseId, lessonId));
+                think(rnd);
+
+                if (lesson.getQuiz() == null || lesson.getQuiz().totalQuestions() == 0) continue;
+                int[] answers = new int[lesson.getQuiz().totalQuestions()];
+                for (int i = 0; i < answers.length; i++) {
+                    answers[i] = rnd.nextInt(lesson.getQuiz().getQuestions().get(i).getOptions().size());
+                }
+                timed(Op.SUBMIT_QUIZ, () -> quizzes.submit(s.getUserId(), courseId, lessonId, answers));
+                think(rnd);
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                // e.g. attempt limit reached; count it and carry on
+                if (measuring) errors.increment();
+            }
+        }
+    }
+
+    private interface Step<T> {
+        T run();
+    }
+
+    // Failed calls are timed too (a slow failure is still load), and counted per operation
+    private <T> T timed(Op op, Step<T> step) {
+        boolean measured = measuring;
+        long start = System.nanoTime();
+        try {
+            return step.run();
+        } catch (RuntimeException e) {
+            if (measured) failures.get(op).increment();
+            throw e;
+        } finally {
+            if (measured) latency.get(op).record(System.nanoTime() - start);
+        }
+    }
+
+    private void think(ThreadLocalRandom rnd) throws InterruptedException {
+        if (thinkMillis <= 0) return;
+        long pause = (long) (-Math.log(1 - rnd.nextDouble()) * thinkMillis);
+        Thread.sleep(Math.min(pause, thinkMillis * 10));
+    }
+
+    // ===================================================================
+    // RUN + REPORT
+    // ===================================================================
+
+    private void run(List<String> usernames, int students, int warmupSeconds, int durationSeconds) throws InterruptedException {
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < students; i++) {
+                String username = usernames.get(i % usernames.size());
+                pool.submit(() -> student(username));
+            }
+            TimeUnit.SECONDS.sleep(warmupSeconds);
+            measuring = true;
+            long start = System.nanoTime();
+            TimeUnit.SECONDS.sleep(durationSeconds);
+            measuring = false;
+            double seconds = (System.nanoTime() - start) / 1e9;
+            // No interrupts: an interrupt during file I/O would close the store's channels
+            running = false;
+            report(students, seconds);
+        }
+    }
+
+    private void report(int students, double seconds) {
+        System.out.printf("%n%d students, %.1f s measured, think time %d ms, %d errors%n%n",
+                students, seconds, thinkMillis, errors.sum());
+        System.out.printf("%-12s %10s %8s %10s %9s %9s %9s %9s %9s%n",
+                "operation", "count", "failed", "ops/s", "p50 ms", "p95 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Op op : Op.values()) {
+            LatencyHistogram h = latency.get(op);
+            long count = h.count();
+            System.out.printf("%-12s %10d %8d %10.1f %9.3f %9.3f %9.3f %9.3f %9.3f%n",
+                    op, count, failures.get(op).sum(), count / seconds,
+                    h.percentile(50) / 1e6, h.percentile(95) / 1e6, h.percentile(99) / 1e6,
+                    h.percentile(99.9) / 1e6, h.max() / 1e6);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        String data = null;
+        int datasetStudents = 10_000;
+        int students = 1000;
+        int duration = 30;
+        int warmup = 5;
+        long think = 100;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--data" -> data = value;
+                case "--dataset-students" -> datasetStudents = Integer.parseInt(value);
+                case "--students" -> students = Integer.parseInt(value);
+                case "--duration" -> duration = Integer.parseInt(value);
+                case "--warmup" -> warmup = Integer.parseInt(value);
+                case "--think" -> think = Long.parseLong(value);
+                default -> {
+                    System.err.println("Unknown option: " + args[i]);
+                    System.exit(2);
+                }
+            }
+        }
+
+        if (data == null) {
+            Path folder = Files.createTempDirectory("skillforge-loadtest-");
+            DatasetGenerator gen = new DatasetGenerator();
+            gen.students = datasetStudents;
+            gen.instructors = Math.max(1, datasetStudents / 20);
+            gen.courses = Math.max(10, datasetStudents / 100);
+            gen.generate(folder);
+            data = folder.toString();
+            System.out.println("Generated " + datasetStudents + " students into " + data);
+        }
+
+        JsonDatabaseManager db = new JsonDatabaseManager(data);
+        List<String> usernames = new ArrayList<>();
+        for (User u : db.loadUsers()) {
+            if (u instanceof Student) usernames.add(u.getUsername());
+        }
+        if (usernames.isEmpty()) {
+            System.err.println("No students in " + data);
+            System.exit(1);
+        }
+
+        new LoadTest(db, think).run(usernames, students, warmup, duration);
+        System.exit(0);
+    }
+}
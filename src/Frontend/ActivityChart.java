@@ -0,0 +1,89 @@
+package Frontend;
+
+import jsondatabase.ActivitySeries;
+import jsondatabase.ActivitySeries.Resolution;
+import org.jfree.chart.ChartFactory;
+import org.jfree.chart.ChartPanel;
+import org.jfree.chart.JFreeChart;
+import org.jfree.data.time.Day;
+import org.jfree.data.time.Hour;
+import org.jfree.data.time.Minute;
+import org.jfree.data.time.RegularTimePeriod;
+import org.jfree.data.time.TimeSeries;
+import org.jfree.data.time.TimeSeriesCollection;
+
+import javax.swing.BorderFactory;
+import javax.swing.JComboBox;
+import javax.swing.JDialog;
+import javax.swing.JLabel;
+import java.awt.BorderLayout;
+import java.awt.Window;
+import java.util.Date;
+import java.util.function.BiFunction;
+
+/**
+ * Quiz attempts over time as a line chart, for a course (InsCourses) or the whole
+ * platform (AdminDashboard). The series come from the store's rollups, so switching
+ * the range is instant however many attempts there are.
+ */
+final class ActivityChart {
+
+    private static final String[] RANGES = {"Last 2 hours, per minute", "Last 7 days, per hour", "Last 120 days, per day"};
+    private static final Resolution[] RESOLUTIONS = {Resolution.MINUTE, Resolution.HOUR, Resolution.DAY};
+    private static final int[] BUCKETS = {120, 7 * 24, 120};
+
+    private ActivityChart() {
+    }
+
+    /** Opens a modal chart; {@code source} returns the series for a resolution and bucket count. */
+    static void show(Window owner, String title, BiFunction<Resolution, Integer, ActivitySeries> source) {
+        show(owner, title, source, null);
+    }
+
+    /** The same with a note after the attempt count (null for none). */
+    static void show(Window owner, String title, BiFunction<Resolution, Integer, ActivitySeries> source, String note) {
+        JComboBox<String> range = new JComboBox<>(RANGES);
+        range.setSelectedIndex(1);
+        ChartPanel chartPanel = new ChartPanel(null);
+        JLabel lblStats = new JLabel(" ");
+        lblStats.setFont(new java.awt.Font("Segoe UI", java.awt.Font.BOLD, 16));
+        lblStats.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+
+        Runnable show = () -> {
+            int i = range.getSelectedIndex();
+            ActivitySeries series = source.apply(RESOLUTIONS[i], BUCKETS[i]);
+            chartPanel.setChart(chart(title, series));
+            lblStats.setText(String.format("  %,d attempts in the %s", series.total(),
+                    RANGES[i].substring(0, RANGES[i].indexOf(',')).toLowerCase())
+                    + (note == null ? "" : "   " + note));
+        };
+        range.addActionListener(e -> show.run());
+        show.run();
+
+        JDialog chartWindow = new JDialog(owner, "Activity: " + title, java.awt.Dialog.ModalityType.APPLICATION_MODAL);
+        chartWindow.setSize(800, 600);
+        chartWindow.setLocationRelativeTo(owner);
+        chartWindow.setLayout(new BorderLayout());
+        chartWindow.add(range, BorderLayout.NORTH);
+        chartWindow.add(chartPanel, BorderLayout.CENTER);
+        chartWindow.add(lblStats, BorderLayout.SOUTH);
+        chartWindow.setVisible(true);
+    }
+
+    private static JFreeChart chart(String title, ActivitySeries series) {
+        TimeSeries attempts = new TimeSeries("Attempts");
+        for (int i = 0; i < series.size(); i++) {
+            attempts.add(period(series.resolution(), new Date(series.bucketStart(i))), series.counts()[i]);
+        }
+        return ChartFactory.createTimeSeriesChart("Quiz Activity: " + title, "Time", "Attempts",
+                new TimeSeriesCollection(attempts), false, true, false);
+    }
+
+    private static RegularTimePeriod period(Resolution resolution, Date start) {
+        return switch (resolution) {
+            case MINUTE -> new Minute(start);
+            case HOUR -> new Hour(start);
+            case DAY -> new Day(start);
+        };
+    }
+}
@@ -160,7 +160,7 @@ public class AddLesson extends javax.swing.JFrame {
             
             // Add to Course and Save
             course.addLesson(tempLesson);
-            db.updateCourse(course);
+            db.updateCourseContent(course);
 
             JOptionPane.showMessageDialog(this, "Lesson and Quiz Saved Successfully!");
             this.dispose(); 
@@ -240,7 +240,7 @@ public class AddQuestion extends javax.swing.JFrame {
 
     // 6. Save and close
     JsonDatabaseManager db = new JsonDatabaseManager();
-    db.updateCourse(course);
+    db.updateCourseContent(course);
     this.dispose();
     }//GEN-LAST:event_AddActionPerformed
 
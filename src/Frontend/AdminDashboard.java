@@ -3,13 +3,37 @@
  * Click nbfs://nbhost/SystemFileSystem/Templates/GUIForms/JFrame.java to edit this template
  */
 package Frontend;
+import jsondatabase.ActivitySeries.Resolution;
+import jsondatabase.JsonDatabaseManager;
+import jsondatabase.PlatformCounters;
 import models.Admin;
+import models.User;
+import services.AnalyticsService;
+
+import javax.swing.BorderFactory;
+import javax.swing.JButton;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.Timer;
+import java.awt.BorderLayout;
+import java.awt.GridLayout;
 /**
  *
  * @author SHIKO
  */
 public class AdminDashboard extends javax.swing.JFrame {
       private Admin loggedAdmin;
+      private final JsonDatabaseManager db = new JsonDatabaseManager();
+      private final PlatformCounters counters = db.getCounters();
+      private final AnalyticsService analytics = new AnalyticsService(db);
+      private final JLabel[] statValues = new JLabel[STAT_NAMES.length];
+      private static final String[] STAT_NAMES = {
+          "Students", "Instructors", "Admins",
+          "Approved courses", "Pending courses", "Rejected courses",
+          "Enrollments", "Certificates issued",
+          "Quiz attempts (last hour)", "Quiz attempts (last 24 h)",
+          "Active students (today)", "Active students (last 7 days)"
+      };
      /**
      * Creates new form AdminDashboard
      */
@@ -20,8 +44,57 @@ public class AdminDashboard extends javax.swing.JFrame {
     public AdminDashboard(Admin admin) {
         this.loggedAdmin = admin;
         initComponents();
-        setLocationRelativeTo(null);
         setTitle("Admin Dashboard");
+        addStatsPanel();
+        setLocationRelativeTo(null);
+    }
+
+    // ===================================================================
+    // LIVE PLATFORM STATS (counters are kept by the database, reading is free)
+    // ===================================================================
+    private void addStatsPanel() {
+        JPanel stats = new JPanel(new GridLayout(0, 2, 12, 4));
+        stats.setBorder(BorderFactory.createCompoundBorder(
+                BorderFactory.createTitledBorder("Platform"),
+                BorderFactory.createEmptyBorder(4, 8, 4, 8)));
+        for (int i = 0; i < STAT_NAMES.length; i++) {
+            statValues[i] = new JLabel("0");
+            stats.add(new JLabel(STAT_NAMES[i]));
+            stats.add(statValues[i]);
+        }
+        JButton activity = new JButton("Activity over time");
+        activity.addActionListener(e -> ActivityChart.show(this, "Platform", analytics::platformActivity));
+        stats.add(new JLabel());
+        stats.add(activity);
+
+        JPanel dashboard = (JPanel) getContentPane();
+        JPanel root = new JPanel(new BorderLayout());
+        root.add(dashboard, BorderLayout.CENTER);
+        root.add(stats, BorderLayout.SOUTH);
+        setContentPane(root);
+        pack();
+
+        refreshStats();
+        Timer timer = new Timer(2000, e -> refreshStats());
+        timer.start();
+        addWindowListener(new java.awt.event.WindowAdapter() {
+            @Override
+            public void windowClosed(java.awt.event.WindowEvent e) {
+                timer.stop();
+            }
+        });
+    }
+
+    private void refreshStats() {
+        // Recent attempts come from the activity rollups: the last day is counted to the hour
+        long[] values = {
+            counters.users(User.ROLE_STUDENT), counters.users(User.ROLE_INSTRUCTOR), counters.users(User.ROLE_ADMIN),
+            counters.courses("APPROVED"), counters.courses("PENDING"), counters.courses("REJECTED"),
+            counters.enrollments(), counters.certificates(),
+            analytics.platformActivity(Resolution.MINUTE, 60).total(), analytics.platformActivity(Resolution.HOUR, 24).total(),
+            analytics.activeStudentsOnPlatform(1), analytics.activeStudentsOnPlatform(7)
+        };
+        for (int i = 0; i < values.length; i++) statValues[i].setText(String.format("%,d", values[i]));
     }
     /**
      * This method is called from within the constructor to initialize the form.
@@ -3,13 +3,14 @@
  * Click nbfs://nbhost/SystemFileSystem/Templates/GUIForms/JFrame.java to edit this template
  */
 package Frontend;
+import jsondatabase.ChangeEvent;
 import jsondatabase.JsonDatabaseManager;
+import services.EnrollmentService;
 import models.Course;
 import models.Student;
 
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
-import java.util.List;
 /**
  *
  * @author SHIKO
@@ -20,6 +21,9 @@ public class AvailableCourses extends javax.swing.JFrame {
     private JTable tableAvailable;
     private DefaultTableModel tableModel;
     private JsonDatabaseManager db = new JsonDatabaseManager();
+    private final EnrollmentService enrollment = new EnrollmentService(db);
+    private static final int RECOMMENDATIONS = 5;
+    private DefaultTableModel recommendedModel;
     public AvailableCourses() {
       this(null);
     }
@@ -34,27 +38,115 @@ public class AvailableCourses extends javax.swing.JFrame {
     jTable1.setModel(tableModel);
 
     loadAvailableCourses();     
+
+    // Keep rows in step with approvals and with this student's enrollments
+    if (loggedStudent != null) {
+        addRecommendations();
+        LiveUpdates.install(this, db, this::applyChange);
+    }
+    }
+
+    // ===================================================================
+    // RECOMMENDED FOR YOU (under the course list)
+    // ===================================================================
+    private void addRecommendations() {
+        recommendedModel = new DefaultTableModel(new Object[]{"Course ID", "Title", "Instructor"}, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        JTable recommended = new JTable(recommendedModel);
+        recommended.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        // Picking a recommendation selects its row above, so Enroll works as usual
+        recommended.getSelectionModel().addListSelectionListener(e -> {
+            int row = recommended.getSelectedRow();
+            if (e.getValueIsAdjusting() || row < 0) return;
+            int target = LiveUpdates.findRow(tableModel, recommendedModel.getValueAt(row, 0));
+            if (target >= 0) {
+                jTable1.setRowSelectionInterval(target, target);
+                jTable1.scrollRectToVisible(jTable1.getCellRect(target, 0, true));
+            }
+        });
+        JScrollPane scroll = new JScrollPane(recommended);
+        scroll.setPreferredSize(new java.awt.Dimension(0, 110));
+        scroll.setBorder(BorderFactory.createTitledBorder("Recommended for you"));
+
+        JPanel catalog = (JPanel) getContentPane();
+        JPanel root = new JPanel(new java.awt.BorderLayout());
+        root.add(catalog, java.awt.BorderLayout.CENTER);
+        root.add(scroll, java.awt.BorderLayout.SOUTH);
+        setContentPane(root);
+        pack();
+        setLocationRelativeTo(null);
+        loadRecommendations();
+    }
+
+    private void loadRecommendations() {
+        recommendedModel.setRowCount(0);
+        for (Course c : enrollment.recommendedCourses(loggedStudent, RECOMMENDATIONS)) {
+            recommendedModel.addRow(new Object[]{c.getCourseId(), c.getTitle(), c.getInstructorId()});
+        }
+    }
+
+    private void applyChange(ChangeEvent event) {
+        switch (event) {
+            case ChangeEvent.CourseStatusChanged e -> {
+                updateCourseRow(e.courseId());
+                loadRecommendations();
+            }
+            case ChangeEvent.CourseUpdated e -> {
+                if (LiveUpdates.findRow(tableModel, e.courseId()) >= 0) updateCourseRow(e.courseId());
+            }
+            case ChangeEvent.CourseRemoved e -> {
+                updateCourseRow(e.courseId());
+                loadRecommendations();
+            }
+            case ChangeEvent.UserUpdated e when e.userId() == loggedStudent.getUserId() -> {
+                refreshStudent();
+                // Newly enrolled courses are no longer available
+                for (String courseId : loggedStudent.getEnrolledCourdseIds()) {
+                    int row = LiveUpdates.findRow(tableModel, courseId);
+                    if (row >= 0) tableModel.removeRow(row);
+                }
+                loadRecommendations();
+            }
+            case ChangeEvent.DataReloaded e -> {
+                refreshStudent();
+                loadAvailableCourses();
+                loadRecommendations();
+            }
+            default -> {
+            }
+        }
+    }
+
+    private void refreshStudent() {
+        if (db.getUserById(loggedStudent.getUserId()) instanceof Student fresh) {
+            loggedStudent = fresh;
+        }
+    }
+
+    // Adds, updates or removes the row of one course
+    private void updateCourseRow(String courseId) {
+        Course c = db.getCourseById(courseId);
+        int row = LiveUpdates.findRow(tableModel, courseId);
+        boolean available = c != null && "APPROVED".equals(c.getStatus())
+                && !loggedStudent.getEnrolledCourdseIds().contains(courseId);
+        if (!available) {
+            if (row >= 0) tableModel.removeRow(row);
+        } else if (row < 0) {
+            tableModel.addRow(new Object[]{c.getCourseId(), c.getTitle(), c.getInstructorId()});
+        } else {
+            tableModel.setValueAt(c.getTitle(), row, 1);
+            tableModel.setValueAt(c.getInstructorId(), row, 2);
+        }
     }
    private void loadAvailableCourses() {
     tableModel.setRowCount(0); // Clear existing rows
     
-    List<Course> allCourses = db.loadCourses();
-    
-    // Get student's enrolled course IDs
-    List<String> enrolledIds = loggedStudent.getEnrolledCourdseIds();
-    
-    for (Course c : allCourses) {
-        // Only show APPROVED courses
-        if (!"APPROVED".equals(c.getStatus())) {
-            continue; // Skip non-approved courses
-        }
-        
-        // Only show courses the student is NOT already enrolled in
-        if (enrolledIds.contains(c.getCourseId())) {
-            continue; // Skip already enrolled courses
-        }
-        
-        // Add to table (this course is available for enrollment)
+    // APPROVED courses the student is NOT already enrolled in
+    for (Course c : enrollment.availableCourses(loggedStudent)) {
         tableModel.addRow(new Object[]{
             c.getCourseId(),
             c.getTitle(),
@@ -179,34 +271,25 @@ public class AvailableCourses extends javax.swing.JFrame {
         return;
     }
     
-    // Get course object
-    Course course = db.getCourseById(courseId);
-    
-    if (course == null) {
+    // Both sides of the enrollment are saved together, or neither is
+    Course course;
+    try {
+        loggedStudent = enrollment.enroll(loggedStudent.getUserId(), courseId);
+        course = db.getCourseById(courseId);
+    } catch (IllegalArgumentException | IllegalStateException ex) {
         JOptionPane.showMessageDialog(this,
-            "Error: Course not found!",
+            "Error: " + ex.getMessage(),
             "Error",
             JOptionPane.ERROR_MESSAGE);
+        loadAvailableCourses();
         return;
     }
     
-    // Enroll student in course
-    loggedStudent.enrollInCourse(courseId);
-    
-    // Add student to course's student list
-    course.getStudents().add(String.valueOf(loggedStudent.getUserId()));
-    
-    // Save changes to database
-    db.updateUser(loggedStudent);
-    db.updateCourse(course);
-    
     JOptionPane.showMessageDialog(this,
         "Successfully enrolled in: " + course.getTitle(),
         "Enrollment Success",
         JOptionPane.INFORMATION_MESSAGE);
-    
-    // Refresh the table (remove enrolled course from available)
-    loadAvailableCourses(); // Refresh table
+    // The course's row is removed by the UserUpdated event
     
     }//GEN-LAST:event_jButton2ActionPerformed
 
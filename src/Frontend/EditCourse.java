@@ -163,7 +163,7 @@ public class EditCourse extends javax.swing.JFrame {
             course.removeLesson(lessonId);
             
             // Save to Database
-            db.updateCourse(course);
+            db.updateCourseContent(course);
             
             // Refresh Table
             loadCourseData();
@@ -4,6 +4,7 @@
  */
 package Frontend;
 
+import jsondatabase.ChangeEvent;
 import jsondatabase.JsonDatabaseManager;
 import models.Course;
 import models.Lesson;
@@ -35,6 +36,23 @@ public class EnrolledCourses extends javax.swing.JFrame {
     jTable1.setModel(tableModel);
 
     loadEnrolledCourses();  
+
+    // Refresh progress when this student or one of their courses changes
+    if (loggedStudent != null) {
+        LiveUpdates.install(this, db, event -> {
+            boolean relevant = switch (event) {
+                case ChangeEvent.UserUpdated e -> e.userId() == loggedStudent.getUserId();
+                case ChangeEvent.CourseUpdated e -> loggedStudent.getEnrolledCourdseIds().contains(e.courseId());
+                case ChangeEvent.DataReloaded e -> true;
+                default -> false;
+            };
+            if (!relevant) return;
+            if (db.getUserById(loggedStudent.getUserId()) instanceof Student fresh) {
+                loggedStudent = fresh;
+            }
+            loadEnrolledCourses();
+        });
+    }
     }
      private void loadEnrolledCourses() {
         tableModel.setRowCount(0); // Clear old rows
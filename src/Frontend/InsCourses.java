@@ -3,9 +3,16 @@
  * Click nbfs://nbhost/SystemFileSystem/Templates/GUIForms/JFrame.java to edit this template
  */
 package Frontend;
+import jsondatabase.ChangeEvent;
 import jsondatabase.JsonDatabaseManager;
+import jsondatabase.LessonFunnel;
+import jsondatabase.ScoreHistogram;
 import models.Course;
 import models.Instructor;
+import models.Lesson;
+import services.AnalyticsService;
+import services.CourseAdminService;
+import services.Leaderboards;
 
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
@@ -26,6 +33,8 @@ public class InsCourses extends javax.swing.JFrame {
     private Instructor loggedInstructor;
     private DefaultTableModel tableModel;
     private JsonDatabaseManager db = new JsonDatabaseManager();
+    private final CourseAdminService courseAdmin = new CourseAdminService(db);
+    private final AnalyticsService analytics = new AnalyticsService(db);
 
     /**
      * Creates new form InsCourses
@@ -40,6 +49,214 @@ public class InsCourses extends javax.swing.JFrame {
         setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE); // Close only this window
         
         loadInstructorCourses();
+        addCourseViews();
+        LiveUpdates.install(this, db, this::applyChange); // keep rows in step with course changes
+    }
+
+    // ===================================================================
+    // MORE COURSE VIEWS (buttons under the generated ones)
+    // ===================================================================
+    private void addCourseViews() {
+        JPanel views = new JPanel(new java.awt.FlowLayout(java.awt.FlowLayout.LEFT));
+        views.setBorder(BorderFactory.createTitledBorder("Course views"));
+        JButton top = new JButton("Top Students");
+        top.addActionListener(e -> showTopStudents());
+        views.add(top);
+        JButton histogram = new JButton("Score Histogram");
+        histogram.addActionListener(e -> showScoreHistogram());
+        views.add(histogram);
+        JButton activity = new JButton("Activity");
+        activity.addActionListener(e -> showActivity());
+        views.add(activity);
+        JButton funnel = new JButton("Drop-off Funnel");
+        funnel.addActionListener(e -> showFunnel());
+        views.add(funnel);
+
+        JPanel generated = (JPanel) getContentPane();
+        JPanel root = new JPanel(new BorderLayout());
+        root.add(generated, BorderLayout.CENTER);
+        root.add(views, BorderLayout.SOUTH);
+        setContentPane(root);
+        pack();
+        setLocationRelativeTo(null);
+    }
+
+    /** Id and title of the selected course, or null after telling the user to pick one. */
+    private String[] selectedCourse(String what) {
+        int selectedRow = jTable1.getSelectedRow();
+        if (selectedRow == -1) {
+            JOptionPane.showMessageDialog(this, "Please select a course to view " + what + ".");
+            return null;
+        }
+        return new String[]{jTable1.getValueAt(selectedRow, 0).toString(), jTable1.getValueAt(selectedRow, 1).toString()};
+    }
+
+    private void showTopStudents() {
+        String[] course = selectedCourse("its top students");
+        if (course == null) return;
+
+        JTabbedPane tabs = new JTabbedPane();
+        tabs.addTab("Highest average score", new JScrollPane(new JTable(
+                leaderboardModel(course[0], Leaderboards.Ranking.AVERAGE_SCORE))));
+        tabs.addTab("First to finish", new JScrollPane(new JTable(
+                leaderboardModel(course[0], Leaderboards.Ranking.FIRST_TO_FINISH))));
+
+        JDialog dialog = new JDialog(this, "Top Students: " + course[1], true);
+        dialog.setSize(600, 320);
+        dialog.setLocationRelativeTo(this);
+        dialog.add(tabs);
+        dialog.setVisible(true);
+    }
+
+    /** Best-score distribution of the whole course or of one lesson, picked from a list. */
+    private void showScoreHistogram() {
+        String[] course = selectedCourse("its score histogram");
+        if (course == null) return;
+        Course c = db.getCourseById(course[0]);
+        if (c == null) {
+            JOptionPane.showMessageDialog(this, "Error: Course not found.", "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+
+        JComboBox<String> scope = new JComboBox<>();
+        scope.addItem("All lessons");
+        for (Lesson l : c.getLessons()) scope.addItem(l.getTitle());
+        ChartPanel chartPanel = new ChartPanel(null);
+        JLabel lblStats = new JLabel(" ");
+        lblStats.setFont(new java.awt.Font("Segoe UI", java.awt.Font.BOLD, 16));
+        lblStats.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+
+        Runnable show = () -> {
+            int i = scope.getSelectedIndex();
+            ScoreHistogram h = i <= 0
+                    ? analytics.courseScoreHistogram(course[0])
+                    : analytics.lessonScoreHistogram(course[0], c.getLessons().get(i - 1).getLessonId());
+            chartPanel.setChart(histogramChart(scope.getSelectedItem() + ": " + course[1], h));
+            lblStats.setText(h.count() == 0
+                    ? "  No quiz attempts yet."
+                    : String.format("  %d students   Median %d%%   90th percentile %d%%   Mean %.1f%%",
+                            h.count(), h.median(), h.percentile(90), h.mean()));
+        };
+        scope.addActionListener(e -> show.run());
+        show.run();
+
+        JDialog chartWindow = new JDialog(this, "Score Histogram: " + course[1], true);
+        chartWindow.setSize(800, 600);
+        chartWindow.setLocationRelativeTo(this);
+        chartWindow.setLayout(new BorderLayout());
+        chartWindow.add(scope, BorderLayout.NORTH);
+        chartWindow.add(chartPanel, BorderLayout.CENTER);
+        chartWindow.add(lblStats, BorderLayout.SOUTH);
+        chartWindow.setVisible(true);
+    }
+
+    private void showActivity() {
+        String[] course = selectedCourse("its activity");
+        if (course == null) return;
+        String active = String.format("Students active: ~%,d today, ~%,d this week",
+                analytics.activeStudents(course[0], 1), analytics.activeStudents(course[0], 7));
+        ActivityChart.show(this, course[1], (resolution, buckets) -> analytics.courseActivity(course[0], resolution, buckets), active);
+    }
+
+    /** Share of enrolled students through each lesson, to see where they stall. */
+    private void showFunnel() {
+        String[] course = selectedCourse("its drop-off funnel");
+        if (course == null) return;
+        LessonFunnel funnel = analytics.lessonFunnel(course[0]);
+        if (funnel == null || funnel.steps().isEmpty()) {
+            JOptionPane.showMessageDialog(this, "This course has no lessons yet.");
+            return;
+        }
+
+        DefaultCategoryDataset dataset = new DefaultCategoryDataset();
+        int worst = 0;
+        double worstDrop = -1;
+        for (int i = 0; i < funnel.steps().size(); i++) {
+            String lesson = (i + 1) + ". " + funnel.steps().get(i).title();
+            dataset.addValue(funnel.reachedPercent(i), "Completed this and every earlier lesson", lesson);
+            dataset.addValue(funnel.completedPercent(i), "Completed this lesson", lesson);
+            double drop = (i == 0 ? 100 : funnel.reachedPercent(i - 1)) - funnel.reachedPercent(i);
+            if (drop > worstDrop) {
+                worstDrop = drop;
+                worst = i;
+            }
+        }
+        JFreeChart barChart = ChartFactory.createBarChart(
+            "Lesson Drop-off: " + course[1], "Lesson", "Enrolled Students (%)", dataset,
+            PlotOrientation.VERTICAL, true, true, false);
+
+        JDialog chartWindow = new JDialog(this, "Drop-off Funnel: " + course[1], true);
+        chartWindow.setSize(800, 600);
+        chartWindow.setLocationRelativeTo(this);
+        chartWindow.setLayout(new BorderLayout());
+        chartWindow.add(new ChartPanel(barChart), BorderLayout.CENTER);
+        JLabel lblStats = new JLabel(funnel.enrolled() == 0
+                ? "  No students enrolled yet."
+                : String.format("  %d enrolled   Biggest drop: lesson %d, %s", funnel.enrolled(), worst + 1,
+                        funnel.steps().get(worst).title()));
+        lblStats.setFont(new java.awt.Font("Segoe UI", java.awt.Font.BOLD, 16));
+        lblStats.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+        chartWindow.add(lblStats, BorderLayout.SOUTH);
+        chartWindow.setVisible(true);
+    }
+
+    /** Students per 10-point band of best score (the last band is 90-100). */
+    private static JFreeChart histogramChart(String title, ScoreHistogram h) {
+        DefaultCategoryDataset dataset = new DefaultCategoryDataset();
+        for (int from = 0; from < 100; from += 10) {
+            int to = from == 90 ? 100 : from + 9;
+            dataset.addValue(h.count(from, to), "Students", from + "-" + to);
+        }
+        return ChartFactory.createBarChart(title, "Best Score (%)", "Students", dataset,
+                PlotOrientation.VERTICAL, false, true, false);
+    }
+
+    private DefaultTableModel leaderboardModel(String courseId, Leaderboards.Ranking ranking) {
+        DefaultTableModel model = new DefaultTableModel(new String[]{"Rank", "Student", "Avg Best Score", "Finished"}, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        java.text.SimpleDateFormat when = new java.text.SimpleDateFormat("yyyy-MM-dd HH:mm");
+        int rank = 1;
+        for (Leaderboards.Entry e : analytics.topStudents(courseId, ranking)) {
+            model.addRow(new Object[]{
+                rank++,
+                analytics.studentName(e.studentId()),
+                String.format("%.1f%%", e.averageScore()),
+                e.completedAt() == 0 ? "-" : when.format(new java.util.Date(e.completedAt()))
+            });
+        }
+        return model;
+    }
+
+    // Update only the row of the course that changed
+    private void applyChange(ChangeEvent event) {
+        switch (event) {
+            case ChangeEvent.CourseUpdated e -> {
+                int row = LiveUpdates.findRow(tableModel, e.courseId());
+                Course c = db.getCourseById(e.courseId());
+                boolean mine = c != null && c.getInstructorId().equals(String.valueOf(loggedInstructor.getUserId()));
+                if (!mine) {
+                    if (row >= 0) tableModel.removeRow(row);
+                    return;
+                }
+                Object[] data = {c.getCourseId(), c.getTitle(), c.getDescription(), c.getStatus()};
+                if (row < 0) {
+                    tableModel.addRow(data);
+                } else {
+                    for (int col = 1; col < data.length; col++) tableModel.setValueAt(data[col], row, col);
+                }
+            }
+            case ChangeEvent.CourseRemoved e -> {
+                int row = LiveUpdates.findRow(tableModel, e.courseId());
+                if (row >= 0) tableModel.removeRow(row);
+            }
+            case ChangeEvent.DataReloaded e -> loadInstructorCourses();
+            default -> {
+            }
+        }
     }
     private void loadInstructorCourses() {
         // --- THE FIX: Create the model FIRST. Do not call setRowCount(0) here. ---
@@ -56,18 +273,13 @@ public class InsCourses extends javax.swing.JFrame {
         if (loggedInstructor == null) return;
 
         // Load Data
-        java.util.List<Course> allCourses = db.loadCourses();
-        String myId = String.valueOf(loggedInstructor.getUserId());
-
-        for(Course c: allCourses){
-            if(c.getInstructorId().equals(myId)){
-                tableModel.addRow(new Object[]{
-                        c.getCourseId(),
-                        c.getTitle(),
-                        c.getDescription(),
-                        c.getStatus()
-                });
-            }
+        for(Course c: courseAdmin.instructorCourses(loggedInstructor.getUserId())){
+            tableModel.addRow(new Object[]{
+                    c.getCourseId(),
+                    c.getTitle(),
+                    c.getDescription(),
+                    c.getStatus()
+            });
         }
 
         // Apply to table (NetBeans named it jTable1)
@@ -201,11 +413,11 @@ public class InsCourses extends javax.swing.JFrame {
         int confirm = JOptionPane.showConfirmDialog(this, "Are you sure you want to delete " + courseId + "?");
 
         if (confirm == JOptionPane.YES_OPTION) {
-            List<Course> courses = db.loadCourses();
-            courses.removeIf(c -> c.getCourseId().equals(courseId));
-            db.saveCourses(courses);
-            loadInstructorCourses(); // Refresh table
-            JOptionPane.showMessageDialog(this, "Course Deleted.");
+            if (courseAdmin.deleteCourse(courseId)) { // the row is removed by the CourseRemoved event
+                JOptionPane.showMessageDialog(this, "Course Deleted.");
+            } else {
+                JOptionPane.showMessageDialog(this, "Error: Course not found.", "Error", JOptionPane.ERROR_MESSAGE);
+            }
         }
     }//GEN-LAST:event_deleteActionPerformed
 
@@ -239,10 +451,9 @@ public class InsCourses extends javax.swing.JFrame {
         String courseId = jTable1.getValueAt(selectedRow, 0).toString();
         String courseTitle = jTable1.getValueAt(selectedRow, 1).toString();
 
-        // 3. Fetch Data using the Manager methods we added earlier
-        // (Ensure your JsonDatabaseManager has getCourseCompletionRate & getCoursePerformanceData)
-        double completionRate = db.getCourseCompletionRate(courseId);
-        Map<String, Double> lessonStats = db.getCoursePerformanceData(courseId);
+        // 3. Fetch Data from the analytics service
+        double completionRate = analytics.courseCompletionRate(courseId);
+        Map<String, Double> lessonStats = analytics.coursePerformance(courseId);
 
         // 4. Create Dataset for JFreeChart
         DefaultCategoryDataset dataset = new DefaultCategoryDataset();
@@ -4,13 +4,20 @@
  */
 package Frontend;
 
+import jsondatabase.JsonDatabaseManager;
 import models.Instructor;
+import services.AnalyticsService;
 
 
 import javax.swing.*;
+import java.awt.BorderLayout;
+import java.awt.GridLayout;
 public class InstructorDashboard extends javax.swing.JFrame {
 
      private Instructor loggedInstructor;
+     private final AnalyticsService analytics = new AnalyticsService(new JsonDatabaseManager());
+     private final JLabel activeToday = new JLabel("0");
+     private final JLabel activeWeek = new JLabel("0");
 
     /**
      * Creates new form InstructorDashboard
@@ -21,9 +28,48 @@ public class InstructorDashboard extends javax.swing.JFrame {
     public InstructorDashboard(Instructor ins) {
         this.loggedInstructor= ins;
         initComponents();
+        addActivePanel();
         setLocationRelativeTo(null);
     }
 
+    // ===================================================================
+    // ACTIVE STUDENTS (under the buttons, refreshed every few seconds)
+    // ===================================================================
+    private void addActivePanel() {
+        JPanel active = new JPanel(new GridLayout(0, 2, 12, 4));
+        active.setBorder(BorderFactory.createCompoundBorder(
+                BorderFactory.createTitledBorder("Students active in your courses"),
+                BorderFactory.createEmptyBorder(4, 8, 4, 8)));
+        active.add(new JLabel("Today"));
+        active.add(activeToday);
+        active.add(new JLabel("Last 7 days"));
+        active.add(activeWeek);
+
+        JPanel dashboard = (JPanel) getContentPane();
+        JPanel root = new JPanel(new BorderLayout());
+        root.add(dashboard, BorderLayout.CENTER);
+        root.add(active, BorderLayout.SOUTH);
+        setContentPane(root);
+        pack();
+
+        refreshActive();
+        Timer timer = new Timer(5000, e -> refreshActive());
+        timer.start();
+        addWindowListener(new java.awt.event.WindowAdapter() {
+            @Override
+            public void windowClosed(java.awt.event.WindowEvent e) {
+                timer.stop();
+            }
+        });
+    }
+
+    // Approximate (HyperLogLog): a student active in several courses counts once
+    private void refreshActive() {
+        int id = loggedInstructor.getUserId();
+        activeToday.setText(String.format("~%,d", analytics.activeStudentsOfInstructor(id, 1)));
+        activeWeek.setText(String.format("~%,d", analytics.activeStudentsOfInstructor(id, 7)));
+    }
+
     /**
      * This method is called from within the constructor to initialize the form.
      * WARNING: Do NOT modify this code. The content of this method is always
@@ -0,0 +1,132 @@
+package Frontend;
+
+import services.AnalyticsService;
+import services.ItemAnalysis;
+
+import javax.swing.BorderFactory;
+import javax.swing.JButton;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import javax.swing.ListSelectionModel;
+import javax.swing.SwingWorker;
+import javax.swing.table.DefaultTableModel;
+import java.awt.BorderLayout;
+import java.awt.Dimension;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Difficulty and discrimination of each question, shown beside the question list
+ * of {@link QuizEditor}. Rows are in question order, so row i is question i.
+ *
+ * The analysis runs off the EDT; it is cached per quiz version, so refreshing an
+ * unchanged quiz is instant.
+ */
+final class ItemAnalysisPanel extends JPanel {
+
+    private final AnalyticsService analytics;
+    private final String courseId;
+    private final String lessonId;
+    private final DefaultTableModel model;
+    private final JTable table;
+    private final JLabel summary = new JLabel(" ");
+    private SwingWorker<ItemAnalysis.Report, Void> running;
+
+    ItemAnalysisPanel(AnalyticsService analytics, String courseId, String lessonId) {
+        super(new BorderLayout(0, 6));
+        this.analytics = analytics;
+        this.courseId = courseId;
+        this.lessonId = lessonId;
+
+        model = new DefaultTableModel(new String[]{"#", "Difficulty", "Discrimination", "Note"}, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        table = new JTable(model);
+        table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        table.getColumnModel().getColumn(0).setMaxWidth(35);
+
+        JButton refresh = new JButton("Refresh");
+        refresh.addActionListener(e -> refresh());
+        JPanel bottom = new JPanel(new BorderLayout());
+        bottom.add(summary, BorderLayout.CENTER);
+        bottom.add(refresh, BorderLayout.EAST);
+
+        JLabel title = new JLabel("Item Analysis");
+        title.setFont(new java.awt.Font("Segoe UI", java.awt.Font.BOLD, 14));
+        add(title, BorderLayout.NORTH);
+        add(new JScrollPane(table), BorderLayout.CENTER);
+        add(bottom, BorderLayout.SOUTH);
+        setBorder(BorderFactory.createEmptyBorder(8, 8, 8, 8));
+        setPreferredSize(new Dimension(380, 0));
+    }
+
+    /** Highlights the analysis row of the question selected in the editor. */
+    void selectQuestion(int question) {
+        if (question >= 0 && question < table.getRowCount()) {
+            table.setRowSelectionInterval(question, question);
+        } else {
+            table.clearSelection();
+        }
+    }
+
+    /** Recomputes (or fetches from the cache) and fills the table. */
+    void refresh() {
+        if (running != null) running.cancel(false);
+        summary.setText("Analyzing...");
+        running = new SwingWorker<>() {
+            @Override
+            protected ItemAnalysis.Report doInBackground() {
+                return analytics.itemAnalysis(courseId, lessonId);
+            }
+
+            @Override
+            protected void done() {
+                if (isCancelled()) return;
+                try {
+                    show(get());
+                } catch (ExecutionException e) {
+                    // No quiz (yet) or the lesson was removed
+                    model.setRowCount(0);
+                    summary.setText(e.getCause().getMessage());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        running.execute();
+    }
+
+    private void show(ItemAnalysis.Report report) {
+        model.setRowCount(0);
+        for (ItemAnalysis.Question q : report.questions()) {
+            model.addRow(new Object[]{
+                q.question() + 1,
+                format(q.difficulty()),
+                format(q.discrimination()),
+                report.attempts() == 0 ? "" : note(q)
+            });
+        }
+        if (report.attempts() == 0) {
+            summary.setText("No answered attempts yet.");
+        } else {
+            summary.setText(String.format("%d attempts, mean %.1f%%, KR-20 %s",
+                    report.attempts(), report.meanScore(), format(report.reliability())));
+        }
+    }
+
+    private static String note(ItemAnalysis.Question q) {
+        if (q.discrimination() < 0) return "Check the answer key";
+        if (q.difficulty() > 0.9) return "Too easy";
+        if (q.difficulty() < 0.2) return "Too hard";
+        if (q.discrimination() < 0.2) return "Weak discrimination";
+        return "";
+    }
+
+    private static String format(double value) {
+        return Double.isNaN(value) ? "-" : String.format("%.2f", value);
+    }
+}
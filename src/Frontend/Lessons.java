@@ -11,11 +11,14 @@ import java.util.List;
 import javax.swing.JOptionPane;
 
 import javax.swing.table.DefaultTableModel;
+import jsondatabase.ChangeEvent;
 import jsondatabase.JsonDatabaseManager;
+import jsondatabase.ProgressSnapshot;
 import models.Course;
 import models.Lesson;
 import models.Quiz;
 import models.Student;
+import services.QuizService;
 
 /**
  *
@@ -25,6 +28,7 @@ public class Lessons extends javax.swing.JFrame {
 
     private Student loggedStudent;
     private Course course;
+    private ProgressSnapshot progress;
     private List<String> viewedLessons = new ArrayList<>();
     public Lessons() {
         initComponents();
@@ -44,60 +48,97 @@ public class Lessons extends javax.swing.JFrame {
         setTitle("Course Lessons");    // Window title
         
         loadLessons();  // Load lessons into table
+
+        // Keep rows in step with this student's attempts and this course's lessons
+        LiveUpdates.install(this, new JsonDatabaseManager(), this::applyChange);
     }
      private void loadLessons() {
-        // 1. Refresh Student Data (Critical to see new attempts immediately)
-        // We reload the student from DB to ensure we have the latest attempts
-        jsondatabase.JsonDatabaseManager db = new jsondatabase.JsonDatabaseManager();
-        models.User freshUser = db.getCourseById(course.getCourseId()) != null ? 
-                                db.loadUsers().stream().filter(u -> u.getUserId() == loggedStudent.getUserId()).findFirst().orElse(loggedStudent) 
-                                : loggedStudent;
-        
-        if (freshUser instanceof Student) {
-            this.loggedStudent = (Student) freshUser;
-        }
+        // 1. One snapshot of this student's progress in the course (no user or course copy)
+        progress = new JsonDatabaseManager().getProgress(loggedStudent.getUserId(), course.getCourseId());
 
         // 2. Setup Table
         DefaultTableModel model = (DefaultTableModel) tableLessons.getModel();
         model.setRowCount(0); 
+        if (progress == null) return;
+
+        for (ProgressSnapshot.LessonProgress lesson : progress.lessons()) {
+            model.addRow(lessonRow(lesson));
+        }
+    }
+
+    private void refreshCourse() {
+        Course fresh = new JsonDatabaseManager().getCourseById(course.getCourseId());
+        if (fresh != null) this.course = fresh;
+    }
+
+    private Object[] lessonRow(ProgressSnapshot.LessonProgress lesson) {
+        // Lesson Completion Status
+        String status = lesson.completed() ? "Completed" : "In Progress";
         
-        List<Lesson> lessons = course.getLessons();
+        // Quiz Status Logic
+        String quizStatus = "No Quiz";
+        if (lesson.hasQuiz()) {
+            if (lesson.attempts() == 0) {
+                quizStatus = "Not Taken";
+            } else if (lesson.passed()) {
+                quizStatus = "Passed (" + lesson.bestScore() + "%)";
+            } else {
+                quizStatus = "Failed (" + lesson.bestScore() + "%)";
+            }
+        }
         
-        for (Lesson lesson : lessons) {
-            // Lesson Completion Status
-            String status = loggedStudent.getCompletedLesssonIds().contains(lesson.getLessonId()) 
-                            ? "Completed" : "In Progress";
-            
-            // Quiz Status Logic
-            String quizStatus = "No Quiz";
-            if (lesson.getQuiz() != null && lesson.getQuiz().totalQuestions() > 0) {
-                List<models.QuizAttempt> attempts = loggedStudent.getAttemptsForLesson(lesson.getLessonId());
-                
-                if (attempts == null || attempts.isEmpty()) {
-                    quizStatus = "Not Taken";
-                } else {
-                    // Check if passed
-                    boolean passed = false;
-                    int highestScore = 0;
-                    for (models.QuizAttempt qa : attempts) {
-                        if (qa.getScore() > highestScore) highestScore = qa.getScore();
-                        if (qa.getScore() >= lesson.getQuiz().getPassingPercentage()) passed = true;
-                    }
-                    
-                    if (passed) {
-                        quizStatus = "Passed (" + highestScore + "%)";
-                    } else {
-                        quizStatus = "Failed (" + highestScore + "%)";
-                    }
-                }
+        return new Object[] {
+            lesson.lessonId(),
+            lesson.title(),
+            status,
+            quizStatus
+        };
+    }
+
+    // Rewrites the row of one lesson from a fresh snapshot, adding it if it is new
+    private void updateLessonRow(String lessonId) {
+        progress = new JsonDatabaseManager().getProgress(loggedStudent.getUserId(), course.getCourseId());
+        ProgressSnapshot.LessonProgress lesson = progress == null ? null : progress.lesson(lessonId);
+        if (lesson == null) return;
+        DefaultTableModel model = (DefaultTableModel) tableLessons.getModel();
+        Object[] data = lessonRow(lesson);
+        int row = LiveUpdates.findRow(model, lessonId);
+        if (row < 0) {
+            model.addRow(data);
+        } else {
+            for (int col = 1; col < data.length; col++) model.setValueAt(data[col], row, col);
+        }
+    }
+
+    private Lesson findLesson(String lessonId) {
+        for (Lesson l : course.getLessons()) {
+            if (l.getLessonId().equals(lessonId)) return l;
+        }
+        return null;
+    }
+
+    private void applyChange(ChangeEvent event) {
+        String courseId = course.getCourseId();
+        switch (event) {
+            case ChangeEvent.QuizAttemptRecorded e when e.studentId() == loggedStudent.getUserId() -> {
+                if (findLesson(e.lessonId()) != null) updateLessonRow(e.lessonId());
+            }
+            case ChangeEvent.LessonAdded e when e.courseId().equals(courseId) -> {
+                refreshCourse();
+                updateLessonRow(e.lessonId());
+            }
+            case ChangeEvent.CourseUpdated e when e.courseId().equals(courseId) -> {
+                // Lessons may have been edited, reordered or removed; the table is one course
+                refreshCourse();
+                lblCourseTitle.setText(course.getTitle());
+                loadLessons();
+            }
+            case ChangeEvent.DataReloaded e -> {
+                refreshCourse();
+                loadLessons();
+            }
+            default -> {
             }
-            
-            model.addRow(new Object[] {
-                lesson.getLessonId(),
-                lesson.getTitle(),
-                status,
-                quizStatus
-            });
         }
     }
     /**
@@ -310,11 +351,7 @@ if (quiz.getQuestions() == null || quiz.getQuestions().isEmpty()) {
 }
 
 // ===== NEW: Max attempts restriction =====
-JsonDatabaseManager db = new JsonDatabaseManager();
-if (!db.canTakeQuiz(
-        loggedStudent.getUserId(),
-        selectedLesson.getLessonId(),
-        quiz.getMaxAttempts())) {
+if (!new QuizService(new JsonDatabaseManager()).canTakeQuiz(loggedStudent.getUserId(), selectedLesson)) {
 
     JOptionPane.showMessageDialog(this,
         "You have reached the maximum number of attempts for this quiz.",
@@ -325,12 +362,7 @@ if (!db.canTakeQuiz(
 
 // ===== Open Quiz Page =====
 QuizPage quizPage = new QuizPage(loggedStudent, course, selectedLesson);
-quizPage.addWindowListener(new java.awt.event.WindowAdapter() {
-    @Override
-    public void windowClosed(java.awt.event.WindowEvent windowEvent) {
-        loadLessons(); // REFRESH TABLE when quiz is done
-    }
-});
+// The lesson's row is refreshed by the QuizAttemptRecorded event when the quiz is submitted
 quizPage.setVisible(true);
     }//GEN-LAST:event_jButton2ActionPerformed
 
@@ -0,0 +1,92 @@
+package Frontend;
+
+import jsondatabase.ChangeEvent;
+import jsondatabase.JsonDatabaseManager;
+
+import javax.swing.JFrame;
+import javax.swing.SwingUtilities;
+import javax.swing.table.DefaultTableModel;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Feeds a screen the database's change events on the EDT, so it can update the
+ * affected table rows instead of reloading everything.
+ *
+ * Events that arrive before the EDT gets to them are handed over in one go.
+ * The subscription is cancelled when the window is closed.
+ */
+final class LiveUpdates implements Flow.Subscriber<ChangeEvent> {
+
+    private final JFrame frame;
+    private final Consumer<ChangeEvent> handler;
+    private final ConcurrentLinkedQueue<ChangeEvent> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean drainQueued = new AtomicBoolean();
+    private volatile Flow.Subscription subscription;
+
+    private LiveUpdates(JFrame frame, Consumer<ChangeEvent> handler) {
+        this.frame = frame;
+        this.handler = handler;
+    }
+
+    static void install(JFrame frame, JsonDatabaseManager db, Consumer<ChangeEvent> handler) {
+        LiveUpdates subscriber = new LiveUpdates(frame, handler);
+        db.changes().subscribe(subscriber);
+        frame.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                Flow.Subscription s = subscriber.subscription;
+                if (s != null) s.cancel();
+            }
+        });
+    }
+
+    /** Index of the row whose first column is {@code id}, or -1. */
+    static int findRow(DefaultTableModel model, Object id) {
+        for (int i = 0; i < model.getRowCount(); i++) {
+            if (Objects.equals(String.valueOf(model.getValueAt(i, 0)), String.valueOf(id))) return i;
+        }
+        return -1;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        subscription.request(Long.MAX_VALUE);
+    }
+
+    @Override
+    public void onNext(ChangeEvent event) {
+        queue.add(event);
+        if (drainQueued.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(this::drain);
+        }
+    }
+
+    private void drain() {
+        drainQueued.set(false);
+        ChangeEvent event;
+        while ((event = queue.poll()) != null) {
+            if (!frame.isDisplayable()) return;
+            try {
+                handler.accept(event);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        throwable.printStackTrace();
+    }
+
+    @Override
+    public void onComplete() {
+    }
+}
@@ -9,10 +9,14 @@ import models.Admin;
 
 import models.Student;
 import models.Instructor;
+import jsondatabase.JsonDatabaseManager;
+import services.AuthService;
 
 
 public class Login extends javax.swing.JFrame {
 
+    private final AuthService auth = new AuthService(new JsonDatabaseManager());
+
     /**
      * Creates new form login
      */
@@ -164,48 +168,12 @@ public class Login extends javax.swing.JFrame {
             return;
         }
 
-        // ----------- HASH USER INPUT PASSWORD -----------
-        String hashedInput = hashPassword(password);
-
-        // ----------- LOAD USERS FROM JSON -----------
-        jsondatabase.JsonDatabaseManager db = new jsondatabase.JsonDatabaseManager();
-        java.util.List<models.User> users = db.loadUsers();
-
-        // ----------- FIND USER BY USERNAME -----------
-        models.User found = null;
-        for (models.User u : users) {
-            if (u.getUsername().equalsIgnoreCase(username)) {
-                found = u;
-                break;
-            }
-        }
-        // Inside Login.java -> btnLoginActionPerformed
-
-System.out.println("--- DEBUG INFO ---");
-System.out.println("Username: " + found.getUsername());
-System.out.println("Input Hash (What you typed): " + hashedInput);
-System.out.println("Stored Hash (From file):     " + found.getPasswordHash());
-System.out.println("------------------");
-
-if (!found.getPasswordHash().equals(hashedInput)) {
-    JOptionPane.showMessageDialog(this, "Incorrect password.", "Login Failed", JOptionPane.ERROR_MESSAGE);
-    return;
-}
-
-        if (found == null) {
-            JOptionPane.showMessageDialog(this, "User not found.", "Login Failed", JOptionPane.ERROR_MESSAGE);
-            return;
-        }
-
-        // ----------- CHECK ROLE MATCH -----------
-        if (!found.getRole().equalsIgnoreCase(selectedRole)) {
-            JOptionPane.showMessageDialog(this, "Incorrect role selected.", "Login Failed", JOptionPane.ERROR_MESSAGE);
-            return;
-        }
-
-        // ----------- VERIFY HASHED PASSWORD -----------
-        if (!found.getPasswordHash().equals(hashedInput)) {
-            JOptionPane.showMessageDialog(this, "Incorrect password.", "Login Failed", JOptionPane.ERROR_MESSAGE);
+        // ----------- CHECK CREDENTIALS -----------
+        models.User found;
+        try {
+            found = auth.login(username, password, selectedRole);
+        } catch (IllegalArgumentException ex) {
+            JOptionPane.showMessageDialog(this, ex.getMessage(), "Login Failed", JOptionPane.ERROR_MESSAGE);
             return;
         }
 
@@ -249,20 +217,6 @@ if (!found.getPasswordHash().equals(hashedInput)) {
     private void textPasswordActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_textPasswordActionPerformed
         // TODO add your handling code here:
     }//GEN-LAST:event_textPasswordActionPerformed
-private String hashPassword(String rawPassword) {
-    try {
-        java.security.MessageDigest md = java.security.MessageDigest.getInstance("SHA-256");
-        byte[] bytes = md.digest(rawPassword.getBytes(java.nio.charset.StandardCharsets.UTF_8)); // always UTF-8
-        StringBuilder sb = new StringBuilder();
-        for (byte b : bytes) {
-            sb.append(String.format("%02x", b));
-        }
-        return sb.toString();
-    } catch (java.security.NoSuchAlgorithmException e) {
-        throw new RuntimeException("SHA-256 algorithm not found", e);
-    }
-}
-  
     public static void main(String args[]) {
         /* Set the Nimbus look and feel */
         //<editor-fold defaultstate="collapsed" desc=" Look and feel setting code (optional) ">
@@ -0,0 +1,132 @@
+package Frontend;
+
+import jsondatabase.JsonDatabaseManager;
+import jsondatabase.UpdateResult;
+import models.Course;
+import models.Quiz;
+import services.AnalyticsService;
+import services.PassThresholds;
+
+import javax.swing.BorderFactory;
+import javax.swing.JButton;
+import javax.swing.JLabel;
+import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+import javax.swing.JSlider;
+import javax.swing.SwingWorker;
+import java.awt.BorderLayout;
+import java.awt.GridLayout;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * "What if the pass mark were..." under the question list of {@link QuizEditor}.
+ * Moving the slider only reads the counts fetched once, so every position answers
+ * instantly; Apply saves the new pass mark to the quiz.
+ */
+final class PassThresholdPanel extends JPanel {
+
+    private final AnalyticsService analytics;
+    private final JsonDatabaseManager db;
+    private final Course course;
+    private final String lessonId;
+    private final JSlider slider = new JSlider(0, 100, 60);
+    private final JLabel passing = new JLabel(" ");
+    private final JLabel completing = new JLabel(" ");
+    private final JLabel certificates = new JLabel(" ");
+    private final JButton apply = new JButton("Apply");
+    private PassThresholds.WhatIf whatIf;
+
+    PassThresholdPanel(AnalyticsService analytics, JsonDatabaseManager db, Course course, String lessonId) {
+        super(new BorderLayout(8, 4));
+        this.analytics = analytics;
+        this.db = db;
+        this.course = course;
+        this.lessonId = lessonId;
+
+        slider.setMajorTickSpacing(10);
+        slider.setPaintTicks(true);
+        slider.setPaintLabels(true);
+        slider.addChangeListener(e -> showThreshold());
+        apply.addActionListener(e -> applyPassMark());
+        apply.setEnabled(false);
+
+        JPanel numbers = new JPanel(new GridLayout(3, 1));
+        numbers.add(passing);
+        numbers.add(completing);
+        numbers.add(certificates);
+
+        add(slider, BorderLayout.CENTER);
+        add(numbers, BorderLayout.EAST);
+        add(apply, BorderLayout.WEST);
+        setBorder(BorderFactory.createTitledBorder("What if the pass mark were..."));
+    }
+
+    /** Fetches the counts off the EDT and puts the slider on the current pass mark. */
+    void refresh() {
+        new SwingWorker<PassThresholds.WhatIf, Void>() {
+            @Override
+            protected PassThresholds.WhatIf doInBackground() {
+                return analytics.passThresholds(course.getCourseId(), lessonId);
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    whatIf = get();
+                    slider.setValue(whatIf.passMark());
+                    showThreshold();
+                } catch (ExecutionException e) {
+                    // No quiz (yet) or the lesson was removed
+                    whatIf = null;
+                    passing.setText(e.getCause().getMessage());
+                    completing.setText(" ");
+                    certificates.setText(" ");
+                    apply.setEnabled(false);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }.execute();
+    }
+
+    private void showThreshold() {
+        if (whatIf == null) return;
+        int t = slider.getValue();
+        passing.setText(String.format("Would pass: %d of %d students (now %d)",
+                whatIf.passing(t), whatIf.attempted(), whatIf.passing(whatIf.passMark())));
+        completing.setText(String.format("Would finish the course: %d (now %d)",
+                whatIf.completing(t), whatIf.completing(whatIf.passMark())));
+        long change = whatIf.certificateChange(t);
+        certificates.setText(change == 0 ? "Certificates: no change"
+                : String.format("Certificates: %+d", change));
+        apply.setEnabled(t != whatIf.passMark());
+    }
+
+    private void applyPassMark() {
+        int t = slider.getValue();
+        int confirm = JOptionPane.showConfirmDialog(this,
+                "Set the pass mark to " + t + "%? Attempts already made keep their result.");
+        if (confirm != JOptionPane.YES_OPTION) return;
+        // Change the saved course, not the editor's copy, so edits made since are kept
+        UpdateResult<Course> result = db.updateCourse(course.getCourseId(), c -> {
+            Quiz quiz = quizOf(c);
+            if (quiz != null) quiz.setPassingPercentage(t);
+        });
+        if (!result.isUpdated()) {
+            JOptionPane.showMessageDialog(this, "Could not save the pass mark: the course no longer exists.",
+                    "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        Quiz shown = quizOf(course);
+        if (shown != null) shown.setPassingPercentage(t); // keep the editor in step
+        refresh();
+    }
+
+    private Quiz quizOf(Course c) {
+        return c.getLessons().stream()
+                .filter(l -> l.getLessonId().equals(lessonId))
+                .map(l -> l.getQuiz())
+                .filter(q -> q != null)
+                .findFirst().orElse(null);
+    }
+}
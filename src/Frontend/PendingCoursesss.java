@@ -8,10 +8,11 @@ import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.*;
-import java.lang.reflect.Method;
 import java.time.Instant;
 import java.util.List;
+import jsondatabase.ChangeEvent;
 import jsondatabase.JsonDatabaseManager;
+import services.CourseAdminService;
 import models.Course;
 import models.Admin;
 
@@ -24,15 +25,18 @@ public class PendingCoursesss extends javax.swing.JFrame {
     private Admin loggedAdmin;
     private DefaultTableModel tableModel;
     private JsonDatabaseManager db = new JsonDatabaseManager();
+    private CourseAdminService courseAdmin = new CourseAdminService(db);
 
     // Constructor receiving the Admin user
     public PendingCoursesss(Admin admin) {
         initComponents();      // generated UI
         this.loggedAdmin = admin;
         this.db = new JsonDatabaseManager(); // ensure DB manager is initialized
+        this.courseAdmin = new CourseAdminService(db);
         setLocationRelativeTo(null); // center window
         initCustom();          // set up table model and listeners
         loadPendingCourses();  // populate table (synchronous, light data)
+        LiveUpdates.install(this, db, this::applyChange); // keep rows in step with course changes
     }
 
     // Custom initialization: read-only table model + double-click view
@@ -59,36 +63,53 @@ public class PendingCoursesss extends javax.swing.JFrame {
     // Load only PENDING courses into the table
     private void loadPendingCourses() {
         tableModel.setRowCount(0); // clear
-        List<Course> all = null;
+        List<Course> pending;
         try {
-            // prefer method name loadCourses() but fallback to getCourses()
-            try {
-                all = db.loadCourses();
-            } catch (Throwable t) {
-                all = db.loadCourses();
-            }
-            if (all == null) {
-                all = java.util.Collections.emptyList();
-            }
+            pending = courseAdmin.pendingCourses();
         } catch (Throwable e) {
             e.printStackTrace();
-            all = java.util.Collections.emptyList();
+            pending = java.util.Collections.emptyList();
         }
 
-        for (Course c : all) {
-            String status = "";
-            try {
-                status = c.getStatus() == null ? "" : c.getStatus().trim();
-            } catch (Throwable ignored) {
-            }
-            if (!"PENDING".equalsIgnoreCase(status)) {
-                continue;
-            }
+        for (Course c : pending) {
             Object[] row = new Object[]{c.getCourseId(), c.getTitle(), c.getInstructorId()};
             tableModel.addRow(row);
         }
     }
 
+    // Update only the row of the course that changed
+    private void applyChange(ChangeEvent event) {
+        switch (event) {
+            case ChangeEvent.CourseStatusChanged e -> {
+                int row = LiveUpdates.findRow(tableModel, e.courseId());
+                boolean pending = "PENDING".equalsIgnoreCase(e.newStatus());
+                if (pending && row < 0) {
+                    Course c = db.getCourseById(e.courseId());
+                    if (c != null) {
+                        tableModel.addRow(new Object[]{c.getCourseId(), c.getTitle(), c.getInstructorId()});
+                    }
+                } else if (!pending && row >= 0) {
+                    tableModel.removeRow(row);
+                }
+            }
+            case ChangeEvent.CourseUpdated e -> {
+                int row = LiveUpdates.findRow(tableModel, e.courseId());
+                Course c = row < 0 ? null : db.getCourseById(e.courseId());
+                if (c != null) {
+                    tableModel.setValueAt(c.getTitle(), row, 1);
+                    tableModel.setValueAt(c.getInstructorId(), row, 2);
+                }
+            }
+            case ChangeEvent.CourseRemoved e -> {
+                int row = LiveUpdates.findRow(tableModel, e.courseId());
+                if (row >= 0) tableModel.removeRow(row);
+            }
+            case ChangeEvent.DataReloaded e -> loadPendingCourses();
+            default -> {
+            }
+        }
+    }
+
     // Default constructor for testing
     public PendingCoursesss() {
         initComponents();
@@ -110,23 +131,11 @@ public class PendingCoursesss extends javax.swing.JFrame {
         // Get Course ID from the first column
         String courseId = (String) tableModel.getValueAt(selectedRow, 0);
 
-        // Load all courses
-        List<Course> allCourses = db.loadCourses();
-        boolean found = false;
-
-        // Find and update
-        for (Course c : allCourses) {
-            if (c.getCourseId().equals(courseId)) {
-                c.setStatus(newStatus);
-                found = true;
-                break;
-            }
-        }
-
-        if (found) {
-            db.saveCourses(allCourses); // Save to JSON
+        // Find and update (applied to the stored copy, retried on conflict)
+        // Applied to the stored copy, retried on conflict
+        if (courseAdmin.setStatus(courseId, newStatus)) {
             JOptionPane.showMessageDialog(this, "Course " + newStatus);
-            loadPendingCourses(); // Refresh table
+            // The row is removed by the CourseStatusChanged event
         } else {
             JOptionPane.showMessageDialog(this, "Error: Course not found.");
         }
@@ -238,15 +247,8 @@ public class PendingCoursesss extends javax.swing.JFrame {
             return;
         }
 
-        Course c = db.getCourseById(courseId);
-        if (c != null) {
-            c.setStatus("REJECTED");
-            try {
-                Method m = c.getClass().getMethod("setRejectionReason", String.class);
-                m.invoke(c, reason);
-            } catch (Exception ignored) {
-            }
-            db.updateCourse(c);        // properly saves to JSON
+        // The reason is only asked for; courses have no field to store it yet
+        if (courseAdmin.reject(courseId)) {       // saves to JSON, retried on conflict
             tableModel.removeRow(row); // remove from table immediately
             JOptionPane.showMessageDialog(this, "Course Rejected.");
         } else {
@@ -268,18 +270,7 @@ public class PendingCoursesss extends javax.swing.JFrame {
         if (ok != JOptionPane.YES_OPTION) {
             return;
         }
-        List<Course> courses = db.loadCourses();
-        Course c = null;
-        for (Course cr : courses) {
-            if (cr.getCourseId().equals(courseId)) {
-                c = cr;
-                break;
-            }
-        }
-        if (c != null) {
-            System.out.println("a");
-            c.setStatus("APPROVED");
-            db.updateCourse(c);        // properly saves to JSON
+        if (courseAdmin.approve(courseId)) { // saved to JSON, retried on conflict
             tableModel.removeRow(row); // remove from table immediately
             JOptionPane.showMessageDialog(this, "Course Approved!");
         } else {
@@ -12,6 +12,7 @@ import models.Lesson;
 import models.Question;
 import models.Quiz;
 import jsondatabase.JsonDatabaseManager;
+import services.AnalyticsService;
 
 /**
  *
@@ -22,6 +23,8 @@ public class QuizEditor extends javax.swing.JFrame {
     private Course course;
     private JsonDatabaseManager db = new JsonDatabaseManager();
     private DefaultTableModel tableModel;
+    private ItemAnalysisPanel itemAnalysis;
+    private PassThresholdPanel passThresholds;
 
     /**
      * Creates new form QuizEditor
@@ -36,8 +39,38 @@ public class QuizEditor extends javax.swing.JFrame {
         setLocationRelativeTo(null);
         setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
         setTitle("Quiz Editor: ");
+        addItemAnalysis();
+        addPassThresholds();
         loadQuestions();
     }
+
+    // ===================================================================
+    // ITEM ANALYSIS (beside the question list)
+    // ===================================================================
+    private void addItemAnalysis() {
+        itemAnalysis = new ItemAnalysisPanel(new AnalyticsService(db), course.getCourseId(), lesson.getLessonId());
+        JPanel editor = (JPanel) getContentPane();
+        JPanel root = new JPanel(new java.awt.BorderLayout());
+        root.add(editor, java.awt.BorderLayout.CENTER);
+        root.add(itemAnalysis, java.awt.BorderLayout.EAST);
+        setContentPane(root);
+        jTable1.getSelectionModel().addListSelectionListener(e -> {
+            if (!e.getValueIsAdjusting()) itemAnalysis.selectQuestion(jTable1.getSelectedRow());
+        });
+        pack();
+        setLocationRelativeTo(null);
+    }
+
+    // ===================================================================
+    // PASS MARK WHAT-IF (under the question list)
+    // ===================================================================
+    private void addPassThresholds() {
+        passThresholds = new PassThresholdPanel(new AnalyticsService(db), db, course, lesson.getLessonId());
+        getContentPane().add(passThresholds, java.awt.BorderLayout.SOUTH);
+        pack();
+        setLocationRelativeTo(null);
+        passThresholds.refresh();
+    }
     private void loadQuestions(){
         String[] colNames = {"Question", "Options", "Correct Answer"};
         
@@ -60,6 +93,7 @@ public class QuizEditor extends javax.swing.JFrame {
             }
         }
         jTable1.setModel(tableModel);
+        if (itemAnalysis != null) itemAnalysis.refresh();
     }
 
     /**
@@ -189,7 +223,7 @@ public class QuizEditor extends javax.swing.JFrame {
             lesson.getQuiz().getQuestions().remove(selectedRow);
             
             // Save to DB
-            db.updateCourse(course);
+            db.updateCourseContent(course);
             
             // Refresh
             loadQuestions();
@@ -8,6 +8,7 @@ package Frontend;
 import javax.swing.*;
 import models.*;
 import jsondatabase.JsonDatabaseManager;
+import services.QuizService;
 import java.awt.*;
 import java.awt.event.*;
 import java.util.ArrayList;
@@ -23,7 +24,7 @@ public class QuizPage extends javax.swing.JFrame {
     private models.Quiz quiz;
     private int currentIndex = 0;
     private int correctCount = 0;
-    private JsonDatabaseManager db = new JsonDatabaseManager(); 
+    private final QuizService quizService = new QuizService(new JsonDatabaseManager());
     private int[] userAnswers;
     /**
      * Creates new form Quiz
@@ -237,55 +238,37 @@ private void checkAnswer() {
     }
 }
     private void btnSubmitActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_btnSubmitActionPerformed
+      if (!btnSubmit.isEnabled()) return; // a second click queued before the first was handled
+      btnSubmit.setEnabled(false);
       saveCurrentAnswer();
 
-        // 2. Calculate Score by looping through the ARRAY (not the screen)
-        int calculatedCorrectCount = 0;
-        int total = quiz.totalQuestions();
-        java.util.List<Question> questions = quiz.getQuestions();
-
-        for (int i = 0; i < total; i++) {
-            int usersSelection = userAnswers[i]; // What the student picked for Question i
-            int correctIndex = questions.get(i).getCorrectOptionIndex(); // The real answer
-
-            if (usersSelection == correctIndex) {
-                calculatedCorrectCount++;
-            }
+        // 2. Grade against the stored quiz and save the attempt
+        QuizService.Submission submission;
+        try {
+            submission = quizService.submit(student.getUserId(), course.getCourseId(), lesson.getLessonId(), userAnswers);
+        } catch (IllegalArgumentException | IllegalStateException ex) {
+            JOptionPane.showMessageDialog(this, ex.getMessage(), "Quiz Not Saved", JOptionPane.ERROR_MESSAGE);
+            this.dispose();
+            return;
         }
+        QuizService.Grade grade = submission.grade();
+        boolean passed = grade.passed();
 
-        // 3. Calculate Percentage
-        int score = (total > 0) ? (calculatedCorrectCount * 100) / total : 0;
-
-        // 4. Show Result
+        // 3. Show Result
         JOptionPane.showMessageDialog(this,
-            "Quiz Completed!\nCorrect: " + calculatedCorrectCount + "/" + total +
-            "\nScore: " + score + "%",
+            "Quiz Completed!\nCorrect: " + grade.correctCount() + "/" + grade.totalQuestions() +
+            "\nScore: " + grade.score() + "%",
             "Quiz Result",
             JOptionPane.INFORMATION_MESSAGE
         );
 
-        // 5. Create Attempt Object
-        QuizAttempt attempt = new QuizAttempt(
-            lesson.getLessonId(),
-            System.currentTimeMillis(),
-            score,
-            calculatedCorrectCount,
-            total
-        );
-
-        // 6. Update Memory
-        student.addQuizAttempt(lesson.getLessonId(), attempt);
-
-        // 7. Check Passing
-        boolean passed = (score >= quiz.getPassingPercentage());
+        // 4. Update Memory
+        student.addQuizAttempt(lesson.getLessonId(), submission.attempt());
         if (passed) {
             student.markLessonCompleted(lesson.getLessonId());
         }
 
-        // 8. Save to Database (Save entire student object to persist attempts + completion)
-        db.updateUser(student);
-
-        // 9. Extra Feedback
+        // 5. Extra Feedback
         if (passed) {
             JOptionPane.showMessageDialog(this,
                 "Congratulations! You passed this lesson.",
@@ -5,14 +5,13 @@
 package Frontend;
 import javax.swing.*;
 import java.awt.event.ActionEvent;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 import java.util.List;
 import models.User;
 import models.Student;
 import models.Instructor;
 import models.Admin;
 import jsondatabase.JsonDatabaseManager;
+import services.AuthService;
 /**
  *
  * @author SHIKO
@@ -221,33 +220,13 @@ public class SignUp extends javax.swing.JFrame {
             return;
         }
 
-        // ----------- LOAD USERS -----------
-        jsondatabase.JsonDatabaseManager db = new jsondatabase.JsonDatabaseManager();
-        java.util.List<models.User> users = db.loadUsers();
-
-        // Check duplicate userId
-        for (models.User u : users) {
-            if (u.getUserId() == userId) {
-                JOptionPane.showMessageDialog(this, "User ID already exists.", "Error", JOptionPane.ERROR_MESSAGE);
-                return;
-            }
+        // ----------- CREATE AND SAVE USER (raw password passed, constructor hashes it) -----------
+        try {
+            new AuthService(new JsonDatabaseManager()).register(userId, username, email, password, selectedRole);
+        } catch (IllegalArgumentException ex) {
+            JOptionPane.showMessageDialog(this, ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+            return;
         }
-
-        // ----------- CREATE USER OBJECT (raw password passed, constructor hashes it) -----------
-        models.User newUser;
-        if (selectedRole.equalsIgnoreCase("STUDENT")) {
-            newUser = new models.Student(new java.util.ArrayList<>(), new java.util.ArrayList<>(), userId, username, email, password, models.User.ROLE_STUDENT, false);
-        }else if(selectedRole.equalsIgnoreCase("INSTRUCTOR")){
-            newUser = new models.Instructor(userId, username, email, password, false);
-        }else if(selectedRole.equalsIgnoreCase("ADMIN")){
-            newUser = new models.Admin(userId, username, email, password, false);
-        }else {
-        JOptionPane.showMessageDialog(this, "Unknown role selected.", "Error", JOptionPane.ERROR_MESSAGE);
-        return;
-        }   
-
-        // ----------- ADD USER TO JSON -----------
-        db.addUser(newUser);
         JOptionPane.showMessageDialog(this, "User registered successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
 
         // Optionally, close signup and open login
@@ -266,19 +245,6 @@ public class SignUp extends javax.swing.JFrame {
         Login s=new Login();
         s.setVisible(true);
     }//GEN-LAST:event_jButton1ActionPerformed
-    private String hashPassword(String rawPassword) {
-    try {
-        java.security.MessageDigest md = java.security.MessageDigest.getInstance("SHA-256");
-        byte[] bytes = md.digest(rawPassword.getBytes(java.nio.charset.StandardCharsets.UTF_8)); // always UTF-8
-        StringBuilder sb = new StringBuilder();
-        for (byte b : bytes) {
-            sb.append(String.format("%02x", b));
-        }
-        return sb.toString();
-    } catch (java.security.NoSuchAlgorithmException e) {
-        throw new RuntimeException("SHA-256 algorithm not found", e);
-    }
-}
   
     public static void main(String args[]) {
         /* Set the Nimbus look and feel */
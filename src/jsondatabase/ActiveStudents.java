@@ -0,0 +1,102 @@
+package jsondatabase;
+
+import models.Student;
+import models.User;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Distinct students active per course per day over the last {@value #DAYS} days,
+ * and on the whole platform. A student is active on a day when they make a quiz
+ * attempt or complete a lesson of the course.
+ *
+ * Each day is one {@link HyperLogLog} in a ring, so a course costs at most
+ * 7 x 512 bytes however many students it has, and "this week" is the merge of
+ * the day sketches. The store feeds it from every user change, under the folder lock.
+ *
+ * An attempt or completion only names a lesson id, and the same id can be in
+ * several courses. It counts for the course among them that the student is
+ * enrolled in; if that is none, or more than one, it only counts for the platform.
+ */
+final class ActiveStudents {
+
+    static final int DAYS = 7;
+
+    /** One sketch per day of the last week; slot i holds day stamps[i]. Guarded by itself. */
+    private static final class Week {
+        private final HyperLogLog[] sketches = new HyperLogLog[DAYS];
+        private final long[] stamps = new long[DAYS];
+
+        Week() {
+            java.util.Arrays.fill(stamps, Long.MIN_VALUE);
+        }
+
+        synchronized void add(int studentId, long day, long today) {
+            if (day <= today - DAYS || day > today) return; // outside the window
+            int i = (int) Math.floorMod(day, (long) DAYS);
+            if (stamps[i] != day) {
+                if (stamps[i] > day) return;
+                // The slot still holds a day from a week ago: reuse it
+                if (sketches[i] == null) sketches[i] = new HyperLogLog();
+                sketches[i].clear();
+                stamps[i] = day;
+            }
+            sketches[i].add(studentId);
+        }
+
+        /** Merges the last {@code days} days into {@code into}. */
+        synchronized void mergeInto(HyperLogLog into, int days, long today) {
+            for (int i = 0; i < DAYS; i++) {
+                if (sketches[i] != null && stamps[i] > today - days && stamps[i] <= today) into.merge(sketches[i]);
+            }
+        }
+    }
+
+    private final Map<String, Week> courses = new ConcurrentHashMap<>();
+    private final Week platform = new Week();
+    private final CourseIndex courseIndex;
+
+    ActiveStudents(CourseIndex courseIndex) {
+        this.courseIndex = courseIndex;
+    }
+
+    /** Called under the folder lock for every user put or removed. */
+    void user(User before, User after) {
+        if (!(after instanceof Student s)) return;
+        long today = LocalDate.now().toEpochDay();
+        PlatformCounters.attemptChanges(before, after, (a, delta) -> {
+            if (delta > 0) active(s, a.getLessonId(), ActivitySeries.Resolution.DAY.bucket(a.getTimestamp()), today);
+        });
+        // Completions carry no time, so only a live save (not the first load) counts, as today
+        if (before instanceof Student old) {
+            for (String lessonId : s.getCompletedLessonIds()) {
+                if (!old.hasCompletedLesson(lessonId)) active(s, lessonId, today, today);
+            }
+        }
+    }
+
+    private void active(Student s, String lessonId, long day, long today) {
+        platform.add(s.getUserId(), day, today);
+        String courseId = courseIndex.courseOf(s, lessonId);
+        if (courseId != null) courses.computeIfAbsent(courseId, k -> new Week()).add(s.getUserId(), day, today);
+    }
+
+    /** Distinct students active in any of the courses over the last {@code days} days (today is day 1). */
+    long estimate(Iterable<String> courseIds, int days) {
+        long today = LocalDate.now().toEpochDay();
+        HyperLogLog union = new HyperLogLog();
+        for (String id : courseIds) {
+            Week w = courses.get(id);
+            if (w != null) w.mergeInto(union, days, today);
+        }
+        return union.estimate();
+    }
+
+    long platform(int days) {
+        HyperLogLog union = new HyperLogLog();
+        platform.mergeInto(union, days, LocalDate.now().toEpochDay());
+        return union.estimate();
+    }
+}
@@ -0,0 +1,174 @@
+package jsondatabase;
+
+import jsondatabase.ActivitySeries.Resolution;
+import models.QuizAttempt;
+import models.Student;
+import models.User;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Quiz attempts over time, per lesson of each course and for the whole platform,
+ * rolled up as the store saves them: each attempt bumps one minute bucket, one hour
+ * bucket and one day bucket. Minutes and hours live in ring buffers that only cover
+ * the recent window; days are a compact map kept forever. A query over a semester
+ * therefore adds up about 120 day counts per lesson and never looks at an attempt.
+ *
+ * Lesson ids repeat across courses, so a student's attempts count for the course
+ * {@link CourseIndex#courseOf} finds from their enrollments (and only for the
+ * platform when it finds none). When that changes, the student's attempts at the
+ * lesson move with it; a course edit that adds or removes lessons recounts them.
+ */
+final class ActivityRollups {
+
+    /** The three rollups of one lesson of a course (or of the platform). */
+    private static final class Rollup {
+        private final long[] minuteCounts = new long[Resolution.MINUTE.kept()];
+        private final long[] minuteStamps = new long[Resolution.MINUTE.kept()];
+        private final long[] hourCounts = new long[Resolution.HOUR.kept()];
+        private final long[] hourStamps = new long[Resolution.HOUR.kept()];
+        private final TreeMap<Long, Long> days = new TreeMap<>();
+
+        Rollup() {
+            java.util.Arrays.fill(minuteStamps, -1);
+            java.util.Arrays.fill(hourStamps, -1);
+        }
+
+        synchronized void add(long timestamp, int delta, long now) {
+            ring(minuteCounts, minuteStamps, Resolution.MINUTE.bucket(timestamp), Resolution.MINUTE.bucket(now), delta);
+            ring(hourCounts, hourStamps, Resolution.HOUR.bucket(timestamp), Resolution.HOUR.bucket(now), delta);
+            days.merge(Resolution.DAY.bucket(timestamp), (long) delta, (a, b) -> a + b == 0 ? null : a + b);
+        }
+
+        private static void ring(long[] counts, long[] stamps, long bucket, long current, int delta) {
+            if (bucket <= current - counts.length) return; // older than the window
+            int i = (int) Math.floorMod(bucket, (long) counts.length);
+            if (stamps[i] == bucket) {
+                counts[i] += delta;
+            } else if (stamps[i] < bucket && delta > 0) {
+                // The slot still holds a bucket from a lap ago: reuse it
+                stamps[i] = bucket;
+                counts[i] = delta;
+            }
+        }
+
+        /** Adds this rollup's counts for buckets first .. first + out.length - 1 into out. */
+        synchronized void addTo(Resolution resolution, long first, long[] out) {
+            switch (resolution) {
+                case MINUTE -> fromRing(minuteCounts, minuteStamps, first, out);
+                case HOUR -> fromRing(hourCounts, hourStamps, first, out);
+                case DAY -> {
+                    for (Map.Entry<Long, Long> e : days.subMap(first, first + out.length).entrySet()) {
+                        out[(int) (e.getKey() - first)] += e.getValue();
+                    }
+                }
+            }
+        }
+
+        private static void fromRing(long[] counts, long[] stamps, long first, long[] out) {
+            for (int j = 0; j < out.length; j++) {
+                long bucket = first + j;
+                int i = (int) Math.floorMod(bucket, (long) counts.length);
+                if (stamps[i] == bucket) out[j] += counts[i];
+            }
+        }
+    }
+
+    private final Map<String, Map<String, Rollup>> lessons = new ConcurrentHashMap<>(); // lesson -> course -> rollup
+    private final Rollup platform = new Rollup();
+    private final CourseIndex courseIndex;
+
+    ActivityRollups(CourseIndex courseIndex) {
+        this.courseIndex = courseIndex;
+    }
+
+    /** Called under the folder lock (one writer) for every user put or removed. */
+    void user(User before, User after) {
+        long now = System.currentTimeMillis();
+        PlatformCounters.attemptChanges(before, after, (a, delta) -> platform.add(a.getTimestamp(), delta, now));
+        Map<String, List<QuizAttempt>> was = before instanceof Student s ? s.getQuizAttemptsByLesson() : Map.of();
+        Map<String, List<QuizAttempt>> is = after instanceof Student s ? s.getQuizAttemptsByLesson() : Map.of();
+        if (was.isEmpty() && is.isEmpty()) return;
+        Set<String> lessonIds = new HashSet<>(was.keySet());
+        lessonIds.addAll(is.keySet());
+        for (String lessonId : lessonIds) {
+            List<QuizAttempt> old = was.getOrDefault(lessonId, List.of());
+            List<QuizAttempt> current = is.getOrDefault(lessonId, List.of());
+            String oldCourse = old.isEmpty() ? null : courseIndex.courseOf((Student) before, lessonId);
+            String newCourse = current.isEmpty() ? null : courseIndex.courseOf((Student) after, lessonId);
+            if (Objects.equals(oldCourse, newCourse) && current.size() >= old.size()) {
+                // Attempts are only ever appended
+                if (newCourse == null) continue;
+                Rollup r = rollup(lessons, lessonId, newCourse);
+                for (int i = old.size(); i < current.size(); i++) r.add(current.get(i).getTimestamp(), 1, now);
+            } else {
+                // Another course now (or shrunk by a hand edit): move the lesson's attempts
+                if (oldCourse != null) {
+                    Rollup r = rollup(lessons, lessonId, oldCourse);
+                    for (QuizAttempt a : old) r.add(a.getTimestamp(), -1, now);
+                }
+                if (newCourse != null) {
+                    Rollup r = rollup(lessons, lessonId, newCourse);
+                    for (QuizAttempt a : current) r.add(a.getTimestamp(), 1, now);
+                }
+            }
+        }
+    }
+
+    /** Counts the lessons again from every user, after courses gained or lost them; under the folder lock. */
+    void recount(Set<String> lessonIds, Collection<User> users) {
+        long now = System.currentTimeMillis();
+        Map<String, Map<String, Rollup>> fresh = new HashMap<>();
+        for (User u : users) {
+            if (!(u instanceof Student s)) continue;
+            for (String lessonId : lessonIds) {
+                List<QuizAttempt> attempts = s.getQuizAttemptsByLesson().get(lessonId);
+                String courseId = attempts == null || attempts.isEmpty() ? null : courseIndex.courseOf(s, lessonId);
+                if (courseId == null) continue;
+                Rollup r = rollup(fresh, lessonId, courseId);
+                for (QuizAttempt a : attempts) r.add(a.getTimestamp(), 1, now);
+            }
+        }
+        // Swap whole lessons, so readers see the old counts or the new ones
+        for (String lessonId : lessonIds) {
+            Map<String, Rollup> counted = fresh.get(lessonId);
+            if (counted == null) {
+                lessons.remove(lessonId);
+            } else {
+                lessons.put(lessonId, counted);
+            }
+        }
+    }
+
+    private static Rollup rollup(Map<String, Map<String, Rollup>> lessons, String lessonId, String courseId) {
+        return lessons.computeIfAbsent(lessonId, k -> new ConcurrentHashMap<>()).computeIfAbsent(courseId, k -> new Rollup());
+    }
+
+    /** The course's attempts at these lessons added together over the latest {@code buckets} buckets. */
+    ActivitySeries series(String courseId, Iterable<String> lessonIds, Resolution resolution, int buckets) {
+        long[] counts = new long[Math.max(1, Math.min(buckets, resolution.kept()))];
+        long first = resolution.bucket(System.currentTimeMillis()) - counts.length + 1;
+        for (String id : lessonIds) {
+            Map<String, Rollup> byCourse = lessons.get(id);
+            Rollup r = byCourse == null ? null : byCourse.get(courseId);
+            if (r != null) r.addTo(resolution, first, counts);
+        }
+        return new ActivitySeries(resolution, first, counts);
+    }
+
+    /** Every attempt on the platform over the latest {@code buckets} buckets. */
+    ActivitySeries platform(Resolution resolution, int buckets) {
+        long[] counts = new long[Math.max(1, Math.min(buckets, resolution.kept()))];
+        long first = resolution.bucket(System.currentTimeMillis()) - counts.length + 1;
+        platform.addTo(resolution, first, counts);
+        return new ActivitySeries(resolution, first, counts);
+    }
+}
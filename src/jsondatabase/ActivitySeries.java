@@ -0,0 +1,60 @@
+package jsondatabase;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+/**
+ * Quiz attempts per time bucket, oldest bucket first, ending with the current one.
+ * Immutable; see {@link JsonDatabaseManager#getCourseActivity}.
+ */
+public record ActivitySeries(Resolution resolution, long firstBucket, long[] counts) {
+
+    /**
+     * Bucket sizes. Minutes and hours are kept for a recent window only
+     * ({@code kept} buckets); days are kept for the whole history.
+     */
+    public enum Resolution {
+        MINUTE(60_000L, 120),
+        HOUR(3_600_000L, 7 * 24),
+        DAY(86_400_000L, Integer.MAX_VALUE);
+
+        private final long millis;
+        private final int kept;
+
+        Resolution(long millis, int kept) {
+            this.millis = millis;
+            this.kept = kept;
+        }
+
+        /** How many of the latest buckets are kept. */
+        public int kept() {
+            return kept;
+        }
+
+        /** The bucket the time falls in: minutes or hours since the epoch, or the local epoch day. */
+        long bucket(long timeMillis) {
+            if (this == DAY) return java.time.Instant.ofEpochMilli(timeMillis).atZone(ZoneId.systemDefault()).toLocalDate().toEpochDay();
+            return Math.floorDiv(timeMillis, millis);
+        }
+
+        long start(long bucket) {
+            if (this == DAY) return LocalDate.ofEpochDay(bucket).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            return bucket * millis;
+        }
+    }
+
+    /** When bucket {@code i} of this series starts, in epoch millis. */
+    public long bucketStart(int i) {
+        return resolution.start(firstBucket + i);
+    }
+
+    public int size() {
+        return counts.length;
+    }
+
+    public long total() {
+        long n = 0;
+        for (long c : counts) n += c;
+        return n;
+    }
+}
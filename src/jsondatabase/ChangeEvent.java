@@ -0,0 +1,43 @@
+package jsondatabase;
+
+import models.QuizAttempt;
+
+/**
+ * A change to the stored data, published through {@link JsonDatabaseManager#changes()}.
+ *
+ * Events are derived from the records actually replaced, so they are the same
+ * whether the change was made in this window, another window, another SkillForge
+ * instance or by editing a data file. One commit may produce several events
+ * (e.g. a quiz submission gives {@link UserUpdated} and {@link QuizAttemptRecorded}).
+ */
+public sealed interface ChangeEvent {
+
+    /** A user record was saved (enrollment, progress, certificates, ...). */
+    record UserUpdated(int userId) implements ChangeEvent {
+    }
+
+    record UserRemoved(int userId) implements ChangeEvent {
+    }
+
+    /** A new quiz attempt was stored for a student; {@code attempt} is the student's own copy. */
+    record QuizAttemptRecorded(int studentId, String lessonId, int score, QuizAttempt attempt) implements ChangeEvent {
+    }
+
+    /** A course record was saved (title, lessons, students, status, ...). */
+    record CourseUpdated(String courseId) implements ChangeEvent {
+    }
+
+    /** A course's status changed; {@code oldStatus} is null for a newly added course. */
+    record CourseStatusChanged(String courseId, String oldStatus, String newStatus) implements ChangeEvent {
+    }
+
+    record LessonAdded(String courseId, String lessonId) implements ChangeEvent {
+    }
+
+    record CourseRemoved(String courseId) implements ChangeEvent {
+    }
+
+    /** The files were re-read wholesale; anything may have changed. */
+    record DataReloaded() implements ChangeEvent {
+    }
+}
@@ -0,0 +1,58 @@
+package jsondatabase;
+
+import models.Course;
+import models.Lesson;
+import models.QuizAttempt;
+import models.Student;
+import models.User;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Turns "record replaced: before -> after" into {@link ChangeEvent}s.
+ * Cost is proportional to the one record, never to the dataset.
+ */
+final class ChangeEvents {
+
+    private ChangeEvents() {
+    }
+
+    static void diffUser(User before, User after, List<ChangeEvent> out) {
+        out.add(new ChangeEvent.UserUpdated(after.getUserId()));
+        if (!(after instanceof Student s)) return;
+
+        Map<String, List<QuizAttempt>> oldAttempts =
+                before instanceof Student old ? old.getQuizAttemptsByLesson() : Map.of();
+        for (Map.Entry<String, List<QuizAttempt>> e : s.getQuizAttemptsByLesson().entrySet()) {
+            List<QuizAttempt> previous = oldAttempts.get(e.getKey());
+            int seen = previous == null ? 0 : previous.size();
+            List<QuizAttempt> now = e.getValue();
+            // Attempts are only ever appended
+            for (int i = seen; i < now.size(); i++) {
+                QuizAttempt attempt = now.get(i);
+                out.add(new ChangeEvent.QuizAttemptRecorded(s.getUserId(), e.getKey(), attempt.getScore(), attempt.copy()));
+            }
+        }
+    }
+
+    static void diffCourse(Course before, Course after, List<ChangeEvent> out) {
+        String id = after.getCourseId();
+        out.add(new ChangeEvent.CourseUpdated(id));
+        String oldStatus = before == null ? null : before.getStatus();
+        if (before == null || !String.valueOf(oldStatus).equals(String.valueOf(after.getStatus()))) {
+            out.add(new ChangeEvent.CourseStatusChanged(id, oldStatus, after.getStatus()));
+        }
+        if (before == null) return;
+
+        Set<String> oldLessons = new HashSet<>();
+        for (Lesson l : before.getLessons()) oldLessons.add(l.getLessonId());
+        for (Lesson l : after.getLessons()) {
+            if (!oldLessons.contains(l.getLessonId())) {
+                out.add(new ChangeEvent.LessonAdded(id, l.getLessonId()));
+            }
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package jsondatabase;
+
+import models.Student;
+import models.User;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * How many students take each pair of courses together: a sparse, symmetric
+ * course x course matrix holding only the pairs somebody actually shares, so its
+ * size follows the enrollments rather than courses squared.
+ *
+ * The store reports every user change as "before -> after" and only the pairs the
+ * change adds or removes are touched, so enrolling in one course costs one update
+ * per course the student already has. Courses are numbered on first sight so rows
+ * are keyed by int and scores add up in a plain array. Guarded by this object:
+ * writes are tiny and a scoring pass takes well under a millisecond.
+ */
+final class CoEnrollment {
+
+    private final Map<String, Integer> numbers = new HashMap<>();
+    private final List<String> ids = new ArrayList<>();
+    private final List<Map<Integer, Integer>> together = new ArrayList<>(); // row per course number
+    private int[] enrolled = new int[16];
+    private double[] scratch = new double[16]; // scores of the current pass; all zero between passes
+
+    /** Called under the folder lock (one writer). */
+    synchronized void user(User before, User after) {
+        Set<String> was = courses(before);
+        Set<String> is = courses(after);
+        if (was.equals(is)) return;
+        List<Integer> kept = new ArrayList<>();
+        List<Integer> added = new ArrayList<>();
+        List<Integer> removed = new ArrayList<>();
+        for (String c : is) (was.contains(c) ? kept : added).add(number(c));
+        for (String c : was) {
+            if (!is.contains(c)) removed.add(number(c));
+        }
+
+        for (int i = 0; i < added.size(); i++) {
+            int a = added.get(i);
+            enrolled[a]++;
+            for (int k : kept) pair(a, k, 1);
+            for (int j = i + 1; j < added.size(); j++) pair(a, added.get(j), 1);
+        }
+        for (int i = 0; i < removed.size(); i++) {
+            int r = removed.get(i);
+            enrolled[r]--;
+            for (int k : kept) pair(r, k, -1);
+            for (int j = i + 1; j < removed.size(); j++) pair(r, removed.get(j), -1);
+        }
+    }
+
+    private static Set<String> courses(User u) {
+        return u instanceof Student s && s.getEnrolledCourseIds() != null
+                ? new LinkedHashSet<>(s.getEnrolledCourseIds())
+                : Set.of();
+    }
+
+    private int number(String courseId) {
+        Integer n = numbers.get(courseId);
+        if (n != null) return n;
+        n = ids.size();
+        numbers.put(courseId, n);
+        ids.add(courseId);
+        together.add(new HashMap<>());
+        if (n == enrolled.length) {
+            enrolled = Arrays.copyOf(enrolled, n * 2);
+            scratch = Arrays.copyOf(scratch, n * 2);
+        }
+        return n;
+    }
+
+    private void pair(int a, int b, int delta) {
+        // Dropped at zero so the matrix stays sparse
+        together.get(a).merge(b, delta, (x, y) -> x + y == 0 ? null : x + y);
+        together.get(b).merge(a, delta, (x, y) -> x + y == 0 ? null : x + y);
+    }
+
+    /**
+     * The {@code limit} best courses for someone taking {@code mine}, that {@code allowed}
+     * accepts. A course scores the cosine similarity together(e, c) / sqrt(enrolled(e) *
+     * enrolled(c)) summed over e in mine; ties, and everything when nothing scores, go to
+     * the most enrolled. Costs the sizes of mine's rows, and {@code allowed} is only asked
+     * about courses good enough to make the list.
+     */
+    synchronized List<String> top(Collection<String> mine, int limit, Predicate<String> allowed) {
+        if (limit <= 0) return List.of();
+        List<Integer> touched = new ArrayList<>();
+        for (String e : mine) {
+            Integer ne = numbers.get(e);
+            if (ne == null || enrolled[ne] <= 0) continue;
+            for (Map.Entry<Integer, Integer> cell : together.get(ne).entrySet()) {
+                int c = cell.getKey();
+                if (enrolled[c] <= 0) continue;
+                if (scratch[c] == 0) touched.add(c);
+                scratch[c] += cell.getValue() / Math.sqrt((double) enrolled[ne] * enrolled[c]);
+            }
+        }
+        Collection<Integer> candidates = touched;
+        if (touched.isEmpty()) {
+            List<Integer> all = new ArrayList<>(ids.size());
+            for (int c = 0; c < ids.size(); c++) all.add(c);
+            candidates = all;
+        }
+
+        Comparator<Integer> better = Comparator.<Integer>comparingDouble(c -> scratch[c])
+                .thenComparingInt(c -> enrolled[c])
+                .thenComparing(c -> ids.get(c), Comparator.reverseOrder());
+        PriorityQueue<Integer> best = new PriorityQueue<>(better); // worst of the best on top
+        for (int c : candidates) {
+            if (best.size() == limit && better.compare(c, best.peek()) <= 0) continue;
+            if (!allowed.test(ids.get(c))) continue;
+            best.add(c);
+            if (best.size() > limit) best.poll();
+        }
+        List<String> result = new ArrayList<>(best.size());
+        while (!best.isEmpty()) result.add(ids.get(best.poll()));
+        Collections.reverse(result);
+        for (int c : touched) scratch[c] = 0;
+        return result;
+    }
+}
@@ -0,0 +1,138 @@
+package jsondatabase;
+
+import models.Course;
+import models.Lesson;
+import models.Student;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Course ids by instructor and by status, so "my courses" and "pending courses"
+ * cost the size of the answer instead of a scan of every course; and the courses
+ * of each lesson id, for anything that sees a lesson id and counts per course.
+ * Lesson ids are only unique within a course (two courses may both have "L01"),
+ * so a lesson id maps to every course that has it.
+ *
+ * The store calls {@link #update} for every course it puts or removes, always
+ * under the folder lock, so there is one writer at a time. Each id set keeps
+ * insertion order (file order after a load; a course whose status changes goes
+ * to the end of its new status, so the pending queue is first come, first served).
+ */
+final class CourseIndex {
+
+    private final Map<String, Set<String>> byInstructor = new ConcurrentHashMap<>();
+    private final Map<CourseStatus, Set<String>> byStatus = new EnumMap<>(CourseStatus.class);
+    private final Map<String, Set<String>> coursesOfLesson = new ConcurrentHashMap<>();
+
+    CourseIndex() {
+        for (CourseStatus s : CourseStatus.values()) byStatus.put(s, new LinkedHashSet<>());
+    }
+
+    /**
+     * Moves one course from its old entries to its new ones; either side may be null.
+     * Returns the lesson ids whose set of courses changed (lessons added or removed).
+     */
+    Set<String> update(Course before, Course after) {
+        String beforeInstructor = before == null ? null : String.valueOf(before.getInstructorId());
+        String afterInstructor = after == null ? null : String.valueOf(after.getInstructorId());
+        CourseStatus beforeStatus = before == null ? null : CourseStatus.of(before.getStatus());
+        CourseStatus afterStatus = after == null ? null : CourseStatus.of(after.getStatus());
+
+        if (before != null && (after == null || !beforeInstructor.equals(afterInstructor))) {
+            Set<String> ids = byInstructor.get(beforeInstructor);
+            if (ids != null) {
+                synchronized (ids) {
+                    ids.remove(before.getCourseId());
+                }
+            }
+        }
+        if (after != null) {
+            Set<String> ids = byInstructor.computeIfAbsent(afterInstructor, k -> new LinkedHashSet<>());
+            synchronized (ids) {
+                ids.add(after.getCourseId());
+            }
+        }
+
+        if (before != null && beforeStatus != afterStatus) {
+            Set<String> ids = byStatus.get(beforeStatus);
+            synchronized (ids) {
+                ids.remove(before.getCourseId());
+            }
+        }
+        if (after != null) {
+            Set<String> ids = byStatus.get(afterStatus);
+            synchronized (ids) {
+                ids.add(after.getCourseId());
+            }
+        }
+
+        Set<String> beforeLessons = lessonIds(before);
+        Set<String> afterLessons = lessonIds(after);
+        Set<String> moved = new HashSet<>();
+        for (String lessonId : beforeLessons) {
+            if (afterLessons.contains(lessonId)) continue;
+            moved.add(lessonId);
+            coursesOfLesson.computeIfPresent(lessonId, (id, courses) -> {
+                courses.remove(before.getCourseId());
+                return courses.isEmpty() ? null : courses;
+            });
+        }
+        for (String lessonId : afterLessons) {
+            if (beforeLessons.contains(lessonId)) continue;
+            moved.add(lessonId);
+            coursesOfLesson.computeIfAbsent(lessonId, id -> ConcurrentHashMap.newKeySet()).add(after.getCourseId());
+        }
+        return moved;
+    }
+
+    private static Set<String> lessonIds(Course c) {
+        Set<String> ids = new HashSet<>();
+        if (c != null && c.getLessons() != null) {
+            for (Lesson l : c.getLessons()) ids.add(l.getLessonId());
+        }
+        return ids;
+    }
+
+    /** The courses that have a lesson with this id; usually one, empty if none. */
+    Set<String> coursesOfLesson(String lessonId) {
+        Set<String> ids = coursesOfLesson.get(lessonId);
+        return ids == null ? Set.of() : ids;
+    }
+
+    /**
+     * The one course the student is enrolled in that has this lesson id, so the course
+     * an attempt or completion of the lesson belongs to; null if none or more than one.
+     */
+    String courseOf(Student s, String lessonId) {
+        if (lessonId == null || s.getEnrolledCourseIds() == null) return null;
+        String found = null;
+        for (String courseId : coursesOfLesson(lessonId)) {
+            if (!s.getEnrolledCourseIds().contains(courseId)) continue;
+            if (found != null) return null; // enrolled in two courses with this lesson id: can't tell which
+            found = courseId;
+        }
+        return found;
+    }
+
+    List<String> ofInstructor(String instructorId) {
+        Set<String> ids = byInstructor.get(instructorId);
+        if (ids == null) return List.of();
+        synchronized (ids) {
+            return new ArrayList<>(ids);
+        }
+    }
+
+    List<String> withStatus(CourseStatus status) {
+        Set<String> ids = byStatus.get(status);
+        synchronized (ids) {
+            return new ArrayList<>(ids);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package jsondatabase;
+
+/**
+ * Course review states. The files keep the status as a string; this is the
+ * typed form used by the store's indexes.
+ */
+enum CourseStatus {
+    PENDING, APPROVED, REJECTED,
+    /** Anything else found in a hand-edited file. */
+    OTHER;
+
+    /** Parses a stored status the way the screens compare it (case-insensitive, trimmed). */
+    static CourseStatus of(String status) {
+        if (status == null) return PENDING; // Course treats a missing status as PENDING
+        for (CourseStatus s : values()) {
+            if (s != OTHER && s.name().equalsIgnoreCase(status.trim())) return s;
+        }
+        return OTHER;
+    }
+}
@@ -0,0 +1,1170 @@
+package jsondatabase;
+
+import models.Course;
+import models.Student;
+import models.User;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * The one in-memory copy of users.json and courses.json for a data folder,
+ * shared by every {@link JsonDatabaseManager} in the process.
+ *
+ * Records in the maps are frozen: they are never modified after being put, so
+ * readers need no lock and simply copy what they get. Every write is a
+ * {@link Transaction}: it takes the stripe locks of the records it touches (by
+ * userId / courseId), appends one record to the journal, swaps the new frozen
+ * copies in, and waits for an fsync shared with the commits running alongside. The JSON files are rewritten later by a checkpoint that
+ * covers many commits at once.
+ *
+ * Several processes may share the folder. Commits (briefly, to append and publish)
+ * and checkpoints hold the folder's exclusive lock (see {@link FolderSync}) and first
+ * catch up with whatever other processes committed: new journal lines are applied, and the files are only
+ * re-parsed when another process checkpointed changes we had not seen.
+ *
+ * A {@link DataWatcher} notices when the files change underneath us (another
+ * process, or an admin editing / restoring a file by hand). Hand edits are diffed
+ * against the cache record by record and only the records that differ are
+ * replaced.
+ *
+ * Every replaced record is diffed against its previous version and the resulting
+ * {@link ChangeEvent}s are published once the folder lock is released, whoever
+ * made the change.
+ */
+final class DataStore {
+
+    private static final int LOCK_STRIPES = 64;
+    private static final long CHECKPOINT_DELAY_MS = 2000;
+    private static final long RESYNC_RETRY_MS = 200;
+    private static final long MAX_JOURNAL_BYTES = 8L * 1024 * 1024;
+    private static final Map<Path, DataStore> OPEN = new ConcurrentHashMap<>();
+
+    private final Path usersFile;
+    private final Path coursesFile;
+    private final Journal journal;
+    private final FolderSync sync;
+
+    private final ConcurrentHashMap<Integer, User> users = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Course> courses = new ConcurrentHashMap<>();
+    // File order of the records: appended to when a record is added, replaced when one is removed
+    private volatile RecordOrder<Integer> userOrder = new RecordOrder<>();
+    private volatile RecordOrder<String> courseOrder = new RecordOrder<>();
+
+    // Course ids by instructor and status, and dashboard totals; written under the folder lock like the maps
+    private final CourseIndex courseIndex = new CourseIndex();
+    private final PlatformCounters counters = new PlatformCounters();
+    private final ScoreHistograms scoreHistograms = new ScoreHistograms(courseIndex);
+    private final ActivityRollups activity = new ActivityRollups(courseIndex);
+    private final ActiveStudents activeStudents = new ActiveStudents(courseIndex);
+    private final CoEnrollment coEnrollment = new CoEnrollment();
+    // User ids by lower-case username, ascending (old files may hold a name twice); lists are replaced, never modified
+    private final ConcurrentHashMap<String, List<Integer>> usernames = new ConcurrentHashMap<>();
+
+    private final StripedLocks userLocks = new StripedLocks(LOCK_STRIPES);
+    private final StripedLocks courseLocks = new StripedLocks(LOCK_STRIPES);
+
+    // Checkpoints and watcher callbacks, in order
+    private final ScheduledExecutorService background;
+    private final AtomicBoolean checkpointScheduled = new AtomicBoolean();
+    private final DataWatcher watcher;
+    private final Thread exitCheckpoint = new Thread(this::checkpoint, "skillforge-checkpoint-exit");
+
+    // Hands events to the publisher in commit order, on its own thread so checkpoints never wait on it
+    private final ExecutorService delivery = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "skillforge-events");
+        t.setDaemon(true);
+        return t;
+    });
+    // Subscribers run on virtual threads so a slow screen never holds up the store
+    private final ExecutorService eventExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final SubmissionPublisher<ChangeEvent> events =
+            new SubmissionPublisher<>(eventExecutor, Flow.defaultBufferSize());
+    // Guarded by the folder lock; published by unlock()
+    private final List<ChangeEvent> pendingEvents = new ArrayList<>();
+    // Delivery thread only: an event was dropped for a subscriber whose buffer was full
+    private boolean eventsDropped;
+    private boolean resyncScheduled;
+    // Offered after drops; only subscribers that missed events pass it on (as DataReloaded)
+    private static final ChangeEvent RESYNC = new ChangeEvent.DataReloaded();
+
+    // Guarded by the folder lock: how far we have caught up with the shared files
+    private volatile long seenCommitSeq;
+    private volatile long seenEpoch;
+    private long journalOffset;
+    // Memory holds changes that users.json / courses.json do not have yet
+    private boolean usersDirty;
+    private boolean coursesDirty;
+    private final Set<Integer> dirtyUserIds = new HashSet<>();
+    private final Set<String> dirtyCourseIds = new HashSet<>();
+
+    private DataStore(Path folder) {
+        this.usersFile = folder.resolve("users.json");
+        this.coursesFile = folder.resolve("courses.json");
+        ensureFilesExist(folder);
+        try {
+            this.journal = new Journal(folder.resolve("journal.log"));
+            this.sync = new FolderSync(folder);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot open journal in " + folder, e);
+        }
+        this.background = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "skillforge-store");
+            t.setDaemon(true);
+            return t;
+        });
+        sync.lockExclusive();
+        try {
+            load();
+        } finally {
+            unlock();
+        }
+        Runtime.getRuntime().addShutdownHook(exitCheckpoint);
+        this.watcher = new DataWatcher(folder, background, this::fileChanged);
+        watcher.start();
+    }
+
+    /** The shared store for a data folder, loaded from disk on first use. */
+    static DataStore forFolder(String folder) {
+        Path key = Paths.get(folder).toAbsolutePath().normalize();
+        return OPEN.computeIfAbsent(key, DataStore::new);
+    }
+
+    private void ensureFilesExist(Path folder) {
+        try {
+            Files.createDirectories(folder);
+            for (Path f : new Path[]{usersFile, coursesFile}) {
+                if (!Files.exists(f)) {
+                    Files.writeString(f, "[]" + System.lineSeparator());
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /** Reads both files and the journal from scratch; caller holds the exclusive folder lock. */
+    private void load() {
+        loadFiles();
+        try {
+            List<JSONObject> records = new ArrayList<>();
+            journalOffset = journal.readFrom(0, records);
+            // Drop a torn record left by a crash, or the next append would be glued to it
+            journal.truncateTo(journalOffset);
+            applyJournalRecords(records, new HashSet<>(), new HashSet<>());
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        seenCommitSeq = sync.commitSeq();
+        seenEpoch = sync.epoch();
+        if (usersDirty || coursesDirty) {
+            scheduleCheckpoint();
+        }
+    }
+
+    /**
+     * Re-reads users.json and courses.json into the maps. Records are replaced in
+     * place rather than cleared first, so lock-free readers never see an empty store.
+     */
+    private void loadFiles() {
+        // Courses first: the user indexes look up the course of each lesson
+        try {
+            List<Course> loaded = JsonCodec.readCourses(coursesFile);
+            List<String> order = new ArrayList<>(loaded.size());
+            Set<String> ids = new HashSet<>();
+            for (Course c : loaded) {
+                indexCourse(courses.put(c.getCourseId(), c), c);
+                if (ids.add(c.getCourseId())) order.add(c.getCourseId());
+            }
+            for (Iterator<Course> it = courses.values().iterator(); it.hasNext(); ) {
+                Course c = it.next();
+                if (ids.contains(c.getCourseId())) continue;
+                it.remove();
+                indexCourse(c, null);
+            }
+            courseOrder = new RecordOrder<>(order);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        try {
+            List<User> loaded = JsonCodec.readUsers(usersFile);
+            List<Integer> order = new ArrayList<>(loaded.size());
+            Set<Integer> ids = new HashSet<>();
+            for (User u : loaded) {
+                indexUser(users.put(u.getUserId(), u), u);
+                if (ids.add(u.getUserId())) order.add(u.getUserId());
+            }
+            for (Iterator<User> it = users.values().iterator(); it.hasNext(); ) {
+                User u = it.next();
+                if (ids.contains(u.getUserId())) continue;
+                it.remove();
+                indexUser(u, null);
+            }
+            userOrder = new RecordOrder<>(order);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        clearDirty();
+    }
+
+    private void clearDirty() {
+        usersDirty = false;
+        coursesDirty = false;
+        dirtyUserIds.clear();
+        dirtyCourseIds.clear();
+    }
+
+    /**
+     * Catches up with commits made by other processes; caller holds the folder lock.
+     * Costs two memory reads when nothing changed.
+     */
+    private void revalidateLocked() {
+        long seq = sync.commitSeq();
+        long epoch = sync.epoch();
+        if (seq == seenCommitSeq && epoch == seenEpoch) return;
+
+        boolean reloadedAll = false;
+        if (epoch != seenEpoch) {
+            // Someone checkpointed and emptied the journal. If they also committed
+            // things we never saw, those are now only in the files.
+            if (seq != seenCommitSeq) {
+                loadFiles();
+                reloadedAll = true;
+            } else {
+                clearDirty();
+            }
+            journalOffset = 0;
+        }
+        Set<Integer> userIds = new HashSet<>();
+        Set<String> courseIds = new HashSet<>();
+        try {
+            List<JSONObject> records = new ArrayList<>();
+            journalOffset = journal.readFrom(journalOffset, records);
+            applyJournalRecords(records, userIds, courseIds);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        seenCommitSeq = seq;
+        seenEpoch = epoch;
+        if (reloadedAll) {
+            pendingEvents.add(new ChangeEvent.DataReloaded());
+        }
+    }
+
+    /** Lock-free check before a read; only takes the (shared) folder lock if another process wrote. */
+    private void refreshIfStale() {
+        if (sync.commitSeq() == seenCommitSeq && sync.epoch() == seenEpoch) return;
+        if (sync.isHeldByCurrentThread()) return; // inside a commit, already revalidated
+        sync.lockShared();
+        try {
+            revalidateLocked();
+        } finally {
+            unlock();
+        }
+    }
+
+    /** Releases the folder lock, then publishes the events of whatever was done under it. */
+    private void unlock() {
+        List<ChangeEvent> done = List.of();
+        if (!pendingEvents.isEmpty()) {
+            done = new ArrayList<>(pendingEvents);
+            pendingEvents.clear();
+        }
+        sync.unlock();
+        if (!done.isEmpty() && events.hasSubscribers()) {
+            List<ChangeEvent> batch = done;
+            delivery.execute(() -> deliver(batch));
+        }
+    }
+
+    /**
+     * Offers the events without waiting: submit() would block, holding the publisher's
+     * lock, while one slow subscriber's buffer is full, and so stall every saver.
+     * A subscriber that misses events gets DataReloaded once it has room again.
+     */
+    private void deliver(List<ChangeEvent> batch) {
+        for (ChangeEvent e : batch) events.offer(e, this::dropped);
+        if (eventsDropped && !resyncScheduled) resync();
+    }
+
+    private void resync() {
+        resyncScheduled = false;
+        eventsDropped = false;
+        events.offer(RESYNC, this::dropped);
+        if (eventsDropped && !background.isShutdown()) {
+            // Someone is still full: try again shortly
+            resyncScheduled = true;
+            background.schedule(() -> delivery.execute(this::resync), RESYNC_RETRY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private boolean dropped(Flow.Subscriber<? super ChangeEvent> subscriber, ChangeEvent event) {
+        ((Resyncing) subscriber).missed = true;
+        eventsDropped = true;
+        return false;
+    }
+
+    /** Wraps a subscriber so it learns, as DataReloaded, that it missed events. */
+    private static final class Resyncing implements Flow.Subscriber<ChangeEvent> {
+        private final Flow.Subscriber<? super ChangeEvent> subscriber;
+        volatile boolean missed;
+
+        Resyncing(Flow.Subscriber<? super ChangeEvent> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscriber.onSubscribe(subscription);
+        }
+
+        @Override
+        public void onNext(ChangeEvent event) {
+            if (missed) {
+                missed = false;
+                subscriber.onNext(new ChangeEvent.DataReloaded());
+                if (event == RESYNC) return;
+            } else if (event == RESYNC) {
+                return; // for the subscribers that missed something, not this one
+            }
+            subscriber.onNext(event);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            subscriber.onError(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            subscriber.onComplete();
+        }
+    }
+
+    /** Applies journaled commits, collecting the ids they touched. */
+    private void applyJournalRecords(List<JSONObject> records, Set<Integer> userIds, Set<String> courseIds) {
+        for (JSONObject rec : records) {
+            JSONArray us = rec.optJSONArray("users");
+            if (us != null) {
+                for (int i = 0; i < us.length(); i++) {
+                    User u = JsonCodec.parseUser(us.getJSONObject(i));
+                    if (u != null) {
+                        putUser(u);
+                        userIds.add(u.getUserId());
+                    }
+                }
+            }
+            JSONArray cs = rec.optJSONArray("courses");
+            if (cs != null) {
+                for (int i = 0; i < cs.length(); i++) {
+                    Course c = JsonCodec.parseCourse(cs.getJSONObject(i));
+                    putCourse(c);
+                    courseIds.add(c.getCourseId());
+                }
+            }
+        }
+        usersDirty |= !userIds.isEmpty();
+        coursesDirty |= !courseIds.isEmpty();
+        dirtyUserIds.addAll(userIds);
+        dirtyCourseIds.addAll(courseIds);
+    }
+
+    // ===================================================================
+    // EXTERNAL CHANGES
+    // ===================================================================
+
+    /**
+     * Typed change events; subscribers are called on their own threads, not the EDT.
+     * One that falls a buffer behind gets DataReloaded in place of what it missed.
+     */
+    Flow.Publisher<ChangeEvent> changes() {
+        return subscriber -> events.subscribe(new Resyncing(subscriber));
+    }
+
+    Path folder() {
+        return usersFile.getParent();
+    }
+
+    /**
+     * Checkpoints, stops the background threads and closes the folder's files. The
+     * next {@link #forFolder} for this folder opens a fresh store.
+     */
+    void close() {
+        OPEN.remove(folder(), this);
+        watcher.stop();
+        background.shutdownNow();
+        checkpoint();
+        delivery.shutdown();
+        events.close();
+        try {
+            Runtime.getRuntime().removeShutdownHook(exitCheckpoint);
+        } catch (IllegalStateException e) {
+            // already shutting down: the hook's checkpoint finds nothing left to write
+        }
+        try {
+            journal.close();
+            sync.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /** Called by the watcher once a file has been quiet for a moment. */
+    private void fileChanged(String fileName) {
+        switch (fileName) {
+            case "journal.log":
+                // Another process committed (our own commits are already seen: no-op)
+                refreshIfStale();
+                break;
+            case "users.json":
+                reloadEditedFile(true);
+                break;
+            case "courses.json":
+                reloadEditedFile(false);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Applies a hand edit of users.json or courses.json. Files written by a store
+     * (ours or another process's checkpoint) still have the size and modification time
+     * recorded in store.seq and are skipped without being read; otherwise the file is
+     * hashed outside the folder lock and skipped if it matches the recorded CRC.
+     * Records the cache changed since the last checkpoint keep the cached version,
+     * since the edit was made without them.
+     */
+    private void reloadEditedFile(boolean usersSide) {
+        Path file = usersSide ? usersFile : coursesFile;
+        long[] hashed;
+        long crc;
+        try {
+            hashed = stamp(file);
+            if (recorded(usersSide, hashed)) return;
+            crc = JsonCodec.crc(file);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return;
+        }
+        if (crc == (usersSide ? sync.usersCrc() : sync.coursesCrc())) return;
+
+        sync.lockExclusive();
+        try {
+            revalidateLocked();
+            // A checkpoint may have rewritten the file since it was hashed
+            long[] now = stamp(file);
+            if (recorded(usersSide, now)) return;
+            if (!Arrays.equals(now, hashed)) crc = JsonCodec.crc(file);
+            if (crc == (usersSide ? sync.usersCrc() : sync.coursesCrc())) return;
+
+            Set<Integer> userIds = new HashSet<>();
+            Set<String> courseIds = new HashSet<>();
+            try {
+                if (usersSide) {
+                    mergeEditedUsers(JsonCodec.readUsers(file), userIds);
+                } else {
+                    mergeEditedCourses(JsonCodec.readCourses(file), courseIds);
+                }
+            } catch (RuntimeException e) {
+                System.err.println("Ignoring unreadable edit of " + file.getFileName() + ": " + e.getMessage());
+                return;
+            }
+
+            if (userIds.isEmpty() && courseIds.isEmpty()) {
+                // Same records, different formatting: just remember the new content
+                record(usersSide, crc, now);
+                return;
+            }
+            System.out.println("Reloaded " + file.getFileName() + ": "
+                    + (userIds.size() + courseIds.size()) + " record(s) changed outside the app.");
+            // Checkpoint right away so every other process re-reads the edited file
+            usersDirty |= usersSide;
+            coursesDirty |= !usersSide;
+            seenCommitSeq = sync.nextCommitSeq();
+            checkpointLocked();
+        } catch (IOException e) {
+            e.printStackTrace();
+        } finally {
+            unlock();
+        }
+    }
+
+    // Size and modification time (ns): a file keeps both until someone writes it again
+    private static long[] stamp(Path file) throws IOException {
+        BasicFileAttributes a = Files.readAttributes(file, BasicFileAttributes.class);
+        return new long[]{a.size(), a.lastModifiedTime().to(TimeUnit.NANOSECONDS)};
+    }
+
+    private boolean recorded(boolean usersSide, long[] stamp) {
+        return usersSide ? sync.usersStampIs(stamp[0], stamp[1]) : sync.coursesStampIs(stamp[0], stamp[1]);
+    }
+
+    /** Remembers the content of a file the store wrote or accepted; caller holds the exclusive lock. */
+    private void record(boolean usersSide, long crc, long[] stamp) {
+        if (usersSide) {
+            sync.setUsersCrc(crc);
+            sync.setUsersStamp(stamp[0], stamp[1]);
+        } else {
+            sync.setCoursesCrc(crc);
+            sync.setCoursesStamp(stamp[0], stamp[1]);
+        }
+    }
+
+    private void mergeEditedUsers(List<User> edited, Set<Integer> changed) {
+        Set<Integer> inFile = new HashSet<>();
+        List<Integer> order = new ArrayList<>(edited.size());
+        for (User u : edited) {
+            int id = u.getUserId();
+            if (!inFile.add(id)) continue;
+            order.add(id);
+            User current = users.get(id);
+            if (current != null) {
+                if (dirtyUserIds.contains(id)) continue;
+                u.setVersion(current.getVersion());
+                if (JsonCodec.toJson(u).similar(JsonCodec.toJson(current))) continue;
+                u.setVersion(current.getVersion() + 1);
+            }
+            users.put(id, u);
+            indexUser(current, u);
+            ChangeEvents.diffUser(current, u, pendingEvents);
+            changed.add(id);
+        }
+        for (Integer id : userOrder.snapshot()) {
+            if (inFile.contains(id)) continue;
+            if (dirtyUserIds.contains(id)) {
+                order.add(id);
+            } else {
+                indexUser(users.remove(id), null);
+                pendingEvents.add(new ChangeEvent.UserRemoved(id));
+                changed.add(id);
+            }
+        }
+        userOrder = new RecordOrder<>(order);
+    }
+
+    private void mergeEditedCourses(List<Course> edited, Set<String> changed) {
+        Set<String> inFile = new HashSet<>();
+        List<String> order = new ArrayList<>(edited.size());
+        for (Course c : edited) {
+            String id = c.getCourseId();
+            if (!inFile.add(id)) continue;
+            order.add(id);
+            Course current = courses.get(id);
+            if (current != null) {
+                if (dirtyCourseIds.contains(id)) continue;
+                c.setVersion(current.getVersion());
+                if (JsonCodec.toJson(c).similar(JsonCodec.toJson(current))) continue;
+                c.setVersion(current.getVersion() + 1);
+            }
+            courses.put(id, c);
+            indexCourse(current, c);
+            ChangeEvents.diffCourse(current, c, pendingEvents);
+            changed.add(id);
+        }
+        for (String id : courseOrder.snapshot()) {
+            if (inFile.contains(id)) continue;
+            if (dirtyCourseIds.contains(id)) {
+                order.add(id);
+            } else {
+                indexCourse(courses.remove(id), null);
+                pendingEvents.add(new ChangeEvent.CourseRemoved(id));
+                changed.add(id);
+            }
+        }
+        courseOrder = new RecordOrder<>(order);
+    }
+
+    // ===================================================================
+    // READS (lock-free unless another process committed)
+    // ===================================================================
+
+    /** Copies of all users, in file order. */
+    List<User> users() {
+        refreshIfStale();
+        List<Integer> order = userOrder.snapshot();
+        List<User> out = new ArrayList<>(order.size());
+        for (Integer id : order) {
+            User u = users.get(id);
+            if (u != null) out.add(u.copy());
+        }
+        return out;
+    }
+
+    /** A copy of one user, or null. */
+    User user(int userId) {
+        refreshIfStale();
+        User u = users.get(userId);
+        return u == null ? null : u.copy();
+    }
+
+    /** The frozen user itself; callers must treat it as read-only. */
+    User peekUser(int userId) {
+        refreshIfStale();
+        return users.get(userId);
+    }
+
+    /** Frozen users in no particular order; callers must treat them as read-only. */
+    Collection<User> peekUsers() {
+        refreshIfStale();
+        return Collections.unmodifiableCollection(users.values());
+    }
+
+    /** The frozen user with the username (any case), from the index; the lowest id if the files hold it twice. */
+    User peekUserByUsername(String username) {
+        refreshIfStale();
+        return userByUsername(username);
+    }
+
+    // A lock-free reader can catch the index a moment behind the map; the name check drops such strays
+    private User userByUsername(String username) {
+        List<Integer> ids = usernames.get(usernameKey(username));
+        if (ids == null) return null;
+        for (Integer id : ids) {
+            User u = users.get(id);
+            if (u != null && u.getUsername().equalsIgnoreCase(username)) return u;
+        }
+        return null;
+    }
+
+    List<Course> courses() {
+        refreshIfStale();
+        List<String> order = courseOrder.snapshot();
+        List<Course> out = new ArrayList<>(order.size());
+        for (String id : order) {
+            Course c = courses.get(id);
+            if (c != null) out.add(c.copy());
+        }
+        return out;
+    }
+
+    Course course(String courseId) {
+        refreshIfStale();
+        Course c = courseId == null ? null : courses.get(courseId);
+        return c == null ? null : c.copy();
+    }
+
+    Course peekCourse(String courseId) {
+        refreshIfStale();
+        return courseId == null ? null : courses.get(courseId);
+    }
+
+    Collection<Course> peekCourses() {
+        refreshIfStale();
+        return Collections.unmodifiableCollection(courses.values());
+    }
+
+    PlatformCounters counters() {
+        refreshIfStale();
+        return counters;
+    }
+
+    ScoreHistogram scoreHistogram(String courseId, Iterable<String> lessonIds) {
+        refreshIfStale();
+        return scoreHistograms.snapshot(courseId, lessonIds);
+    }
+
+    ActivitySeries activity(String courseId, Iterable<String> lessonIds, ActivitySeries.Resolution resolution, int buckets) {
+        refreshIfStale();
+        return activity.series(courseId, lessonIds, resolution, buckets);
+    }
+
+    ActivitySeries platformActivity(ActivitySeries.Resolution resolution, int buckets) {
+        refreshIfStale();
+        return activity.platform(resolution, buckets);
+    }
+
+    long activeStudents(Iterable<String> courseIds, int days) {
+        refreshIfStale();
+        return activeStudents.estimate(courseIds, days);
+    }
+
+    long activeStudentsOnPlatform(int days) {
+        refreshIfStale();
+        return activeStudents.platform(days);
+    }
+
+    String courseOf(Student s, String lessonId) {
+        refreshIfStale();
+        return courseIndex.courseOf(s, lessonId);
+    }
+
+    CoEnrollment coEnrollment() {
+        refreshIfStale();
+        return coEnrollment;
+    }
+
+    /** Copies of the instructor's courses, from the index. */
+    List<Course> coursesOfInstructor(String instructorId) {
+        refreshIfStale();
+        return copies(courseIndex.ofInstructor(instructorId), c -> instructorId.equals(c.getInstructorId()));
+    }
+
+    /** Copies of the courses with the status, from the index. */
+    List<Course> coursesWithStatus(CourseStatus status) {
+        refreshIfStale();
+        return copies(courseIndex.withStatus(status), c -> CourseStatus.of(c.getStatus()) == status);
+    }
+
+    // A lock-free reader can catch the index a moment behind the map; the check drops such strays
+    private List<Course> copies(List<String> ids, Predicate<Course> stillMatches) {
+        List<Course> out = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            Course c = courses.get(id);
+            if (c != null && stillMatches.test(c)) out.add(c.copy());
+        }
+        return out;
+    }
+
+    // ===================================================================
+    // WRITES
+    // ===================================================================
+
+    Transaction begin(Consumer<User> beforeSaveUser) {
+        return new Transaction(this, beforeSaveUser);
+    }
+
+    /** Compare-and-set of a single user (inserted if new). */
+    UpdateResult<User> updateUser(User updated, Consumer<User> beforeSave) {
+        Transaction tx = begin(beforeSave).putUser(updated);
+        return result(tx.commit(), tx.getUser(updated.getUserId()), (User) tx.conflictCurrent);
+    }
+
+    /** Adds a new user; CONFLICT (with the user in the way) if the id or the username is taken. */
+    UpdateResult<User> insertUser(User user, Consumer<User> beforeSave) {
+        Transaction tx = begin(beforeSave).insertUser(user);
+        return result(tx.commit(), tx.getUser(user.getUserId()), (User) tx.conflictCurrent);
+    }
+
+    /** Applies {@code change} to the stored user atomically (no other writer can interleave). */
+    UpdateResult<User> updateUser(int userId, Consumer<User> change) {
+        Transaction tx = begin(u -> { }).updateUser(userId, change);
+        return result(tx.commit(), tx.getUser(userId), null);
+    }
+
+    UpdateResult<Course> updateCourse(Course updated) {
+        Transaction tx = begin(u -> { }).putCourse(updated);
+        return result(tx.commit(), tx.getCourse(updated.getCourseId()), (Course) tx.conflictCurrent);
+    }
+
+    UpdateResult<Course> updateCourse(String courseId, Consumer<Course> change) {
+        Transaction tx = begin(u -> { }).updateCourse(courseId, change);
+        return result(tx.commit(), tx.getCourse(courseId), null);
+    }
+
+    void addCourse(Course c) {
+        begin(u -> { }).addCourse(c).commit();
+    }
+
+    private static <T> UpdateResult<T> result(UpdateResult.Status status, T committed, T conflict) {
+        switch (status) {
+            case UPDATED:
+                return UpdateResult.updated(committed);
+            case CONFLICT:
+                return UpdateResult.conflict(conflict);
+            default:
+                return UpdateResult.notFound();
+        }
+    }
+
+    /**
+     * Commits a transaction. The new records are built under the stripe locks of the
+     * records they replace (users then courses, ascending), which is all that orders
+     * writers of this process; the folder lock is only taken to check that no other
+     * process replaced those records meanwhile, append the journal line, publish and
+     * bump the commit sequence. The fsync comes after every lock is released and is
+     * shared with the other commits waiting for one (see {@link Journal#force});
+     * UPDATED is returned once the record is on disk.
+     */
+    UpdateResult.Status commit(Transaction tx) {
+        List<Object> userKeys = new ArrayList<>();
+        for (Transaction.Staged<User> op : tx.userOps) userKeys.add(op.key);
+        List<Object> courseKeys = new ArrayList<>();
+        for (Transaction.Staged<Course> op : tx.courseOps) courseKeys.add(op.key);
+        int[] userStripes = userLocks.stripesOf(userKeys);
+        int[] courseStripes = courseLocks.stripesOf(courseKeys);
+
+        Map<Integer, User> newUsers = new LinkedHashMap<>();
+        Map<String, Course> newCourses = new LinkedHashMap<>();
+        long written;
+        userLocks.lock(userStripes);
+        courseLocks.lock(courseStripes);
+        try {
+            while (true) {
+                // 1) Build the new records from the latest ones, outside the folder lock
+                refreshIfStale();
+                Map<Integer, User> baseUsers = new HashMap<>();
+                Map<String, Course> baseCourses = new HashMap<>();
+                newUsers.clear();
+                newCourses.clear();
+                UpdateResult.Status status = build(tx, baseUsers, baseCourses, newUsers, newCourses);
+                if (status != UpdateResult.Status.UPDATED) return status;
+                JSONObject record = new JSONObject();
+                JSONArray us = new JSONArray();
+                for (User u : newUsers.values()) us.put(JsonCodec.toJson(u));
+                JSONArray cs = new JSONArray();
+                for (Course c : newCourses.values()) cs.put(JsonCodec.toJson(c));
+                record.put("users", us);
+                record.put("courses", cs);
+
+                // 2) Journal + publish, unless another process (or a hand edit) got there first
+                sync.lockExclusive();
+                try {
+                    revalidateLocked();
+                    if (!unchanged(baseUsers, users) || !unchanged(baseCourses, courses)) continue;
+                    // Checked here, under the lock, since two sign-ups with one name take different stripes
+                    User owner = usernameTaken(tx, newUsers);
+                    if (owner != null) {
+                        tx.conflictCurrent = owner.copy();
+                        return UpdateResult.Status.CONFLICT;
+                    }
+                    written = journal.append(record);
+                    journalOffset = journal.size();
+
+                    for (User u : newUsers.values()) putUser(u);
+                    for (Course c : newCourses.values()) putCourse(c);
+                    usersDirty |= !newUsers.isEmpty();
+                    coursesDirty |= !newCourses.isEmpty();
+                    dirtyUserIds.addAll(newUsers.keySet());
+                    dirtyCourseIds.addAll(newCourses.keySet());
+                    seenCommitSeq = sync.nextCommitSeq();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                    throw new IllegalStateException("Could not write journal: " + e.getMessage(), e);
+                } finally {
+                    unlock();
+                }
+                break;
+            }
+        } finally {
+            courseLocks.unlock(courseStripes);
+            userLocks.unlock(userStripes);
+        }
+
+        // 3) Wait for the disk (later commits are appended after ours, so their force covers it too)
+        try {
+            journal.force(written);
+        } catch (IOException e) {
+            e.printStackTrace();
+            throw new IllegalStateException("Could not write journal: " + e.getMessage(), e);
+        }
+
+        // 4) Hand the new versions back to the caller's objects
+        for (Transaction.Staged<User> op : tx.userOps) {
+            if (op.value != null) op.value.setVersion(newUsers.get((Integer) op.key).getVersion());
+        }
+        for (Transaction.Staged<Course> op : tx.courseOps) {
+            if (op.value != null) op.value.setVersion(newCourses.get((String) op.key).getVersion());
+        }
+        tx.committedUsers.putAll(newUsers);
+        tx.committedCourses.putAll(newCourses);
+        scheduleCheckpoint();
+        return UpdateResult.Status.UPDATED;
+    }
+
+    /**
+     * Builds the records a transaction commits (later ops on the same record see earlier
+     * ones), remembering the stored record each one replaces in {@code base}.
+     */
+    private UpdateResult.Status build(Transaction tx, Map<Integer, User> baseUsers, Map<String, Course> baseCourses,
+                                      Map<Integer, User> newUsers, Map<String, Course> newCourses) {
+        for (Transaction.Staged<User> op : tx.userOps) {
+            Integer id = (Integer) op.key;
+            if (!baseUsers.containsKey(id)) baseUsers.put(id, users.get(id));
+            User current = newUsers.containsKey(id) ? newUsers.get(id) : baseUsers.get(id);
+            User next;
+            if (op.mode == Transaction.Mode.CHANGE) {
+                if (current == null) return UpdateResult.Status.NOT_FOUND;
+                next = current.copy();
+                op.change.accept(next);
+                tx.beforeSaveUser.accept(next);
+                next.setVersion(current.getVersion() + 1);
+            } else if (op.mode == Transaction.Mode.INSERT) {
+                if (current != null) {
+                    tx.conflictCurrent = current.copy();
+                    return UpdateResult.Status.CONFLICT;
+                }
+                tx.beforeSaveUser.accept(op.value);
+                next = op.value.copy();
+                next.setVersion(0);
+            } else {
+                if (op.mode == Transaction.Mode.PUT && current != null
+                        && current.getVersion() != op.value.getVersion()) {
+                    tx.conflictCurrent = current.copy();
+                    return UpdateResult.Status.CONFLICT;
+                }
+                tx.beforeSaveUser.accept(op.value);
+                next = op.value.copy();
+                next.setVersion(current == null ? op.value.getVersion() : current.getVersion() + 1);
+            }
+            newUsers.put(id, next);
+        }
+        for (Transaction.Staged<Course> op : tx.courseOps) {
+            String id = (String) op.key;
+            if (!baseCourses.containsKey(id)) baseCourses.put(id, courses.get(id));
+            Course current = newCourses.containsKey(id) ? newCourses.get(id) : baseCourses.get(id);
+            Course next;
+            if (op.mode == Transaction.Mode.CHANGE) {
+                if (current == null) return UpdateResult.Status.NOT_FOUND;
+                next = current.copy();
+                op.change.accept(next);
+                next.setVersion(current.getVersion() + 1);
+            } else if (op.mode == Transaction.Mode.PUT) {
+                if (current == null) return UpdateResult.Status.NOT_FOUND;
+                if (current.getVersion() != op.value.getVersion()) {
+                    tx.conflictCurrent = current.copy();
+                    return UpdateResult.Status.CONFLICT;
+                }
+                next = op.value.copy();
+                next.setVersion(current.getVersion() + 1);
+            } else {
+                next = op.value.copy();
+                if (current != null) next.setVersion(current.getVersion() + 1);
+            }
+            newCourses.put(id, next);
+        }
+        return UpdateResult.Status.UPDATED;
+    }
+
+    /** A stored user (or one inserted earlier in the transaction) already using the name of an inserted user, or null. */
+    private User usernameTaken(Transaction tx, Map<Integer, User> newUsers) {
+        Map<String, User> claimed = new HashMap<>();
+        for (Transaction.Staged<User> op : tx.userOps) {
+            if (op.mode != Transaction.Mode.INSERT) continue;
+            User inserted = newUsers.get((Integer) op.key);
+            User owner = userByUsername(inserted.getUsername());
+            if (owner == null) owner = claimed.putIfAbsent(usernameKey(inserted.getUsername()), inserted);
+            if (owner != null && owner.getUserId() != inserted.getUserId()) return owner;
+        }
+        return null;
+    }
+
+    // Frozen records are never modified, so the same object means nobody replaced it
+    private static <K, V> boolean unchanged(Map<K, V> base, Map<K, V> stored) {
+        for (Map.Entry<K, V> e : base.entrySet()) {
+            if (stored.get(e.getKey()) != e.getValue()) return false;
+        }
+        return true;
+    }
+
+    /** Replaces every user (legacy whole-list save) and checkpoints immediately. */
+    void replaceAllUsers(List<User> all) {
+        userLocks.lockAll();
+        sync.lockExclusive();
+        try {
+            revalidateLocked();
+            // Put the new records over the old ones, then drop the rest: readers see old or new, never none
+            Map<Integer, User> previous = new HashMap<>(users);
+            Set<Integer> ids = new HashSet<>();
+            List<Integer> order = new ArrayList<>(all.size());
+            for (User u : all) {
+                User frozen = u.copy();
+                User replaced = users.put(u.getUserId(), frozen);
+                if (!ids.add(u.getUserId())) {
+                    indexUser(replaced, frozen); // duplicate id: the later one wins
+                    continue;
+                }
+                order.add(u.getUserId());
+                User before = previous.remove(u.getUserId());
+                indexUser(before, frozen);
+                if (!sameRecord(before == null ? null : JsonCodec.toJson(before), JsonCodec.toJson(frozen))) {
+                    ChangeEvents.diffUser(before, frozen, pendingEvents);
+                }
+            }
+            for (User removed : previous.values()) {
+                users.remove(removed.getUserId());
+                indexUser(removed, null);
+                pendingEvents.add(new ChangeEvent.UserRemoved(removed.getUserId()));
+            }
+            userOrder = new RecordOrder<>(order);
+            usersDirty = true;
+            seenCommitSeq = sync.nextCommitSeq();
+            checkpointLocked();
+        } finally {
+            unlock();
+            userLocks.unlockAll();
+        }
+    }
+
+    /** Replaces every course (legacy whole-list save) and checkpoints immediately. */
+    void replaceAllCourses(List<Course> all) {
+        courseLocks.lockAll();
+        sync.lockExclusive();
+        try {
+            revalidateLocked();
+            // Put the new records over the old ones, then drop the rest: readers see old or new, never none
+            Map<String, Course> previous = new HashMap<>(courses);
+            Set<String> ids = new HashSet<>();
+            List<String> order = new ArrayList<>(all.size());
+            for (Course c : all) {
+                Course frozen = c.copy();
+                Course replaced = courses.put(c.getCourseId(), frozen);
+                if (!ids.add(c.getCourseId())) {
+                    indexCourse(replaced, frozen); // duplicate id: the later one wins
+                    continue;
+                }
+                order.add(c.getCourseId());
+                Course before = previous.remove(c.getCourseId());
+                indexCourse(before, frozen);
+                if (!sameRecord(before == null ? null : JsonCodec.toJson(before), JsonCodec.toJson(frozen))) {
+                    ChangeEvents.diffCourse(before, frozen, pendingEvents);
+                }
+            }
+            for (Course removed : previous.values()) {
+                courses.remove(removed.getCourseId());
+                indexCourse(removed, null);
+                pendingEvents.add(new ChangeEvent.CourseRemoved(removed.getCourseId()));
+            }
+            courseOrder = new RecordOrder<>(order);
+            coursesDirty = true;
+            seenCommitSeq = sync.nextCommitSeq();
+            checkpointLocked();
+        } finally {
+            unlock();
+            courseLocks.unlockAll();
+        }
+    }
+
+    // Whole-list saves re-save untouched records too; only report the ones that differ
+    private static boolean sameRecord(JSONObject before, JSONObject after) {
+        return before != null && before.similar(after);
+    }
+
+    // Every put or removal of a record goes through these, so indexes and counters stay in step
+    private void indexUser(User before, User after) {
+        if (before != null && (after == null || !before.getUsername().equals(after.getUsername()))) {
+            usernames.computeIfPresent(usernameKey(before.getUsername()), (k, ids) -> without(ids, before.getUserId()));
+        }
+        if (after != null) {
+            usernames.compute(usernameKey(after.getUsername()), (k, ids) -> with(ids, after.getUserId()));
+        }
+        counters.user(before, after);
+        scoreHistograms.user(before, after);
+        activity.user(before, after);
+        activeStudents.user(before, after);
+        coEnrollment.user(before, after);
+    }
+
+    private void indexCourse(Course before, Course after) {
+        Set<String> moved = courseIndex.update(before, after);
+        // Students' attempts at these lessons may now belong to another course, or to none
+        if (!moved.isEmpty()) {
+            scoreHistograms.recount(moved, users.values());
+            activity.recount(moved, users.values());
+        }
+        counters.course(before, after);
+    }
+
+    private static String usernameKey(String username) {
+        return username.toLowerCase(Locale.ROOT);
+    }
+
+    private static List<Integer> with(List<Integer> ids, int id) {
+        if (ids == null) return List.of(id);
+        if (ids.contains(id)) return ids;
+        List<Integer> out = new ArrayList<>(ids);
+        out.add(id);
+        Collections.sort(out);
+        return List.copyOf(out);
+    }
+
+    private static List<Integer> without(List<Integer> ids, int id) {
+        if (!ids.contains(id)) return ids;
+        List<Integer> out = new ArrayList<>(ids);
+        out.remove((Integer) id);
+        return out.isEmpty() ? null : List.copyOf(out);
+    }
+
+    // Callers hold the folder lock, so the order lists have a single writer
+    private void putUser(User frozen) {
+        User previous = users.put(frozen.getUserId(), frozen);
+        indexUser(previous, frozen);
+        if (previous == null) userOrder.add(frozen.getUserId());
+        ChangeEvents.diffUser(previous, frozen, pendingEvents);
+    }
+
+    private void putCourse(Course frozen) {
+        Course previous = courses.put(frozen.getCourseId(), frozen);
+        indexCourse(previous, frozen);
+        if (previous == null) courseOrder.add(frozen.getCourseId());
+        ChangeEvents.diffCourse(previous, frozen, pendingEvents);
+    }
+
+    // ===================================================================
+    // CHECKPOINTS
+    // ===================================================================
+
+    /** Coalesces commits: the files are rewritten at most once per delay, or sooner if the journal grows. */
+    private void scheduleCheckpoint() {
+        long delay = CHECKPOINT_DELAY_MS;
+        try {
+            if (journal.size() > MAX_JOURNAL_BYTES) delay = 0;
+        } catch (IOException ignored) {
+        }
+        if (checkpointScheduled.compareAndSet(false, true)) {
+            background.schedule(this::checkpoint, delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /** Writes the dirty JSON files and empties the journal. */
+    void checkpoint() {
+        checkpointScheduled.set(false);
+        sync.lockExclusive();
+        try {
+            revalidateLocked();
+            checkpointLocked();
+        } finally {
+            unlock();
+        }
+    }
+
+    private void checkpointLocked() {
+        try {
+            if (!usersDirty && !coursesDirty && journal.size() == 0) return;
+            if (usersDirty) {
+                long crc = JsonCodec.writeUsers(usersFile, orderedFrozen(userOrder.snapshot(), users));
+                record(true, crc, stamp(usersFile));
+                usersDirty = false;
+                dirtyUserIds.clear();
+            }
+            if (coursesDirty) {
+                long crc = JsonCodec.writeCourses(coursesFile, orderedFrozen(courseOrder.snapshot(), courses));
+                record(false, crc, stamp(coursesFile));
+                coursesDirty = false;
+                dirtyCourseIds.clear();
+            }
+            // Both files and their folder entries are on disk now, so the journal can go
+            journal.truncate();
+            journalOffset = 0;
+            seenEpoch = sync.nextEpoch();
+        } catch (IOException e) {
+            // Journal is kept, so nothing is lost; the next checkpoint retries
+            e.printStackTrace();
+        }
+    }
+
+    private static <K, V> List<V> orderedFrozen(List<K> order, Map<K, V> map) {
+        List<V> out = new ArrayList<>(order.size());
+        for (K id : order) {
+            V v = map.get(id);
+            if (v != null) out.add(v);
+        }
+        return out;
+    }
+}
@@ -0,0 +1,112 @@
+package jsondatabase;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Watches the data folder and reports which store file changed.
+ *
+ * Editors and our own atomic renames produce bursts of events for one save, so each
+ * file is only reported once it has been quiet for {@link #QUIET_MS}. Reports run on
+ * the store's background executor, never on the watcher thread or the EDT.
+ */
+final class DataWatcher {
+
+    private static final long QUIET_MS = 250;
+    private static final Set<String> WATCHED = Set.of("users.json", "courses.json", "journal.log");
+
+    private final Path folder;
+    private final ScheduledExecutorService executor;
+    private final Consumer<String> onChange;
+    private final Map<String, ScheduledFuture<?>> pending = new HashMap<>();
+    private WatchService watchService;
+
+    DataWatcher(Path folder, ScheduledExecutorService executor, Consumer<String> onChange) {
+        this.folder = folder;
+        this.executor = executor;
+        this.onChange = onChange;
+    }
+
+    void start() {
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            folder.register(watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            // Hot reload is a convenience; the store works without it
+            System.err.println("Data folder watcher not available: " + e.getMessage());
+            return;
+        }
+        Thread t = new Thread(this::run, "skillforge-watcher");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        // Events were dropped; re-check everything
+                        WATCHED.forEach(this::debounce);
+                        continue;
+                    }
+                    String name = ((Path) event.context()).getFileName().toString();
+                    if (WATCHED.contains(name)) {
+                        debounce(name);
+                    }
+                }
+                if (!key.reset()) {
+                    System.err.println("Data folder is no longer watched.");
+                    return;
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // shutting down
+        }
+    }
+
+    /** Stops watching; pending reports are dropped with the executor. */
+    void stop() {
+        if (watchService == null) return;
+        try {
+            watchService.close(); // the watcher thread ends on ClosedWatchServiceException
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /** (Re)starts the quiet period for a file. */
+    private synchronized void debounce(String fileName) {
+        ScheduledFuture<?> previous = pending.get(fileName);
+        if (previous != null) {
+            previous.cancel(false);
+        }
+        pending.put(fileName, executor.schedule(() -> fire(fileName), QUIET_MS, TimeUnit.MILLISECONDS));
+    }
+
+    private void fire(String fileName) {
+        synchronized (this) {
+            pending.remove(fileName);
+        }
+        try {
+            onChange.accept(fileName);
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+}
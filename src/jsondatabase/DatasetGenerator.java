@@ -0,0 +1,297 @@
+package jsondatabase;
+
+import models.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Writes a synthetic data folder (users.json + courses.json) for load tests and
+ * benchmarks.
+ *
+ * Everything is built from the model classes and written with {@link JsonCodec},
+ * so the output is exactly what the app itself writes and always loads. Records are
+ * streamed to disk one at a time; only the per-course enrollment lists stay in
+ * memory, which keeps multi-GB datasets within a normal heap.
+ *
+ * Course popularity follows a Zipf distribution (a few courses get most of the
+ * students). The same options and seed always give the same files.
+ *
+ * Usage (or {@code ant gen-data -Dgen.args="..."}):
+ * <pre>
+ *   java jsondatabase.DatasetGenerator --out data-100k --students 100000
+ *        [--instructors 500] [--courses 1000] [--lessons 5] [--questions 5]
+ *        [--enrollments 3] [--attempts 3] [--zipf 1.0] [--pending 0.1] [--seed 42]
+ * </pre>
+ */
+public final class DatasetGenerator {
+
+    /** Password of every generated account. */
+    public static final String PASSWORD = "password";
+
+    private static final long BASE_TIME = 1_700_000_000_000L;     // Nov 2023
+    private static final long TIME_SPAN = 180L * 24 * 3600 * 1000; // attempts spread over 180 days
+    private static final int PASSING_PERCENTAGE = 60;
+    private static final int OPTIONS = 4;
+
+    // ===================================================================
+    // OPTIONS
+    // ===================================================================
+
+    public int students = 1000;
+    public int instructors = 50;
+    public int courses = 100;
+    public int lessonsPerCourse = 5;
+    public int questionsPerQuiz = 5;
+    public int enrollmentsPerStudent = 3;
+    public int attemptsPerStudent = 3;
+    public double zipfExponent = 1.0;
+    public double pendingRatio = 0.1;
+    public long seed = 42L;
+
+    // Ids follow the same scheme, so callers can pick valid ids without loading the data
+    public static final int ADMIN_ID = 1;
+
+    public int firstInstructorId() {
+        return ADMIN_ID + 1;
+    }
+
+    public int firstStudentId() {
+        return firstInstructorId() + instructors;
+    }
+
+    public static String courseId(int course) {
+        return "C" + course;
+    }
+
+    public static String lessonId(int course, int lesson) {
+        return "C" + course + "-L" + lesson;
+    }
+
+    public static String username(int userId) {
+        return "user" + userId;
+    }
+
+    // ===================================================================
+    // GENERATION
+    // ===================================================================
+
+    private String[] statuses;
+    private double[] popularityCdf;
+    private int[] popularCourses;      // APPROVED courses, most popular first
+    private int[][] enrolled;          // per course: enrolled student ids
+    private int[] enrolledCount;
+
+    /** Writes users.json and courses.json into {@code folder}, replacing any old data there. */
+    public void generate(Path folder) throws IOException {
+        if (instructors < 1 || courses < 1 || lessonsPerCourse < 1 || questionsPerQuiz < 1) {
+            throw new IllegalArgumentException("Need at least one instructor, course, lesson and question.");
+        }
+        Files.createDirectories(folder);
+        // Journal entries of an older dataset would be replayed over the new files
+        Files.deleteIfExists(folder.resolve("journal.log"));
+
+        Random rnd = new Random(seed);
+        drawStatuses(rnd);
+        enrolled = new int[courses][];
+        enrolledCount = new int[courses];
+
+        try (JsonCodec.ArrayWriter out = new JsonCodec.ArrayWriter(folder.resolve("users.json"), 0)) {
+            // Hashed once through the model, reused for every account
+            String hash = new Admin(ADMIN_ID, "admin", "admin@skillforge.com", PASSWORD, false).getPasswordHash();
+            out.add(JsonCodec.toJson(new Admin(ADMIN_ID, "admin", "admin@skillforge.com", hash, true)));
+            for (int id = firstInstructorId(); id < firstStudentId(); id++) {
+                out.add(JsonCodec.toJson(new Instructor(id, username(id), username(id) + "@skillforge.com", hash, true)));
+            }
+            for (int i = 0; i < students; i++) {
+                out.add(JsonCodec.toJson(student(firstStudentId() + i, hash, rnd)));
+            }
+            out.commit();
+        }
+
+        try (JsonCodec.ArrayWriter out = new JsonCodec.ArrayWriter(folder.resolve("courses.json"), 4)) {
+            for (int c = 0; c < courses; c++) {
+                out.add(JsonCodec.toJson(course(c)));
+            }
+            out.commit();
+        }
+    }
+
+    /** Course statuses come first so enrollment only picks APPROVED courses. */
+    private void drawStatuses(Random rnd) {
+        statuses = new String[courses];
+        List<Integer> approved = new ArrayList<>();
+        for (int c = 0; c < courses; c++) {
+            double r = rnd.nextDouble();
+            statuses[c] = r < pendingRatio ? "PENDING" : r < pendingRatio * 1.5 ? "REJECTED" : "APPROVED";
+            if (statuses[c].equals("APPROVED")) approved.add(c);
+        }
+        // Popularity rank is independent of the course number
+        Collections.shuffle(approved, rnd);
+        popularCourses = approved.stream().mapToInt(Integer::intValue).toArray();
+        popularityCdf = new double[popularCourses.length];
+        double total = 0;
+        for (int rank = 0; rank < popularCourses.length; rank++) {
+            total += 1.0 / Math.pow(rank + 1, zipfExponent);
+            popularityCdf[rank] = total;
+        }
+        for (int rank = 0; rank < popularityCdf.length; rank++) {
+            popularityCdf[rank] /= total;
+        }
+    }
+
+    private int pickCourse(Random rnd) {
+        int rank = Arrays.binarySearch(popularityCdf, rnd.nextDouble());
+        if (rank < 0) rank = -rank - 1;
+        return popularCourses[Math.min(rank, popularCourses.length - 1)];
+    }
+
+    private Student student(int id, String hash, Random rnd) {
+        Student s = new Student(new ArrayList<>(), new ArrayList<>(), id, username(id),
+                username(id) + "@skillforge.com", hash, "STUDENT", true);
+
+        int wanted = Math.min(enrollmentsPerStudent, popularCourses.length);
+        List<Integer> mine = new ArrayList<>(wanted);
+        // Popular courses repeat a lot under Zipf; give up after a bounded number of draws
+        for (int tries = 0; mine.size() < wanted && tries < wanted * 20; tries++) {
+            int c = pickCourse(rnd);
+            if (mine.contains(c)) continue;
+            mine.add(c);
+            s.enrollInCourse(courseId(c));
+            addEnrollment(c, id);
+        }
+        if (mine.isEmpty()) return s;
+
+        // Ability decides how well this student usually does
+        double ability = 0.3 + 0.65 * rnd.nextDouble();
+        List<QuizAttempt> attempts = new ArrayList<>(attemptsPerStudent);
+        for (int a = 0; a < attemptsPerStudent; a++) {
+            int c = mine.get(rnd.nextInt(mine.size()));
+            int lesson = rnd.nextInt(lessonsPerCourse);
+            String lessonId = lessonId(c, lesson);
+            int correct = 0;
+            int[] answers = new int[questionsPerQuiz];
+            for (int q = 0; q < questionsPerQuiz; q++) {
+                int right = correctOption(c, lesson, q);
+                // Later questions are harder; a wrong answer is one of the other three options
+                if (rnd.nextDouble() < ability * (1.0 - 0.4 * q / questionsPerQuiz)) {
+                    answers[q] = right;
+                    correct++;
+                } else {
+                    answers[q] = (right + 1 + rnd.nextInt(OPTIONS - 1)) % OPTIONS;
+                }
+            }
+            long time = BASE_TIME + (long) (rnd.nextDouble() * TIME_SPAN);
+            attempts.add(new QuizAttempt(lessonId, time, correct * 100 / questionsPerQuiz, correct, questionsPerQuiz, answers));
+        }
+        attempts.sort(Comparator.comparingLong(QuizAttempt::getTimestamp));
+        long lastTime = BASE_TIME;
+        for (QuizAttempt attempt : attempts) {
+            s.addQuizAttempt(attempt.getLessonId(), attempt);
+            if (attempt.getScore() >= PASSING_PERCENTAGE) s.markLessonCompleted(attempt.getLessonId());
+            lastTime = attempt.getTimestamp();
+        }
+
+        for (int c : mine) {
+            boolean all = true;
+            for (int l = 0; l < lessonsPerCourse && all; l++) {
+                all = s.hasCompletedLesson(lessonId(c, l));
+            }
+            if (all) {
+                String certId = UUID.nameUUIDFromBytes((id + "/" + courseId(c)).getBytes(StandardCharsets.UTF_8)).toString();
+                String date = java.time.Instant.ofEpochMilli(lastTime).atZone(java.time.ZoneOffset.UTC).toLocalDate().toString();
+                s.addCertificate(new Certificate(certId, id, courseId(c), date));
+            }
+        }
+        return s;
+    }
+
+    private void addEnrollment(int course, int studentId) {
+        int[] list = enrolled[course];
+        int n = enrolledCount[course];
+        if (list == null) {
+            list = enrolled[course] = new int[8];
+        } else if (n == list.length) {
+            list = enrolled[course] = Arrays.copyOf(list, n * 2);
+        }
+        list[n] = studentId;
+        enrolledCount[course] = n + 1;
+    }
+
+    /** The answer key is a pure function of the seed, so attempts can be drawn before courses are written. */
+    private int correctOption(int course, int lesson, int question) {
+        long h = seed * 0x9E3779B97F4A7C15L + course;
+        h = (h ^ (h >>> 31)) * 0xBF58476D1CE4E5B9L + lesson;
+        h = (h ^ (h >>> 29)) * 0x94D049BB133111EBL + question;
+        h ^= h >>> 32;
+        return (int) Math.floorMod(h, (long) OPTIONS);
+    }
+
+    private Course course(int c) {
+        int instructorId = firstInstructorId() + c % instructors;
+        Course course = new Course(courseId(c), "Course " + c, "Generated course " + c,
+                String.valueOf(instructorId), statuses[c]);
+        for (int l = 0; l < lessonsPerCourse; l++) {
+            Lesson lesson = new Lesson(lessonId(c, l), "Lesson " + l,
+                    "Content of lesson " + l + " in course " + c + ".", new ArrayList<>());
+            List<Question> questions = new ArrayList<>(questionsPerQuiz);
+            for (int q = 0; q < questionsPerQuiz; q++) {
+                questions.add(new Question("Question " + q + " of lesson " + l,
+                        List.of("Option A", "Option B", "Option C", "Option D"), correctOption(c, l, q)));
+            }
+            lesson.setQuiz(new Quiz(questions, PASSING_PERCENTAGE, 0));
+            course.addLesson(lesson);
+        }
+        int[] list = enrolled[c];
+        for (int i = 0; i < enrolledCount[c]; i++) {
+            course.getStudents().add(String.valueOf(list[i]));
+        }
+        enrolled[c] = null; // written; free it for the remaining courses
+        return course;
+    }
+
+    // ===================================================================
+    // COMMAND LINE
+    // ===================================================================
+
+    public static void main(String[] args) throws IOException {
+        DatasetGenerator gen = new DatasetGenerator();
+        Path out = null;
+        for (int i = 0; i < args.length; i++) {
+            String value = i + 1 < args.length ? args[i + 1] : null;
+            switch (args[i]) {
+                case "--out" -> out = Path.of(value);
+                case "--students" -> gen.students = Integer.parseInt(value);
+                case "--instructors" -> gen.instructors = Integer.parseInt(value);
+                case "--courses" -> gen.courses = Integer.parseInt(value);
+                case "--lessons" -> gen.lessonsPerCourse = Integer.parseInt(value);
+                case "--questions" -> gen.questionsPerQuiz = Integer.parseInt(value);
+                case "--enrollments" -> gen.enrollmentsPerStudent = Integer.parseInt(value);
+                case "--attempts" -> gen.attemptsPerStudent = Integer.parseInt(value);
+                case "--zipf" -> gen.zipfExponent = Double.parseDouble(value);
+                case "--pending" -> gen.pendingRatio = Double.parseDouble(value);
+                case "--seed" -> gen.seed = Long.parseLong(value);
+                default -> {
+                    System.err.println("Unknown option: " + args[i]);
+                    System.exit(2);
+                }
+            }
+            i++;
+        }
+        if (out == null) {
+            System.err.println("Usage: DatasetGenerator --out <folder> [--students N] [--instructors N] [--courses N]"
+                    + " [--lessons N] [--questions N] [--enrollments N] [--attempts N] [--zipf S] [--pending R] [--seed N]");
+            System.exit(2);
+        }
+        long start = System.nanoTime();
+        gen.generate(out);
+        long bytes = Files.size(out.resolve("users.json"))
+                + Files.size(out.resolve("courses.json"));
+        System.out.printf("Wrote %d students, %d instructors, %d courses to %s (%,d bytes) in %d ms%n",
+                gen.students, gen.instructors, gen.courses, out, bytes,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+}
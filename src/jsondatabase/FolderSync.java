@@ -0,0 +1,170 @@
+package jsondatabase;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Coordinates every SkillForge process that opens the same data folder.
+ *
+ * store.lock is locked with a FileChannel lock: shared while a process reads the
+ * files into its cache, exclusive while it commits or checkpoints. store.seq is a
+ * small memory-mapped file holding two counters that every process sees at once:
+ * the commit sequence (bumped by every commit) and the checkpoint epoch (bumped each
+ * time the journal is emptied). Comparing them with the values a process last saw
+ * is a single memory read, so caches are only revalidated after another process
+ * actually wrote something.
+ *
+ * store.seq also keeps a CRC of the users.json / courses.json content last written
+ * by any process, so the folder watcher can tell a hand edit from a checkpoint,
+ * and the size and modification time the file had then, so that it only needs to
+ * read the file back when one of them differs.
+ */
+final class FolderSync implements Closeable {
+
+    private static final VarHandle LONGS =
+            MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+    private static final int COMMIT_SEQ = 0;
+    private static final int EPOCH = 8;
+    private static final int USERS_CRC = 16;
+    private static final int COURSES_CRC = 24;
+    private static final int USERS_SIZE = 32;
+    private static final int USERS_MODIFIED = 40;
+    private static final int COURSES_SIZE = 48;
+    private static final int COURSES_MODIFIED = 56;
+
+    private final FileChannel lockChannel;
+    private final FileChannel seqChannel;
+    private final MappedByteBuffer seq;
+
+    // A FileLock belongs to the whole JVM, so threads of this process take turns first
+    private final ReentrantLock processLock = new ReentrantLock();
+    private FileLock fileLock;
+
+    FolderSync(Path folder) throws IOException {
+        lockChannel = FileChannel.open(folder.resolve("store.lock"),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        seqChannel = FileChannel.open(folder.resolve("store.seq"),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        seq = seqChannel.map(FileChannel.MapMode.READ_WRITE, 0, 64);
+    }
+
+    /** Locks the folder for writing (commits, checkpoints). */
+    void lockExclusive() {
+        lock(false);
+    }
+
+    /** Locks the folder for reading the files; other processes may read too, but not write. */
+    void lockShared() {
+        lock(true);
+    }
+
+    private void lock(boolean shared) {
+        processLock.lock();
+        if (processLock.getHoldCount() > 1) {
+            // Nested call on a thread that already holds the folder
+            if (!shared && fileLock.isShared()) {
+                processLock.unlock();
+                throw new IllegalStateException("Cannot upgrade a shared folder lock.");
+            }
+            return;
+        }
+        try {
+            fileLock = lockChannel.lock(0, Long.MAX_VALUE, shared);
+        } catch (IOException e) {
+            processLock.unlock();
+            throw new IllegalStateException("Could not lock data folder: " + e.getMessage(), e);
+        }
+    }
+
+    void unlock() {
+        if (processLock.getHoldCount() == 1) {
+            try {
+                fileLock.release();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            fileLock = null;
+        }
+        processLock.unlock();
+    }
+
+    boolean isHeldByCurrentThread() {
+        return processLock.isHeldByCurrentThread();
+    }
+
+    long commitSeq() {
+        return (long) LONGS.getVolatile(seq, COMMIT_SEQ);
+    }
+
+    long epoch() {
+        return (long) LONGS.getVolatile(seq, EPOCH);
+    }
+
+    /** Bumps the commit sequence; caller holds the exclusive lock. */
+    long nextCommitSeq() {
+        long next = commitSeq() + 1;
+        LONGS.setVolatile(seq, COMMIT_SEQ, next);
+        return next;
+    }
+
+    /** Bumps the checkpoint epoch; caller holds the exclusive lock. */
+    long nextEpoch() {
+        long next = epoch() + 1;
+        LONGS.setVolatile(seq, EPOCH, next);
+        return next;
+    }
+
+    long usersCrc() {
+        return (long) LONGS.getVolatile(seq, USERS_CRC);
+    }
+
+    long coursesCrc() {
+        return (long) LONGS.getVolatile(seq, COURSES_CRC);
+    }
+
+    /** Records the CRC of the users.json a store just wrote or loaded. */
+    void setUsersCrc(long crc) {
+        LONGS.setVolatile(seq, USERS_CRC, crc);
+    }
+
+    void setCoursesCrc(long crc) {
+        LONGS.setVolatile(seq, COURSES_CRC, crc);
+    }
+
+    /** Whether users.json still has the size and modification time (ns) recorded with its CRC. */
+    boolean usersStampIs(long size, long modified) {
+        return (long) LONGS.getVolatile(seq, USERS_SIZE) == size
+                && (long) LONGS.getVolatile(seq, USERS_MODIFIED) == modified;
+    }
+
+    boolean coursesStampIs(long size, long modified) {
+        return (long) LONGS.getVolatile(seq, COURSES_SIZE) == size
+                && (long) LONGS.getVolatile(seq, COURSES_MODIFIED) == modified;
+    }
+
+    /** Records the size and modification time of the users.json whose CRC was just recorded. */
+    void setUsersStamp(long size, long modified) {
+        LONGS.setVolatile(seq, USERS_SIZE, size);
+        LONGS.setVolatile(seq, USERS_MODIFIED, modified);
+    }
+
+    void setCoursesStamp(long size, long modified) {
+        LONGS.setVolatile(seq, COURSES_SIZE, size);
+        LONGS.setVolatile(seq, COURSES_MODIFIED, modified);
+    }
+
+    @Override
+    public void close() throws IOException {
+        lockChannel.close();
+        seqChannel.close();
+    }
+}
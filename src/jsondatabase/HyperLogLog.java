@@ -0,0 +1,61 @@
+package jsondatabase;
+
+/**
+ * A HyperLogLog sketch: counts distinct values approximately in a fixed
+ * {@value #REGISTERS} bytes, whatever the number of values. Two sketches merge
+ * into the sketch of their union by keeping the larger of each register, so
+ * per-day sketches add up to a week without double-counting anyone.
+ * The typical error is about 1.04 / sqrt(512), under 5%.
+ *
+ * Not thread-safe; the store guards each one.
+ */
+public final class HyperLogLog {
+
+    private static final int P = 9;
+    public static final int REGISTERS = 1 << P;
+    private static final double ALPHA = 0.7213 / (1 + 1.079 / REGISTERS);
+
+    private final byte[] registers = new byte[REGISTERS];
+
+    /** Adds a value (a student id); adding the same value again changes nothing. */
+    public void add(long value) {
+        long h = mix(value);
+        int index = (int) (h >>> (64 - P));
+        int rank = Math.min(Long.numberOfLeadingZeros(h << P), 64 - P) + 1;
+        if (rank > registers[index]) registers[index] = (byte) rank;
+    }
+
+    /** Makes this sketch count everything the other one counted as well. */
+    public void merge(HyperLogLog other) {
+        for (int i = 0; i < REGISTERS; i++) {
+            if (other.registers[i] > registers[i]) registers[i] = other.registers[i];
+        }
+    }
+
+    /** Estimated number of distinct values added. */
+    public long estimate() {
+        double sum = 0;
+        int zeros = 0;
+        for (byte r : registers) {
+            sum += 1.0 / (1L << r);
+            if (r == 0) zeros++;
+        }
+        double estimate = ALPHA * REGISTERS * REGISTERS / sum;
+        if (estimate <= 2.5 * REGISTERS && zeros > 0) {
+            // Few values: count the empty registers instead (linear counting)
+            estimate = REGISTERS * Math.log((double) REGISTERS / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    void clear() {
+        java.util.Arrays.fill(registers, (byte) 0);
+    }
+
+    /** SplitMix64's finalizer, so consecutive ids land in unrelated registers. */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
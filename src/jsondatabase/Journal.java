@@ -0,0 +1,129 @@
+package jsondatabase;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Append-only log of committed transactions (one JSON object per line).
+ *
+ * A commit is durable once its line is appended and forced to disk (concurrent
+ * commits share one fsync, see {@link #force}); users.json and courses.json are
+ * brought up to date later by a checkpoint, which then empties the log.
+ */
+final class Journal implements Closeable {
+
+    private final FileChannel channel;
+
+    Journal(Path file) throws IOException {
+        this.channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    // Group commit: records are numbered as they are written, and one force covers every record before it
+    private final Object forceLock = new Object();
+    private volatile long written;
+    private volatile long forced;
+    private long forces;
+
+    /**
+     * Appends one record without forcing it; pass the returned number to {@link #force}
+     * before acknowledging the commit. Writes at the current end of file, which other
+     * processes may have moved, so callers hold the folder's exclusive lock.
+     */
+    synchronized long append(JSONObject record) throws IOException {
+        ByteBuffer buf = ByteBuffer.wrap((record.toString() + "\n").getBytes(StandardCharsets.UTF_8));
+        long pos = channel.size();
+        while (buf.hasRemaining()) {
+            pos += channel.write(buf, pos);
+        }
+        return ++written;
+    }
+
+    /**
+     * Returns once record {@code n} is on disk. Commits arriving while a force is
+     * running wait for it to finish, then the first of them forces once for all of
+     * them, so a burst of commits costs one fsync per batch rather than one each.
+     * Needs no folder lock.
+     */
+    void force(long n) throws IOException {
+        if (forced >= n) return;
+        synchronized (forceLock) {
+            if (forced >= n) return; // the previous batch's force covered it
+            long upTo = written;
+            channel.force(false);
+            forced = upTo;
+            forces++;
+        }
+    }
+
+    /** How many times {@link #force} went to disk, to compare with the records appended. */
+    long forces() {
+        synchronized (forceLock) {
+            return forces;
+        }
+    }
+
+    synchronized long size() throws IOException {
+        return channel.size();
+    }
+
+    /** Empties the log; only called once the JSON files contain everything in it. */
+    synchronized void truncate() throws IOException {
+        channel.truncate(0);
+        channel.force(true);
+    }
+
+    /**
+     * Reads the complete records that start at {@code offset} (other processes may
+     * have appended since we last looked) and returns the offset just past them.
+     * A torn last line (crash during append) is left out, since its commit was never
+     * acknowledged.
+     */
+    synchronized long readFrom(long offset, List<JSONObject> out) throws IOException {
+        long size = channel.size();
+        if (offset >= size) return size;
+
+        ByteBuffer buf = ByteBuffer.allocate(Math.toIntExact(size - offset));
+        while (buf.hasRemaining()) {
+            if (channel.read(buf, offset + buf.position()) < 0) break;
+        }
+        byte[] bytes = buf.array();
+        int lineStart = 0;
+        for (int i = 0; i < buf.position(); i++) {
+            if (bytes[i] != '\n') continue;
+            String line = new String(bytes, lineStart, i - lineStart, StandardCharsets.UTF_8);
+            if (!line.isBlank()) {
+                try {
+                    out.add(new JSONObject(line));
+                } catch (JSONException e) {
+                    System.err.println("Ignoring incomplete journal record.");
+                    break;
+                }
+            }
+            lineStart = i + 1;
+        }
+        return offset + lineStart;
+    }
+
+    /** Cuts off a torn last record so the next append starts on a clean line. */
+    synchronized void truncateTo(long validLength) throws IOException {
+        if (validLength < channel.size()) {
+            channel.truncate(validLength);
+            channel.force(true);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+}
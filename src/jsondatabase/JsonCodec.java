@@ -0,0 +1,418 @@
+package jsondatabase;
+
+import models.*;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Converts users and courses to and from the JSON layout of users.json / courses.json.
+ */
+final class JsonCodec {
+
+    private JsonCodec() {
+    }
+
+    // ===================================================================
+    // USERS
+    // ===================================================================
+
+    static User parseUser(JSONObject obj) {
+        String role = obj.optString("role", "STUDENT");
+        int userId = obj.optInt("userId", -1);
+        String username = obj.optString("username", "");
+        String email = obj.optString("email", "");
+        String passwordHash = obj.optString("passwordHash", "");
+
+        User user;
+        if (role.equalsIgnoreCase("STUDENT")) {
+
+            // --- FIX 1: Key name must match saveUsers ("enrolledCourseIds") ---
+            List<String> enrolled = new ArrayList<>();
+            JSONArray enrolledArr = obj.optJSONArray("enrolledCourseIds");
+            if (enrolledArr != null) {
+                for (int j = 0; j < enrolledArr.length(); j++) {
+                    enrolled.add(enrolledArr.getString(j));
+                }
+            }
+
+            List<String> completed = new ArrayList<>();
+            JSONArray completedArr = obj.optJSONArray("completedLessonIds");
+            if (completedArr != null) {
+                for (int j = 0; j < completedArr.length(); j++) {
+                    completed.add(completedArr.getString(j));
+                }
+            }
+
+            // Create Student
+            Student s = new Student(enrolled, completed, userId, username, email, passwordHash, "STUDENT", true);
+
+            // Load Quiz Attempts
+            JSONArray attemptsArr = obj.optJSONArray("quizAttempts");
+            if (attemptsArr != null) {
+                for (int j = 0; j < attemptsArr.length(); j++) {
+                    JSONObject qaObj = attemptsArr.getJSONObject(j);
+                    String lessonId = qaObj.getString("lessonId");
+
+                    QuizAttempt attempt = new QuizAttempt(
+                            lessonId,
+                            qaObj.optLong("timestamp"),
+                            qaObj.optInt("score"),
+                            qaObj.optInt("correctCount"),
+                            qaObj.optInt("totalQuestions")
+                    );
+                    String answers = qaObj.optString("answers", null);
+                    if (answers != null) attempt.setPackedAnswers(PackedAnswers.decode(answers));
+                    s.addQuizAttempt(lessonId, attempt);
+                }
+            }
+
+            // Load Certificates
+            JSONArray certArr = obj.optJSONArray("certificates");
+            if (certArr != null) {
+                for (int j = 0; j < certArr.length(); j++) {
+                    JSONObject cObj = certArr.getJSONObject(j);
+                    Certificate cert = new Certificate(
+                            cObj.optString("certificateId"),
+                            cObj.optInt("studentId"),
+                            cObj.optString("courseId"),
+                            cObj.optString("issueDate")
+                    );
+                    s.addCertificate(cert);
+                }
+            }
+            user = s;
+
+        } else if (role.equalsIgnoreCase("INSTRUCTOR")) {
+            user = new Instructor(userId, username, email, passwordHash, true);
+        } else if (role.equalsIgnoreCase("ADMIN")) {
+            user = new Admin(userId, username, email, passwordHash, true);
+        } else {
+            return null;
+        }
+        user.setVersion(obj.optLong("version", 0));
+        return user;
+    }
+
+    static JSONObject toJson(User u) {
+        JSONObject obj = new JSONObject();
+
+        obj.put("userId", u.getUserId());
+        obj.put("username", u.getUsername());
+        obj.put("email", u.getEmail());
+        obj.put("passwordHash", u.getPasswordHash());
+        obj.put("role", u.getRole());
+        obj.put("version", u.getVersion());
+
+        if (u instanceof Student s) {
+            // FIX 1: Standardized key name
+            obj.put("enrolledCourseIds", new JSONArray(s.getEnrolledCourseIds()));
+            obj.put("completedLessonIds", new JSONArray(s.getCompletedLessonIds()));
+
+            // Save Certificates
+            JSONArray certArr = new JSONArray();
+            for (Certificate c : s.getCertificates()) {
+                JSONObject cObj = new JSONObject();
+                cObj.put("certificateId", c.getCertificateId());
+                cObj.put("studentId", c.getStudentId());
+                cObj.put("courseId", c.getCourseId());
+                cObj.put("issueDate", c.getIssueDate());
+                certArr.put(cObj);
+            }
+            obj.put("certificates", certArr);
+
+            // Save Quiz Attempts
+            JSONArray attemptsArr = new JSONArray();
+            for (String lessonId : s.getQuizAttemptsByLesson().keySet()) {
+                for (QuizAttempt a : s.getQuizAttemptsByLesson().get(lessonId)) {
+                    JSONObject qa = new JSONObject();
+                    qa.put("lessonId", lessonId);
+                    qa.put("timestamp", a.getTimestamp());
+                    qa.put("score", a.getScore());
+                    qa.put("correctCount", a.getCorrectCount());
+                    qa.put("totalQuestions", a.getTotalQuestions());
+                    if (a.hasAnswers()) qa.put("answers", PackedAnswers.encode(a.getPackedAnswers()));
+                    attemptsArr.put(qa);
+                }
+            }
+            obj.put("quizAttempts", attemptsArr);
+        }
+        return obj;
+    }
+
+    // ===================================================================
+    // COURSES
+    // ===================================================================
+
+    static Course parseCourse(JSONObject obj) {
+        Course c = new Course(
+                obj.optString("courseId"),
+                obj.optString("title"),
+                obj.optString("description"),
+                obj.optString("instructorId"),
+                obj.optString("status", "PENDING")
+        );
+        c.setVersion(obj.optLong("version", 0));
+
+        // Load Students
+        JSONArray sArr = obj.optJSONArray("students");
+        if (sArr != null)
+            for (int j = 0; j < sArr.length(); j++)
+                c.getStudents().add(sArr.getString(j));
+
+        // Load Lessons & Quizzes
+        JSONArray lessonsArr = obj.optJSONArray("lessons");
+        if (lessonsArr != null) {
+            for (int j = 0; j < lessonsArr.length(); j++) {
+                JSONObject lObj = lessonsArr.getJSONObject(j);
+                Lesson l = new Lesson(
+                    lObj.optString("lessonId"),
+                    lObj.optString("title"),
+                    lObj.optString("content"),
+                    new ArrayList<>()
+                );
+
+                // Quiz Loading
+                if (lObj.has("quiz")) {
+                    JSONObject qObj = lObj.getJSONObject("quiz");
+                    Quiz quiz = new Quiz();
+                    quiz.setPassingPercentage(qObj.optInt("passingPercentage", 60));
+                    quiz.setMaxAttempts(qObj.optInt("maxAttempts", 0));
+
+                    List<Question> questions = new ArrayList<>();
+                    JSONArray qArr = qObj.optJSONArray("questions");
+                    if (qArr != null) {
+                        for (int k = 0; k < qArr.length(); k++) {
+                            JSONObject qItem = qArr.getJSONObject(k);
+                            List<String> opts = new ArrayList<>();
+                            JSONArray optArr = qItem.getJSONArray("options");
+                            for(int m=0; m<optArr.length(); m++) opts.add(optArr.getString(m));
+
+                            questions.add(new Question(
+                                    qItem.getString("questionText"),
+                                    opts,
+                                    qItem.getInt("correctOptionIndex")
+                            ));
+                        }
+                    }
+                    quiz.setQuestions(questions);
+                    l.setQuiz(quiz);
+                }
+                c.getLessons().add(l);
+            }
+        }
+        return c;
+    }
+
+    static JSONObject toJson(Course c) {
+        JSONObject obj = new JSONObject();
+        obj.put("courseId", c.getCourseId());
+        obj.put("title", c.getTitle());
+        obj.put("description", c.getDescription());
+        obj.put("instructorId", c.getInstructorId());
+        obj.put("status", c.getStatus());
+        obj.put("version", c.getVersion());
+        obj.put("students", new JSONArray(c.getStudents()));
+
+        JSONArray lessonsArr = new JSONArray();
+        for (Lesson l : c.getLessons()) {
+            JSONObject lObj = new JSONObject();
+            lObj.put("lessonId", l.getLessonId());
+            lObj.put("title", l.getTitle());
+            lObj.put("content", l.getContent());
+
+            if (l.getQuiz() != null) {
+                Quiz q = l.getQuiz();
+                JSONObject qObj = new JSONObject();
+                qObj.put("passingPercentage", q.getPassingPercentage());
+                qObj.put("maxAttempts", q.getMaxAttempts());
+
+                JSONArray qArr = new JSONArray();
+                for (Question qs : q.getQuestions()) {
+                    JSONObject qItem = new JSONObject();
+                    qItem.put("questionText", qs.getQuestionText());
+                    qItem.put("options", new JSONArray(qs.getOptions()));
+                    qItem.put("correctOptionIndex", qs.getCorrectOptionIndex());
+                    qArr.put(qItem);
+                }
+                qObj.put("questions", qArr);
+                lObj.put("quiz", qObj);
+            }
+            lessonsArr.put(lObj);
+        }
+        obj.put("lessons", lessonsArr);
+        return obj;
+    }
+
+    // ===================================================================
+    // FILES
+    // ===================================================================
+
+    /** Reads users.json one record at a time, so only the parsed users are held in memory. */
+    static List<User> readUsers(Path file) throws IOException {
+        List<User> users = new ArrayList<>();
+        try (Reader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            readArray(in, obj -> {
+                try {
+                    User u = parseUser(obj);
+                    if (u != null) users.add(u);
+                } catch (RuntimeException e) {
+                    // One malformed record must not hide every other user
+                    System.err.println("Skipping invalid user record: " + e.getMessage());
+                }
+            });
+        }
+        return users;
+    }
+
+    static List<Course> readCourses(Path file) throws IOException {
+        List<Course> courses = new ArrayList<>();
+        try (Reader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            readArray(in, obj -> {
+                try {
+                    courses.add(parseCourse(obj));
+                } catch (RuntimeException e) {
+                    System.err.println("Skipping invalid course record: " + e.getMessage());
+                }
+            });
+        }
+        return courses;
+    }
+
+    /**
+     * Writes the users, one compact line each (attempts make up most of the file, and
+     * indenting them nearly doubles their size), and returns the CRC of the bytes written.
+     */
+    static long writeUsers(Path file, Collection<? extends User> users) throws IOException {
+        try (ArrayWriter out = new ArrayWriter(file, 0)) {
+            for (User u : users) out.add(toJson(u));
+            return out.commit();
+        }
+    }
+
+    /** Writes the courses indented, since admins edit them by hand, and returns the CRC. */
+    static long writeCourses(Path file, Collection<Course> courses) throws IOException {
+        try (ArrayWriter out = new ArrayWriter(file, 4)) {
+            for (Course c : courses) out.add(toJson(c));
+            return out.commit();
+        }
+    }
+
+    /** CRC of a file's content, read in chunks. */
+    static long crc(Path file) throws IOException {
+        CRC32 crc = new CRC32();
+        try (InputStream in = Files.newInputStream(file)) {
+            byte[] buf = new byte[64 * 1024];
+            int n;
+            while ((n = in.read(buf)) > 0) {
+                crc.update(buf, 0, n);
+            }
+        }
+        return crc.getValue();
+    }
+
+    /** Parses a top-level JSON array of objects, handing over each object as soon as it is read. */
+    private static void readArray(Reader in, Consumer<JSONObject> each) {
+        JSONTokener t = new JSONTokener(in);
+        char c = t.nextClean();
+        if (c == 0) return; // empty file
+        if (c != '[') throw t.syntaxError("A JSON array text must start with '['");
+        if (t.nextClean() == ']') return;
+        t.back();
+        while (true) {
+            Object value = t.nextValue();
+            if (!(value instanceof JSONObject obj)) throw t.syntaxError("Expected a JSON object");
+            each.accept(obj);
+            c = t.nextClean();
+            if (c == ']') return;
+            if (c != ',') throw t.syntaxError("Expected ',' or ']'");
+        }
+    }
+
+    /**
+     * Writes a JSON array one record at a time to a temp file; {@link #commit()}
+     * forces it to disk, renames it over the target and forces the folder, so a crash
+     * leaves either the old file or the new one, and once commit returns the rename
+     * itself is on disk (the journal is only emptied after that).
+     * Memory use does not grow with the file, so it also serves the dataset generator.
+     */
+    static final class ArrayWriter implements Closeable {
+
+        private final Path file;
+        private final Path tmp;
+        private final FileOutputStream fileOut;
+        private final CheckedOutputStream checked;
+        private final Writer out;
+        private final int indent;
+        private boolean first = true;
+        private boolean committed;
+
+        /** {@code indent} 0 writes each record on one line. */
+        ArrayWriter(Path file, int indent) throws IOException {
+            this.file = file;
+            this.indent = indent;
+            this.tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            this.fileOut = new FileOutputStream(tmp.toFile());
+            this.checked = new CheckedOutputStream(new BufferedOutputStream(fileOut, 256 * 1024), new CRC32());
+            this.out = new OutputStreamWriter(checked, StandardCharsets.UTF_8);
+            out.write("[");
+        }
+
+        void add(JSONObject record) throws IOException {
+            out.write(first ? System.lineSeparator() : "," + System.lineSeparator());
+            first = false;
+            out.write(indent == 0 ? record.toString() : record.toString(indent));
+        }
+
+        /** Finishes the file and moves it into place; returns the CRC of its bytes. */
+        long commit() throws IOException {
+            out.write(System.lineSeparator() + "]" + System.lineSeparator());
+            out.flush();
+            fileOut.getChannel().force(true);
+            out.close();
+            try {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            forceDirectory(file.toAbsolutePath().getParent());
+            committed = true;
+            return checked.getChecksum().getValue();
+        }
+
+        /** Makes a rename in {@code dir} durable; the rename itself only changed the folder's entries. */
+        private static void forceDirectory(Path dir) throws IOException {
+            FileChannel channel;
+            try {
+                channel = FileChannel.open(dir, StandardOpenOption.READ);
+            } catch (IOException e) {
+                // Windows cannot open a folder as a file, so there is nothing more to force
+                return;
+            }
+            try (channel) {
+                channel.force(true);
+            }
+        }
+
+        /** Abandons the temp file unless {@link #commit()} succeeded. */
+        @Override
+        public void close() throws IOException {
+            if (committed) return;
+            out.close();
+            Files.deleteIfExists(tmp);
+        }
+    }
+}
@@ -1,214 +1,48 @@
 package jsondatabase;
 
 import models.*;
-import org.json.JSONArray;
-import org.json.JSONObject;
 
-import java.io.*;
-import java.nio.file.Files;
-import java.nio.file.Paths;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.Flow;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
-
+import java.util.stream.Stream;
+
+/**
+ * Entry point for all reads and writes of users and courses.
+ *
+ * Every instance shares the same {@link DataStore} for the data folder, so windows can
+ * keep creating their own manager while reads are served from one in-memory copy and
+ * concurrent writers are synchronized per record.
+ */
 public class JsonDatabaseManager {
 
     private static final String DATA_FOLDER = "data";
-    private static final String USERS_FILE = DATA_FOLDER + "/users.json";
-    private static final String COURSES_FILE = DATA_FOLDER + "/courses.json";
+
+    private final DataStore store;
 
     public JsonDatabaseManager() {
-        ensureDataFilesExist();
+        this(DATA_FOLDER);
     }
 
-    // ===================================================================
-    // Helpers: ensure data folder/files
-    // ===================================================================
-    
-    // -------------------------------------------------------------------
-    // Ensure folder and files exist
-    // -------------------------------------------------------------------
-    
-    private void ensureDataFilesExist() {
-        try {
-            File folder = new File(DATA_FOLDER);
-            if (!folder.exists()) {
-                folder.mkdirs();
-            }
-
-            File usersFile = new File(USERS_FILE);
-            if (!usersFile.exists()) {
-                usersFile.createNewFile();
-                try (PrintWriter pw = new PrintWriter(new FileWriter(usersFile))) {
-                    pw.println("[]");
-                }
-            }
-
-            File coursesFile = new File(COURSES_FILE);
-            if (!coursesFile.exists()) {
-                coursesFile.createNewFile();
-                try (PrintWriter pw = new PrintWriter(new FileWriter(coursesFile))) {
-                    pw.println("[]");
-                }
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+    /** A manager for another data folder (benchmarks, generated datasets). */
+    public JsonDatabaseManager(String dataFolder) {
+        this.store = DataStore.forFolder(dataFolder);
     }
 
     // ===================================================================
     // USERS — load
     // ===================================================================
     public List<User> loadUsers() {
-
-        ensureDataFilesExist();
-        List<User> users = new ArrayList<>();
-
-        try {
-            String json = new String(Files.readAllBytes(Paths.get(USERS_FILE)));
-            if (json.trim().isEmpty()) {
-                return users;
-            }
-
-            JSONArray arr = new JSONArray(json);
-
-            for (int i = 0; i < arr.length(); i++) {
-                JSONObject obj = arr.getJSONObject(i);
-                
-                String role = obj.optString("role", "STUDENT");
-                int userId = obj.optInt("userId", -1);
-                String username = obj.optString("username", "");
-                String email = obj.optString("email", "");
-                String passwordHash = obj.optString("passwordHash", "");
-
-                if (role.equalsIgnoreCase("STUDENT")) {
-                    
-                    // --- FIX 1: Key name must match saveUsers ("enrolledCourseIds") ---
-                    List<String> enrolled = new ArrayList<>();
-                    JSONArray enrolledArr = obj.optJSONArray("enrolledCourseIds"); 
-                    if (enrolledArr != null) {
-                        for (int j = 0; j < enrolledArr.length(); j++) {
-                            enrolled.add(enrolledArr.getString(j));
-                        }
-                    }
-
-                    List<String> completed = new ArrayList<>();
-                    JSONArray completedArr = obj.optJSONArray("completedLessonIds");
-                    if (completedArr != null) {
-                        for (int j = 0; j < completedArr.length(); j++) {
-                            completed.add(completedArr.getString(j));
-                        }
-                    }
-
-                    // Create Student
-                    Student s = new Student(enrolled, completed, userId, username, email, passwordHash, "STUDENT", true);
-
-                    // Load Quiz Attempts
-                    JSONArray attemptsArr = obj.optJSONArray("quizAttempts");
-                    if (attemptsArr != null) {
-                        for (int j = 0; j < attemptsArr.length(); j++) {
-                            JSONObject qaObj = attemptsArr.getJSONObject(j);
-                            String lessonId = qaObj.getString("lessonId");
-
-                            QuizAttempt attempt = new QuizAttempt(
-                                    lessonId,
-                                    qaObj.optLong("timestamp"),
-                                    qaObj.optInt("score"),
-                                    qaObj.optInt("correctCount"),
-                                    qaObj.optInt("totalQuestions")
-                            );
-                            s.addQuizAttempt(lessonId, attempt);
-                        }
-                    }
-
-                    // Load Certificates
-                    JSONArray certArr = obj.optJSONArray("certificates");
-                    if (certArr != null) {
-                        for (int j = 0; j < certArr.length(); j++) {
-                            JSONObject cObj = certArr.getJSONObject(j);
-                            Certificate cert = new Certificate(
-                                    cObj.optString("certificateId"),
-                                    cObj.optInt("studentId"),
-                                    cObj.optString("courseId"),
-                                    cObj.optString("issueDate")
-                            );
-                            s.addCertificate(cert);
-                        }
-                    }
-
-                    users.add(s);
-                    
-                } else if (role.equalsIgnoreCase("INSTRUCTOR")) {
-                    users.add(new Instructor(userId, username, email, passwordHash, true));
-                } else if (role.equalsIgnoreCase("ADMIN")) {
-                    users.add(new Admin(userId, username, email, passwordHash, true));
-                }
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-        return users;
+        return store.users();
     }
 
     // ===================================================================
     // USERS — save
     // ===================================================================
     public void saveUsers(List<User> users) {
-
-        ensureDataFilesExist();
-        JSONArray arr = new JSONArray();
-
-        for (User u : users) {
-            JSONObject obj = new JSONObject();
-
-            obj.put("userId", u.getUserId());
-            obj.put("username", u.getUsername());
-            obj.put("email", u.getEmail());
-            obj.put("passwordHash", u.getPasswordHash());
-            obj.put("role", u.getRole());
-
-            if (u instanceof Student s) {
-                // FIX 1: Standardized key name
-                obj.put("enrolledCourseIds", new JSONArray(s.getEnrolledCourseIds()));
-                obj.put("completedLessonIds", new JSONArray(s.getCompletedLessonIds()));
-
-                // Save Certificates
-                JSONArray certArr = new JSONArray();
-                for (Certificate c : s.getCertificates()) {
-                    JSONObject cObj = new JSONObject();
-                    cObj.put("certificateId", c.getCertificateId());
-                    cObj.put("studentId", c.getStudentId());
-                    cObj.put("courseId", c.getCourseId());
-                    cObj.put("issueDate", c.getIssueDate());
-                    certArr.put(cObj);
-                }
-                obj.put("certificates", certArr);
-
-                // Save Quiz Attempts
-                JSONArray attemptsArr = new JSONArray();
-                for (String lessonId : s.getQuizAttemptsByLesson().keySet()) {
-                    for (QuizAttempt a : s.getQuizAttemptsByLesson().get(lessonId)) {
-                        JSONObject qa = new JSONObject();
-                        qa.put("lessonId", lessonId);
-                        qa.put("timestamp", a.getTimestamp());
-                        qa.put("score", a.getScore());
-                        qa.put("correctCount", a.getCorrectCount());
-                        qa.put("totalQuestions", a.getTotalQuestions());
-                        attemptsArr.put(qa);
-                    }
-                }
-                obj.put("quizAttempts", attemptsArr);
-            }
-
-            // Add object to array
-            arr.put(obj);
-        }
-
-        // Write file ONCE after loop
-        try (PrintWriter pw = new PrintWriter(new FileWriter(USERS_FILE))) {
-            pw.println(arr.toString(4));
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        store.replaceAllUsers(users);
     }
 
     // ===================================================================
@@ -219,269 +53,288 @@ public class JsonDatabaseManager {
      * Records an attempt AND marks lesson as completed if passed.
      */
     public void recordQuizAttempt(int studentId, String lessonId, QuizAttempt attempt, int passingPercentage) {
-        System.out.println("Recording attempt for Student: " + studentId + ", Lesson: " + lessonId);
-
-        List<User> users = loadUsers(); 
-        boolean found = false;
+        recordQuizAttempt(studentId, lessonId, attempt, passingPercentage, 0);
+    }
 
-        for (User u : users) {
-            if (u instanceof Student s && s.getUserId() == studentId) {
-                // 1. Add the attempt
-                s.addQuizAttempt(lessonId, attempt);
-                
-                // 2. FIX 2: Check Pass Condition & Update Completion
-                if (attempt.getScore() >= passingPercentage) {
-                    if (!s.hasCompletedLesson(lessonId)) {
-                        s.markLessonCompleted(lessonId);
-                        System.out.println("Lesson " + lessonId + " marked as COMPLETED.");
-                    }
-                }
-                
-                found = true;
-                break;
+    /**
+     * Records an attempt only if the student has attempts left ({@code maxAttempts} 0 = unlimited).
+     * The count is checked and the attempt added under the student's lock, so two
+     * submissions at once (a double click, two windows) cannot both take the last attempt.
+     *
+     * @return false if no attempts were left (or the student does not exist); nothing is saved
+     */
+    public boolean recordQuizAttempt(int studentId, String lessonId, QuizAttempt attempt, int passingPercentage, int maxAttempts) {
+        boolean[] added = {false};
+        // Applied to the stored student under its lock, so a concurrent enrollment is not lost
+        UpdateResult<User> result = updateUser(studentId, u -> {
+            added[0] = false; // the change is applied again if another process saved the student first
+            if (!(u instanceof Student s)) return;
+            if (maxAttempts > 0 && s.getAttemptsForLesson(lessonId).size() >= maxAttempts) return;
+            // 1. Add the attempt
+            s.addQuizAttempt(lessonId, attempt);
+            added[0] = true;
+
+            // 2. FIX 2: Check Pass Condition & Update Completion
+            if (attempt.getScore() >= passingPercentage && !s.hasCompletedLesson(lessonId)) {
+                s.markLessonCompleted(lessonId);
             }
-        }
+        });
 
-        if (found) {
-            saveUsers(users); // Save changes (Attempts + Completion status)
-            System.out.println("Database updated successfully.");
-        } else {
+        if (!result.isUpdated()) {
             System.err.println("Student not found! Quiz result NOT saved.");
+            return false;
         }
+        return added[0];
     }
 
     // ===================================================================
-    // COURSES — load (No changes needed here, kept standard)
+    // COURSES — load / save
     // ===================================================================
     public List<Course> loadCourses() {
-        ensureDataFilesExist();
-        List<Course> courses = new ArrayList<>();
-        try {
-            String json = new String(Files.readAllBytes(Paths.get(COURSES_FILE)));
-            if (json.trim().isEmpty()) return courses;
-
-            JSONArray arr = new JSONArray(json);
-            for (int i = 0; i < arr.length(); i++) {
-                JSONObject obj = arr.getJSONObject(i);
-                Course c = new Course(
-                        obj.optString("courseId"),
-                        obj.optString("title"),
-                        obj.optString("description"),
-                        obj.optString("instructorId"),
-                        obj.optString("status", "PENDING")
-                );
-
-                // Load Students
-                JSONArray sArr = obj.optJSONArray("students");
-                if (sArr != null)
-                    for (int j = 0; j < sArr.length(); j++)
-                        c.getStudents().add(sArr.getString(j));
-
-                // Load Lessons & Quizzes
-                JSONArray lessonsArr = obj.optJSONArray("lessons");
-                if (lessonsArr != null) {
-                    for (int j = 0; j < lessonsArr.length(); j++) {
-                        JSONObject lObj = lessonsArr.getJSONObject(j);
-                        Lesson l = new Lesson(
-                            lObj.optString("lessonId"),
-                            lObj.optString("title"),
-                            lObj.optString("content"),
-                            new ArrayList<>()
-                        );
-
-                        // Quiz Loading
-                        if (lObj.has("quiz")) {
-                            JSONObject qObj = lObj.getJSONObject("quiz");
-                            Quiz quiz = new Quiz();
-                            quiz.setPassingPercentage(qObj.optInt("passingPercentage", 60));
-                            quiz.setMaxAttempts(qObj.optInt("maxAttempts", 0));
-
-                            List<Question> questions = new ArrayList<>();
-                            JSONArray qArr = qObj.optJSONArray("questions");
-                            if (qArr != null) {
-                                for (int k = 0; k < qArr.length(); k++) {
-                                    JSONObject qItem = qArr.getJSONObject(k);
-                                    List<String> opts = new ArrayList<>();
-                                    JSONArray optArr = qItem.getJSONArray("options");
-                                    for(int m=0; m<optArr.length(); m++) opts.add(optArr.getString(m));
-                                    
-                                    questions.add(new Question(
-                                            qItem.getString("questionText"),
-                                            opts,
-                                            qItem.getInt("correctOptionIndex")
-                                    ));
-                                }
-                            }
-                            quiz.setQuestions(questions);
-                            l.setQuiz(quiz);
-                        }
-                        c.getLessons().add(l);
-                    }
-                }
-                courses.add(c);
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-        return courses;
+        return store.courses();
     }
 
     public void saveCourses(List<Course> courses) {
-        ensureDataFilesExist();
-        JSONArray arr = new JSONArray();
-        for (Course c : courses) {
-            JSONObject obj = new JSONObject();
-            obj.put("courseId", c.getCourseId());
-            obj.put("title", c.getTitle());
-            obj.put("description", c.getDescription());
-            obj.put("instructorId", c.getInstructorId());
-            obj.put("status", c.getStatus());
-            obj.put("students", new JSONArray(c.getStudents()));
-
-            JSONArray lessonsArr = new JSONArray();
-            for (Lesson l : c.getLessons()) {
-                JSONObject lObj = new JSONObject();
-                lObj.put("lessonId", l.getLessonId());
-                lObj.put("title", l.getTitle());
-                lObj.put("content", l.getContent());
-                
-                if (l.getQuiz() != null) {
-                    Quiz q = l.getQuiz();
-                    JSONObject qObj = new JSONObject();
-                    qObj.put("passingPercentage", q.getPassingPercentage());
-                    qObj.put("maxAttempts", q.getMaxAttempts());
-                    
-                    JSONArray qArr = new JSONArray();
-                    for (Question qs : q.getQuestions()) {
-                        JSONObject qItem = new JSONObject();
-                        qItem.put("questionText", qs.getQuestionText());
-                        qItem.put("options", new JSONArray(qs.getOptions()));
-                        qItem.put("correctOptionIndex", qs.getCorrectOptionIndex());
-                        qArr.put(qItem);
-                    }
-                    qObj.put("questions", qArr);
-                    lObj.put("quiz", qObj);
-                }
-                lessonsArr.put(lObj);
-            }
-            obj.put("lessons", lessonsArr);
-            arr.put(obj);
-        }
-
-        try (PrintWriter pw = new PrintWriter(new FileWriter(COURSES_FILE))) {
-            pw.println(arr.toString(4));
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        store.replaceAllCourses(courses);
     }
     
     // CRUD Helpers
     public User getUserByEmail(String email) {
-        return loadUsers().stream().filter(u -> u.getEmail().equalsIgnoreCase(email)).findFirst().orElse(null);
+        for (User u : store.peekUsers()) {
+            if (u.getEmail().equalsIgnoreCase(email)) return u.copy();
+        }
+        return null;
+    }
+
+    /** Looked up in the store's username index (any case), not by scanning the users. */
+    public User getUserByUsername(String username) {
+        if (username == null) return null;
+        User u = store.peekUserByUsername(username);
+        return u == null ? null : u.copy();
+    }
+
+    public User getUserById(int userId) {
+        return store.user(userId);
     }
     
     public Course getCourseById(String courseId) {
-        return loadCourses().stream().filter(c -> c.getCourseId().equals(courseId)).findFirst().orElse(null);
+        return store.course(courseId);
     }
 
-    public void addCourse(Course c) {
-        List<Course> list = loadCourses();
-        list.add(c);
-        saveCourses(list);
+    /** Version of the stored course without copying it, or -1 if there is none. */
+    public long getCourseVersion(String courseId) {
+        Course c = store.peekCourse(courseId);
+        return c == null ? -1 : c.getVersion();
     }
 
-    public void updateCourse(Course updatedCourse) {
-    List<Course> courses = loadCourses(); // reload fresh list from JSON
-    boolean found = false;
+    public void addCourse(Course c) {
+        store.addCourse(c);
+    }
 
-    for (int i = 0; i < courses.size(); i++) {
-        if (courses.get(i).getCourseId().equals(updatedCourse.getCourseId())) {
-            courses.set(i, updatedCourse); // replace old course
-            found = true;
-            break;
+    /**
+     * Compare-and-set update: only succeeds if nobody saved the course since the
+     * caller read it (same version). On success the caller's object gets the new version.
+     */
+    public UpdateResult<Course> updateCourse(Course updatedCourse) {
+        UpdateResult<Course> result = store.updateCourse(updatedCourse);
+        if (result.getStatus() == UpdateResult.Status.NOT_FOUND) {
+            System.out.println("Course not found in DB!");
         }
+        return result;
     }
 
-    if (found) {
-        saveCourses(courses); // persist changes to JSON
-    } else {
-        System.out.println("Course not found in DB!");
+    /**
+     * Merge-style update: applies {@code change} to the stored course while holding
+     * its lock, so concurrent writers never overwrite each other.
+     */
+    public UpdateResult<Course> updateCourse(String courseId, Consumer<Course> change) {
+        return store.updateCourse(courseId, change);
     }
+
+    /**
+     * Saves an instructor's edit of a course's content (title, description, lessons).
+     * If the course changed underneath (e.g. a student enrolled), the edit is merged
+     * onto the stored copy instead of overwriting the student list or status.
+     */
+    public UpdateResult<Course> updateCourseContent(Course edited) {
+        UpdateResult<Course> result = updateCourse(edited);
+        if (result.isConflict()) {
+            result = updateCourse(edited.getCourseId(), c -> {
+                c.setTitle(edited.getTitle());
+                c.setDescription(edited.getDescription());
+                // Copies: the stored record must not share lessons or quizzes with the caller's edit
+                c.setLessons(edited.getLessons());
+            });
+            if (result.isUpdated()) {
+                edited.setStudents(result.getCurrent().getStudents());
+                edited.setStatus(result.getCurrent().getStatus());
+                edited.setVersion(result.getCurrent().getVersion());
+            }
+        }
+        return result;
     }
 
     public List<Course> getVisibleCoursesForStudents() {
-        return loadCourses().stream()
-                .filter(c -> c.getStatus().equalsIgnoreCase("APPROVED"))
-                .collect(Collectors.toList());
+        return store.coursesWithStatus(CourseStatus.APPROVED);
     }
 
-    public void approveCourse(String courseId) {
-        Course c = getCourseById(courseId);
-        if (c != null) {
-            c.setStatus("APPROVED");
-            updateCourse(c);
+    /**
+     * Up to {@code limit} approved courses the student is not in yet, best match first:
+     * the courses most often taken together with the student's own (item-to-item,
+     * from the co-enrollment counts), or the most enrolled ones for a student with no
+     * courses. Scoring reads only the rows of the student's courses.
+     */
+    public List<Course> getRecommendedCourses(int studentId, int limit) {
+        if (!(store.peekUser(studentId) instanceof Student s)) return List.of();
+        Set<String> mine = new HashSet<>(s.getEnrolledCourseIds());
+        List<String> top = store.coEnrollment().top(mine, limit, id -> {
+            Course c = store.peekCourse(id);
+            return c != null && !mine.contains(id) && CourseStatus.of(c.getStatus()) == CourseStatus.APPROVED;
+        });
+        List<Course> result = new ArrayList<>();
+        for (String id : top) {
+            Course c = store.course(id);
+            if (c != null) result.add(c);
         }
+        return result;
     }
 
-    public void rejectCourse(String courseId) {
-        Course c = getCourseById(courseId);
-        if (c != null) {
-            c.setStatus("REJECTED");
-            updateCourse(c);
+    /** Courses with the status (compared like the screens do: trimmed, any case), from the status index. */
+    public List<Course> getCoursesByStatus(String status) {
+        CourseStatus typed = CourseStatus.of(status);
+        List<Course> result = store.coursesWithStatus(typed);
+        if (typed == CourseStatus.OTHER) {
+            // Unknown statuses share one index entry
+            result.removeIf(c -> !status.trim().equalsIgnoreCase(String.valueOf(c.getStatus()).trim()));
         }
+        return result;
+    }
+
+    /** The instructor's courses, from the instructor index. */
+    public List<Course> getCoursesByInstructor(String instructorId) {
+        return store.coursesOfInstructor(instructorId);
+    }
+
+    public void approveCourse(String courseId) {
+        updateCourse(courseId, c -> c.setStatus("APPROVED"));
+    }
+
+    public void rejectCourse(String courseId) {
+        updateCourse(courseId, c -> c.setStatus("REJECTED"));
     }
 
     // ===================================================================
     // QUIZ SYSTEM
     // ===================================================================
     public void recordQuizAttempt(int studentId, String lessonId, QuizAttempt attempt) {
-
-        List<User> users = loadUsers();
-
-        for (User u : users) {
-            if (u instanceof Student s && s.getUserId() == studentId) {
+        updateUser(studentId, u -> {
+            if (u instanceof Student s) {
                 s.addQuizAttempt(lessonId, attempt);
-                saveUsers(users);
-                return;
             }
-        }
+        });
     }
     
     public void addUser(User user) {
-        List<User> users = loadUsers();
-        users.add(user);
-        saveUsers(users);
+        store.updateUser(user, u -> { });
+    }
+
+    /**
+     * Adds a new user, never replacing one: CONFLICT if the id or the username (any
+     * case) is taken, with the user in the way as {@link UpdateResult#getCurrent()}.
+     * Both are checked inside the commit, so two sign-ups at once cannot both succeed.
+     */
+    public UpdateResult<User> insertUser(User user) {
+        return store.insertUser(user, this::attachCertificates);
     }
     
-    public void updateUser(User updated) {
-    // 1) If this is a student, auto-attach certificates before saving
-    if (updated instanceof Student) {
-        ensureCertificatesForStudentInMemory((Student) updated);
-    }
-    List<User> list = loadUsers();
-    boolean found = false;
-
-    for (int i = 0; i < list.size(); i++) {
-        if (list.get(i).getUserId() == updated.getUserId()) {
-            list.set(i, updated);
-            found = true;
-            break;
+    /**
+     * Compare-and-set update: only succeeds if nobody saved the user since the
+     * caller read it (same version). Unknown users are added, as before.
+     * On success the caller's object gets the new version.
+     */
+    public UpdateResult<User> updateUser(User updated) {
+        // If this is a student, auto-attach certificates before saving
+        return store.updateUser(updated, this::attachCertificates);
+    }
+
+    /**
+     * Merge-style update: applies {@code change} to the stored user while holding
+     * its lock, so concurrent writers never overwrite each other.
+     */
+    public UpdateResult<User> updateUser(int userId, Consumer<User> change) {
+        return store.updateUser(userId, change.andThen(this::attachCertificates));
+    }
+
+    /**
+     * Starts a transaction over several users and courses; its commit is
+     * all-or-nothing and costs a single journal write.
+     */
+    public Transaction beginTransaction() {
+        return store.begin(this::attachCertificates);
+    }
+
+    /**
+     * Typed events for every saved change, from this window or anywhere else
+     * (other windows, other instances, hand-edited data files).
+     * Subscribers are called off the EDT and should cancel their subscription when done.
+     * Saves never wait for a slow subscriber: one whose buffer is full misses events
+     * and gets a DataReloaded when it catches up.
+     */
+    public Flow.Publisher<ChangeEvent> changes() {
+        return store.changes();
+    }
+
+    /** Live platform totals (users, courses, enrollments, attempts, certificates); reading them never locks. */
+    public PlatformCounters getCounters() {
+        return store.counters();
+    }
+
+    /**
+     * Writes everything to the files and closes the data folder's store, for tools
+     * done with a folder (benchmarks, tests). The store is shared: no manager of this
+     * folder may be used afterwards; a new manager opens the folder afresh.
+     */
+    public void close() {
+        store.close();
+    }
+
+    /** The data folder, normalized, e.g. to keep one cache per folder. */
+    public Path getDataFolder() {
+        return store.folder();
+    }
+
+    private void attachCertificates(User u) {
+        if (u instanceof Student s) {
+            ensureCertificatesForStudentInMemory(s);
         }
     }
 
-    if (!found) {
-        list.add(updated);
+    /**
+     * Every stored attempt at the quiz of the course's lesson, as copies: the stored
+     * attempts are shared by every reader. Only students for whom
+     * {@link #getCourseOfLesson} is this course are included. The stream may be made parallel.
+     */
+    public Stream<QuizAttempt> streamQuizAttempts(String courseId, String lessonId) {
+        return store.peekUsers().stream()
+                .filter(u -> u instanceof Student s && courseId.equals(store.courseOf(s, lessonId)))
+                .flatMap(u -> ((Student) u).getAttemptsForLesson(lessonId).stream())
+                .map(QuizAttempt::copy);
     }
 
-    saveUsers(list);
-}
+    /**
+     * The course a student's attempts at (or completion of) a lesson belong to: lesson
+     * ids repeat across courses, so it is the one enrolled course that has the lesson,
+     * or null if none or more than one of the student's courses do.
+     */
+    public String getCourseOfLesson(Student student, String lessonId) {
+        return store.courseOf(student, lessonId);
+    }
 
     public double getLessonAverageScore(String lessonId) {
-        List<User> users = loadUsers();
         double totalScore = 0;
         int studentCount = 0;
 
-        for (User u : users) {
+        for (User u : store.peekUsers()) {
             if (u instanceof Student s) {
                 List<QuizAttempt> attempts = s.getAttemptsForLesson(lessonId);
                 if (attempts != null && !attempts.isEmpty()) {
@@ -498,16 +351,70 @@ public class JsonDatabaseManager {
 
         return studentCount == 0 ? 0.0 : totalScore / studentCount;
     }
+    /**
+     * Distribution of the students' best scores on the quiz of the course's lesson (kept
+     * up to date on every save). Lesson ids repeat across courses: a student counts for
+     * the one enrolled course that has the lesson, and not at all if two of theirs do.
+     */
+    public ScoreHistogram getLessonScoreHistogram(String courseId, String lessonId) {
+        return store.scoreHistogram(courseId, List.of(lessonId));
+    }
+
+    /** The lesson histograms of every lesson in the course added together (one entry per student and quiz). */
+    public ScoreHistogram getCourseScoreHistogram(String courseId) {
+        return store.scoreHistogram(courseId, lessonIds(courseId));
+    }
+
+    private List<String> lessonIds(String courseId) {
+        Course c = store.peekCourse(courseId);
+        List<String> lessonIds = new ArrayList<>();
+        if (c != null) {
+            for (Lesson l : c.getLessons()) lessonIds.add(l.getLessonId());
+        }
+        return lessonIds;
+    }
+
+    /**
+     * Attempts on the quiz of the course's lesson over the latest {@code buckets} buckets
+     * (at most the resolution keeps). Like the score histograms, an attempt counts for
+     * the course {@link #getCourseOfLesson} finds for its student.
+     */
+    public ActivitySeries getLessonActivity(String courseId, String lessonId, ActivitySeries.Resolution resolution, int buckets) {
+        return store.activity(courseId, List.of(lessonId), resolution, buckets);
+    }
+
+    /** Attempts on all the course's quizzes over the latest {@code buckets} buckets. */
+    public ActivitySeries getCourseActivity(String courseId, ActivitySeries.Resolution resolution, int buckets) {
+        return store.activity(courseId, lessonIds(courseId), resolution, buckets);
+    }
+
+    /** Attempts on the whole platform over the latest {@code buckets} buckets. */
+    public ActivitySeries getPlatformActivity(ActivitySeries.Resolution resolution, int buckets) {
+        return store.platformActivity(resolution, buckets);
+    }
+
+    /**
+     * About how many distinct students made an attempt or completed a lesson in any of
+     * the courses over the last {@code days} days, today included (at most a week).
+     */
+    public long getActiveStudents(Iterable<String> courseIds, int days) {
+        return store.activeStudents(courseIds, days);
+    }
+
+    /** About how many distinct students were active anywhere over the last {@code days} days. */
+    public long getActiveStudentsOnPlatform(int days) {
+        return store.activeStudentsOnPlatform(days);
+    }
+
     public double getCourseCompletionRate(String courseId) {
-        Course c = getCourseById(courseId);
+        Course c = store.peekCourse(courseId);
         if (c == null || c.getLessons().isEmpty()) return 0.0;
 
-        List<User> users = loadUsers();
         int totalEnrolled = 0;
         int totalCompletedLessons = 0;
         int lessonCount = c.getLessons().size();
 
-        for (User u : users) {
+        for (User u : store.peekUsers()) {
             if (u instanceof Student s && s.getEnrolledCourseIds().contains(courseId)) {
                 totalEnrolled++;
                 // Count how many lessons of THIS course the student has completed
@@ -524,8 +431,49 @@ public class JsonDatabaseManager {
         double totalPossible = totalEnrolled * lessonCount;
         return (totalCompletedLessons / totalPossible) * 100.0;
     }
+    /**
+     * The course's drop-off funnel, from one parallel pass over the students: each
+     * enrolled student turns their completed lessons into a bit per lesson position,
+     * and the per-lesson counts are summed across threads. Null if the course does not exist.
+     */
+    public LessonFunnel getLessonFunnel(String courseId) {
+        Course c = store.peekCourse(courseId);
+        if (c == null) return null;
+        List<Lesson> lessons = c.getLessons();
+        Map<String, Integer> position = new HashMap<>();
+        for (int i = 0; i < lessons.size(); i++) position.putIfAbsent(lessons.get(i).getLessonId(), i);
+        int n = lessons.size();
+
+        // counts[0] = enrolled, counts[1 + i] = completed lesson i, counts[1 + n + i] = reached lesson i
+        long[] counts = store.peekUsers().parallelStream()
+                .filter(u -> u instanceof Student s && s.getEnrolledCourseIds().contains(courseId))
+                .collect(() -> new long[1 + 2 * n], (sums, u) -> {
+                    boolean[] done = new boolean[n];
+                    for (String lessonId : ((Student) u).getCompletedLessonIds()) {
+                        Integer i = position.get(lessonId);
+                        if (i != null) done[i] = true;
+                    }
+                    sums[0]++;
+                    boolean inOrder = true;
+                    for (int i = 0; i < n; i++) {
+                        inOrder &= done[i];
+                        if (done[i]) sums[1 + i]++;
+                        if (inOrder) sums[1 + n + i]++;
+                    }
+                }, (a, b) -> {
+                    for (int i = 0; i < a.length; i++) a[i] += b[i];
+                });
+
+        List<LessonFunnel.Step> steps = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            steps.add(new LessonFunnel.Step(lessons.get(i).getLessonId(), lessons.get(i).getTitle(),
+                    (int) counts[1 + i], (int) counts[1 + n + i]));
+        }
+        return new LessonFunnel(courseId, (int) counts[0], List.copyOf(steps));
+    }
+
     public Map<String, Double> getCoursePerformanceData(String courseId) {
-        Course c = getCourseById(courseId);
+        Course c = store.peekCourse(courseId);
         Map<String, Double> data = new LinkedHashMap<>(); // LinkedHashMap keeps order
         
         if (c != null) {
@@ -536,11 +484,23 @@ public class JsonDatabaseManager {
         }
         return data;
     }
-    public int getQuizAttemptCount(int studentId, String lessonId) {
-    for (User u : loadUsers()) {
-        if (u instanceof Student s && s.getUserId() == studentId) {
-            return s.getAttemptsForLesson(lessonId).size();
+    /**
+     * The student's progress through the course's lessons (completed, attempts, best
+     * score, passed), read straight from the two stored records: no file parse and no
+     * copy of the student or course. Null if either does not exist.
+     */
+    public ProgressSnapshot getProgress(int studentId, String courseId) {
+        if (store.peekUser(studentId) instanceof Student s) {
+            Course c = store.peekCourse(courseId);
+            return c == null ? null : ProgressSnapshot.of(s, c);
         }
+        return null;
+    }
+
+    /** Attempts used, read from the in-memory record (one map lookup, no copy). */
+    public int getQuizAttemptCount(int studentId, String lessonId) {
+    if (store.peekUser(studentId) instanceof Student s) {
+        return s.getAttemptsForLesson(lessonId).size();
     }
     return 0;
 }
@@ -572,14 +532,10 @@ public class JsonDatabaseManager {
             .map(Certificate::getCourseId)
             .collect(Collectors.toSet());
 
-    // 3) Load all courses to check completion
-    List<Course> allCourses = loadCourses();
-
-    for (Course c : allCourses) {
-        String courseId = c.getCourseId();
-
-        // Student must be enrolled in this course
-        if (!enrolled.contains(courseId)) continue;
+    // 3) Look up each enrolled course to check completion
+    for (String courseId : new ArrayList<>(enrolled)) {
+        Course c = store.peekCourse(courseId);
+        if (c == null) continue;
 
         // Skip courses with no lessons
         if (c.getLessons() == null || c.getLessons().isEmpty()) continue;
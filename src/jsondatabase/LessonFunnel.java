@@ -0,0 +1,25 @@
+package jsondatabase;
+
+import java.util.List;
+
+/**
+ * Where a course's students stall: for each lesson, in course order, how many of
+ * the enrolled students completed it, and how many completed it together with
+ * every lesson before it. See {@link JsonDatabaseManager#getLessonFunnel(String)}.
+ */
+public record LessonFunnel(String courseId, int enrolled, List<Step> steps) {
+
+    /** One lesson; {@code reached} counts students with lessons 1..this one all completed. */
+    public record Step(String lessonId, String title, int completed, int reached) {
+    }
+
+    /** Share (0-100) of the enrolled students who completed the lesson. */
+    public double completedPercent(int step) {
+        return enrolled == 0 ? 0 : steps.get(step).completed() * 100.0 / enrolled;
+    }
+
+    /** Share (0-100) of the enrolled students who got through every lesson up to this one. */
+    public double reachedPercent(int step) {
+        return enrolled == 0 ? 0 : steps.get(step).reached() * 100.0 / enrolled;
+    }
+}
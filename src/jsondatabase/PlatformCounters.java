@@ -0,0 +1,129 @@
+package jsondatabase;
+
+import models.Course;
+import models.QuizAttempt;
+import models.Student;
+import models.User;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Platform totals for the admin dashboard, kept up to date as records change
+ * instead of being counted on demand.
+ *
+ * The store reports every record it puts or removes as "before -> after" (either
+ * may be null) and the counters move by the difference, at a cost proportional to
+ * that one record. Reads never lock: totals are {@link LongAdder}s. Attempts over
+ * time are not kept here but in the activity rollups, see
+ * {@link JsonDatabaseManager#getPlatformActivity}.
+ */
+public final class PlatformCounters {
+
+    private final Map<String, LongAdder> usersByRole = new ConcurrentHashMap<>();
+    private final Map<CourseStatus, LongAdder> coursesByStatus = new EnumMap<>(CourseStatus.class);
+    private final LongAdder enrollments = new LongAdder();
+    private final LongAdder certificates = new LongAdder();
+    private final LongAdder attempts = new LongAdder();
+
+    PlatformCounters() {
+        for (CourseStatus s : CourseStatus.values()) coursesByStatus.put(s, new LongAdder());
+    }
+
+    // ===================================================================
+    // READS
+    // ===================================================================
+
+    /** Users with the role (User.ROLE_*). */
+    public long users(String role) {
+        LongAdder n = usersByRole.get(role);
+        return n == null ? 0 : n.sum();
+    }
+
+    public long users() {
+        long n = 0;
+        for (LongAdder a : usersByRole.values()) n += a.sum();
+        return n;
+    }
+
+    /** Courses with the status, compared like the screens do (trimmed, any case). */
+    public long courses(String status) {
+        return coursesByStatus.get(CourseStatus.of(status)).sum();
+    }
+
+    public long courses() {
+        long n = 0;
+        for (LongAdder a : coursesByStatus.values()) n += a.sum();
+        return n;
+    }
+
+    /** Course enrollments over all students. */
+    public long enrollments() {
+        return enrollments.sum();
+    }
+
+    public long certificates() {
+        return certificates.sum();
+    }
+
+    /** Quiz attempts ever stored. */
+    public long attempts() {
+        return attempts.sum();
+    }
+
+    // ===================================================================
+    // UPDATES (from the store, under the folder lock: one writer)
+    // ===================================================================
+
+    void user(User before, User after) {
+        if (before != null) adder(before.getRole()).decrement();
+        if (after != null) adder(after.getRole()).increment();
+
+        Student old = before instanceof Student s ? s : null;
+        Student now = after instanceof Student s ? s : null;
+        enrollments.add(size(now == null ? null : now.getEnrolledCourseIds())
+                - size(old == null ? null : old.getEnrolledCourseIds()));
+        certificates.add(size(now == null ? null : now.getCertificates())
+                - size(old == null ? null : old.getCertificates()));
+        attemptChanges(before, after, (a, delta) -> attempts.add(delta));
+    }
+
+    /** Reports each attempt the change adds (+1) or drops (-1), for anything counting attempts. */
+    static void attemptChanges(User before, User after, ObjIntConsumer<QuizAttempt> change) {
+        Map<String, List<QuizAttempt>> oldAttempts = before instanceof Student s ? s.getQuizAttemptsByLesson() : Map.of();
+        Map<String, List<QuizAttempt>> newAttempts = after instanceof Student s ? s.getQuizAttemptsByLesson() : Map.of();
+        for (Map.Entry<String, List<QuizAttempt>> e : newAttempts.entrySet()) {
+            List<QuizAttempt> was = oldAttempts.getOrDefault(e.getKey(), List.of());
+            List<QuizAttempt> is = e.getValue();
+            if (is.size() >= was.size()) {
+                // Attempts are only ever appended
+                for (int i = was.size(); i < is.size(); i++) change.accept(is.get(i), 1);
+            } else {
+                // Shrunk (hand-edited file): recount the lesson
+                for (QuizAttempt a : was) change.accept(a, -1);
+                for (QuizAttempt a : is) change.accept(a, 1);
+            }
+        }
+        for (Map.Entry<String, List<QuizAttempt>> e : oldAttempts.entrySet()) {
+            if (newAttempts.containsKey(e.getKey())) continue;
+            for (QuizAttempt a : e.getValue()) change.accept(a, -1);
+        }
+    }
+
+    void course(Course before, Course after) {
+        if (before != null) coursesByStatus.get(CourseStatus.of(before.getStatus())).decrement();
+        if (after != null) coursesByStatus.get(CourseStatus.of(after.getStatus())).increment();
+    }
+
+    private LongAdder adder(String role) {
+        return usersByRole.computeIfAbsent(String.valueOf(role), k -> new LongAdder());
+    }
+
+    private static int size(List<?> list) {
+        return list == null ? 0 : list.size();
+    }
+}
@@ -0,0 +1,59 @@
+package jsondatabase;
+
+import models.Course;
+import models.Lesson;
+import models.QuizAttempt;
+import models.Student;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One student's progress through one course, lesson by lesson, as of the two
+ * record versions it was built from. Immutable; see
+ * {@link JsonDatabaseManager#getProgress(int, String)}.
+ */
+public record ProgressSnapshot(int studentId, String courseId, long studentVersion, long courseVersion,
+                               List<LessonProgress> lessons) {
+
+    /**
+     * {@code bestScore} is -1 and {@code passed} false while the quiz was never taken;
+     * {@code passedAt} is the time of the first passing attempt, 0 if none.
+     */
+    public record LessonProgress(String lessonId, String title, boolean completed, boolean hasQuiz,
+                                 int attempts, int bestScore, boolean passed, long passedAt) {
+    }
+
+    /** The lesson's entry, or null if the course has no such lesson. */
+    public LessonProgress lesson(String lessonId) {
+        for (LessonProgress l : lessons) {
+            if (l.lessonId().equals(lessonId)) return l;
+        }
+        return null;
+    }
+
+    /** Built from the stored records in one pass over the course's lessons and the student's attempts. */
+    static ProgressSnapshot of(Student s, Course c) {
+        List<LessonProgress> lessons = new ArrayList<>(c.getLessons().size());
+        for (Lesson l : c.getLessons()) {
+            String id = l.getLessonId();
+            boolean hasQuiz = l.getQuiz() != null && l.getQuiz().totalQuestions() > 0;
+            List<QuizAttempt> attempts = s.getAttemptsForLesson(id);
+            int best = -1;
+            boolean passed = false;
+            long passedAt = 0;
+            for (QuizAttempt a : attempts) {
+                best = Math.max(best, a.getScore());
+                if (hasQuiz && a.getScore() >= l.getQuiz().getPassingPercentage()) {
+                    if (!passed || a.getTimestamp() < passedAt) passedAt = a.getTimestamp();
+                    passed = true;
+                }
+            }
+            lessons.add(new LessonProgress(id, l.getTitle(), s.hasCompletedLesson(id), hasQuiz,
+                    attempts.size(), best, passed, passedAt));
+        }
+        return new ProgressSnapshot(s.getUserId(), c.getCourseId(), s.getVersion(), c.getVersion(),
+                Collections.unmodifiableList(lessons));
+    }
+}
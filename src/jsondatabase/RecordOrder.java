@@ -0,0 +1,47 @@
+package jsondatabase;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The file order of a store's records. A new record is appended in amortized O(1)
+ * instead of copying the whole order; removals build a new instance.
+ *
+ * There is a single writer (it holds the folder lock). Readers need no lock: a
+ * snapshot sees the ids appended before it was taken and never changes afterwards,
+ * since the writer only ever fills slots past the published size.
+ */
+final class RecordOrder<K> {
+
+    private volatile Object[] items;
+    private volatile int size;
+
+    RecordOrder() {
+        this(List.of());
+    }
+
+    RecordOrder(List<K> ids) {
+        items = ids.toArray(new Object[Math.max(16, ids.size())]);
+        size = ids.size();
+    }
+
+    void add(K id) {
+        Object[] a = items;
+        int n = size;
+        if (n == a.length) {
+            a = Arrays.copyOf(a, n * 2);
+            items = a;
+        }
+        a[n] = id;
+        size = n + 1; // publishes the slot: readers read size before items
+    }
+
+    /** The ids appended so far, oldest first. */
+    @SuppressWarnings("unchecked")
+    List<K> snapshot() {
+        int n = size;
+        Object[] a = items;
+        return Collections.unmodifiableList((List<K>) Arrays.asList(a).subList(0, n));
+    }
+}
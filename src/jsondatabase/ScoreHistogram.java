@@ -0,0 +1,60 @@
+package jsondatabase;
+
+/**
+ * Best quiz scores (one per student) counted per whole percent, 0-100.
+ * An immutable snapshot; see {@link JsonDatabaseManager#getLessonScoreHistogram}.
+ */
+public final class ScoreHistogram {
+
+    public static final int BUCKETS = 101;
+
+    private final int[] counts;
+    private final long total;
+
+    ScoreHistogram(int[] counts) {
+        this.counts = counts;
+        long n = 0;
+        for (int c : counts) n += c;
+        this.total = n;
+    }
+
+    /** Students counted. */
+    public long count() {
+        return total;
+    }
+
+    /** Students whose best score is exactly {@code score}. */
+    public int count(int score) {
+        return score < 0 || score >= BUCKETS ? 0 : counts[score];
+    }
+
+    /** Students with a best score in [from, to], both inclusive. */
+    public long count(int from, int to) {
+        long n = 0;
+        for (int s = Math.max(0, from); s <= Math.min(BUCKETS - 1, to); s++) n += counts[s];
+        return n;
+    }
+
+    public double mean() {
+        if (total == 0) return 0;
+        double sum = 0;
+        for (int s = 0; s < BUCKETS; s++) sum += (double) s * counts[s];
+        return sum / total;
+    }
+
+    /** The lowest score with at least {@code percentile}% of students at or below it; -1 if empty. */
+    public int percentile(double percentile) {
+        if (total == 0) return -1;
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * total));
+        long seen = 0;
+        for (int s = 0; s < BUCKETS; s++) {
+            seen += counts[s];
+            if (seen >= rank) return s;
+        }
+        return BUCKETS - 1;
+    }
+
+    public int median() {
+        return percentile(50);
+    }
+}
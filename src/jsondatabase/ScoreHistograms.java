@@ -0,0 +1,103 @@
+package jsondatabase;
+
+import models.QuizAttempt;
+import models.Student;
+import models.User;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Per lesson of each course, how many students have each best score. Kept up to
+ * date by the store from every "before -> after" user change: a student's old best
+ * score for a lesson is taken out and the new one put in, so a save costs one
+ * increment per lesson whose best score changed. Readers take a snapshot without locking.
+ *
+ * Lesson ids repeat across courses, so a student's scores count for the course
+ * {@link CourseIndex#courseOf} finds from their enrollments, and not at all when it
+ * finds none. A course edit that adds or removes lessons can change that for every
+ * student, so those lessons are counted again from scratch.
+ */
+final class ScoreHistograms {
+
+    private final Map<String, Map<String, AtomicIntegerArray>> lessons = new ConcurrentHashMap<>(); // lesson -> course -> counts
+    private final CourseIndex courseIndex;
+
+    ScoreHistograms(CourseIndex courseIndex) {
+        this.courseIndex = courseIndex;
+    }
+
+    /** Called under the folder lock (one writer). */
+    void user(User before, User after) {
+        Map<String, List<QuizAttempt>> was = before instanceof Student s ? s.getQuizAttemptsByLesson() : Map.of();
+        Map<String, List<QuizAttempt>> is = after instanceof Student s ? s.getQuizAttemptsByLesson() : Map.of();
+        if (was.isEmpty() && is.isEmpty()) return;
+        Set<String> lessonIds = new HashSet<>(was.keySet());
+        lessonIds.addAll(is.keySet());
+        for (String lessonId : lessonIds) {
+            int oldBest = best(was.get(lessonId));
+            int newBest = best(is.get(lessonId));
+            // An enrollment change can move the same best score to another course
+            String oldCourse = oldBest < 0 ? null : courseIndex.courseOf((Student) before, lessonId);
+            String newCourse = newBest < 0 ? null : courseIndex.courseOf((Student) after, lessonId);
+            if (oldBest == newBest && Objects.equals(oldCourse, newCourse)) continue;
+            if (oldCourse != null) counts(lessons, lessonId, oldCourse).decrementAndGet(oldBest);
+            if (newCourse != null) counts(lessons, lessonId, newCourse).incrementAndGet(newBest);
+        }
+    }
+
+    /** Counts the lessons again from every user, after courses gained or lost them; under the folder lock. */
+    void recount(Set<String> lessonIds, Collection<User> users) {
+        Map<String, Map<String, AtomicIntegerArray>> fresh = new HashMap<>();
+        for (User u : users) {
+            if (!(u instanceof Student s)) continue;
+            for (String lessonId : lessonIds) {
+                int best = best(s.getQuizAttemptsByLesson().get(lessonId));
+                String courseId = best < 0 ? null : courseIndex.courseOf(s, lessonId);
+                if (courseId != null) counts(fresh, lessonId, courseId).incrementAndGet(best);
+            }
+        }
+        // Swap whole lessons, so readers see the old counts or the new ones
+        for (String lessonId : lessonIds) {
+            Map<String, AtomicIntegerArray> counted = fresh.get(lessonId);
+            if (counted == null) {
+                lessons.remove(lessonId);
+            } else {
+                lessons.put(lessonId, counted);
+            }
+        }
+    }
+
+    private static AtomicIntegerArray counts(Map<String, Map<String, AtomicIntegerArray>> lessons,
+                                             String lessonId, String courseId) {
+        return lessons.computeIfAbsent(lessonId, k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(courseId, k -> new AtomicIntegerArray(ScoreHistogram.BUCKETS));
+    }
+
+    /** Best score clamped to 0-100, or -1 for no attempts. */
+    private static int best(List<QuizAttempt> attempts) {
+        if (attempts == null || attempts.isEmpty()) return -1;
+        int best = 0;
+        for (QuizAttempt a : attempts) best = Math.max(best, a.getScore());
+        return Math.min(best, ScoreHistogram.BUCKETS - 1);
+    }
+
+    /** The course's histograms of these lessons added together (one lesson, or every lesson of the course). */
+    ScoreHistogram snapshot(String courseId, Iterable<String> lessonIds) {
+        int[] sum = new int[ScoreHistogram.BUCKETS];
+        for (String id : lessonIds) {
+            Map<String, AtomicIntegerArray> byCourse = lessons.get(id);
+            AtomicIntegerArray counts = byCourse == null ? null : byCourse.get(courseId);
+            if (counts == null) continue;
+            for (int s = 0; s < sum.length; s++) sum[s] += counts.get(s);
+        }
+        return new ScoreHistogram(sum);
+    }
+}
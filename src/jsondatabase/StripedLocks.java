@@ -0,0 +1,68 @@
+package jsondatabase;
+
+import java.util.Collection;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A fixed set of locks shared by many keys (user ids, course ids).
+ * Writers to different records usually land on different stripes and run in parallel;
+ * writers to the same record always share a stripe and are serialized.
+ *
+ * Anyone holding several stripes takes them in ascending index order, user stripes
+ * before course stripes, so two multi-record writers can never deadlock.
+ */
+final class StripedLocks {
+
+    private final ReentrantLock[] stripes;
+    private final int mask;
+
+    StripedLocks(int stripeCount) {
+        if (Integer.bitCount(stripeCount) != 1) {
+            throw new IllegalArgumentException("stripeCount must be a power of two");
+        }
+        stripes = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        mask = stripeCount - 1;
+    }
+
+    int stripeOf(Object key) {
+        int h = key.hashCode();
+        h ^= (h >>> 16); // spread high bits, same as HashMap
+        return h & mask;
+    }
+
+    ReentrantLock forKey(Object key) {
+        return stripes[stripeOf(key)];
+    }
+
+    /** Distinct stripe indexes of the keys, ascending. */
+    int[] stripesOf(Collection<?> keys) {
+        TreeSet<Integer> set = new TreeSet<>();
+        for (Object k : keys) set.add(stripeOf(k));
+        int[] out = new int[set.size()];
+        int i = 0;
+        for (int s : set) out[i++] = s;
+        return out;
+    }
+
+    /** Locks the given stripes; they must be ascending (see {@link #stripesOf}). */
+    void lock(int[] ascendingStripes) {
+        for (int s : ascendingStripes) stripes[s].lock();
+    }
+
+    void unlock(int[] ascendingStripes) {
+        for (int i = ascendingStripes.length - 1; i >= 0; i--) stripes[ascendingStripes[i]].unlock();
+    }
+
+    /** Locks every stripe in index order (the only order used, so no deadlock). */
+    void lockAll() {
+        for (ReentrantLock l : stripes) l.lock();
+    }
+
+    void unlockAll() {
+        for (int i = stripes.length - 1; i >= 0; i--) stripes[i].unlock();
+    }
+}
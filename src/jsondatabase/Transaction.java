@@ -0,0 +1,122 @@
+package jsondatabase;
+
+import models.Course;
+import models.User;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Stages changes to several users and courses and commits them all-or-nothing.
+ *
+ * A commit locks every touched record, checks versions, then writes a single journal
+ * record; commits running at the same time share one fsync. Nothing is visible to
+ * readers until the commit succeeds. A change is applied to a fresh copy of the stored
+ * record and may run again if another process saved that record meanwhile, so it
+ * should not keep state from an earlier run.
+ *
+ * <pre>
+ * UpdateResult.Status st = db.beginTransaction()
+ *         .updateUser(studentId, u -&gt; ((Student) u).enrollInCourse(courseId))
+ *         .updateCourse(courseId, c -&gt; c.enrollStudent(String.valueOf(studentId)))
+ *         .commit();
+ * </pre>
+ */
+public class Transaction {
+
+    enum Mode {
+        PUT,    // compare-and-set on the record's version (users are inserted if new)
+        CHANGE, // apply a change to the stored record
+        INSERT  // add: a user must be new (id and username), a course is replaced without a version check
+    }
+
+    static final class Staged<T> {
+        final Object key;
+        final Mode mode;
+        final T value;
+        final Consumer<T> change;
+
+        Staged(Object key, Mode mode, T value, Consumer<T> change) {
+            this.key = key;
+            this.mode = mode;
+            this.value = value;
+            this.change = change;
+        }
+    }
+
+    private final DataStore store;
+    final Consumer<User> beforeSaveUser;
+    final List<Staged<User>> userOps = new ArrayList<>();
+    final List<Staged<Course>> courseOps = new ArrayList<>();
+
+    // Filled in by DataStore.commit
+    final Map<Integer, User> committedUsers = new HashMap<>();
+    final Map<String, Course> committedCourses = new HashMap<>();
+    Object conflictCurrent;
+    private boolean done;
+
+    Transaction(DataStore store, Consumer<User> beforeSaveUser) {
+        this.store = store;
+        this.beforeSaveUser = beforeSaveUser;
+    }
+
+    /** Applies {@code change} to the stored user at commit time. */
+    public Transaction updateUser(int userId, Consumer<User> change) {
+        userOps.add(new Staged<>(userId, Mode.CHANGE, null, change));
+        return this;
+    }
+
+    /** Saves the caller's copy if its version is still current (inserted if the user is new). */
+    public Transaction putUser(User user) {
+        userOps.add(new Staged<>(user.getUserId(), Mode.PUT, user, null));
+        return this;
+    }
+
+    /**
+     * Adds a new user. The commit is a CONFLICT if a user with the same id, or the same
+     * username in any case, exists; both are checked at commit time.
+     */
+    public Transaction insertUser(User user) {
+        userOps.add(new Staged<>(user.getUserId(), Mode.INSERT, user, null));
+        return this;
+    }
+
+    /** Applies {@code change} to the stored course at commit time. */
+    public Transaction updateCourse(String courseId, Consumer<Course> change) {
+        courseOps.add(new Staged<>(courseId, Mode.CHANGE, null, change));
+        return this;
+    }
+
+    /** Saves the caller's copy if its version is still current. */
+    public Transaction putCourse(Course course) {
+        courseOps.add(new Staged<>(course.getCourseId(), Mode.PUT, course, null));
+        return this;
+    }
+
+    public Transaction addCourse(Course course) {
+        courseOps.add(new Staged<>(course.getCourseId(), Mode.INSERT, course, null));
+        return this;
+    }
+
+    /**
+     * Commits every staged change, or none of them.
+     * UPDATED on success; CONFLICT if a put record is stale; NOT_FOUND if a record is missing.
+     */
+    public UpdateResult.Status commit() {
+        if (done) throw new IllegalStateException("Transaction already committed.");
+        done = true;
+        return store.commit(this);
+    }
+
+    /** A copy of a user as committed by this transaction, or null. */
+    public User getUser(int userId) {
+        User u = committedUsers.get(userId);
+        return u == null ? null : u.copy();
+    }
+
+    /** A copy of a course as committed by this transaction, or null. */
+    public Course getCourse(String courseId) {
+        Course c = committedCourses.get(courseId);
+        return c == null ? null : c.copy();
+    }
+}
@@ -0,0 +1,49 @@
+package jsondatabase;
+
+/**
+ * Outcome of a versioned (compare-and-set) update.
+ *
+ * On CONFLICT, {@link #getCurrent()} holds the record as it is stored right now,
+ * so the caller can re-apply its change on top of it and try again.
+ */
+public class UpdateResult<T> {
+
+    public enum Status { UPDATED, CONFLICT, NOT_FOUND }
+
+    private final Status status;
+    private final T current;
+
+    private UpdateResult(Status status, T current) {
+        this.status = status;
+        this.current = current;
+    }
+
+    public static <T> UpdateResult<T> updated(T current) {
+        return new UpdateResult<>(Status.UPDATED, current);
+    }
+
+    public static <T> UpdateResult<T> conflict(T current) {
+        return new UpdateResult<>(Status.CONFLICT, current);
+    }
+
+    public static <T> UpdateResult<T> notFound() {
+        return new UpdateResult<>(Status.NOT_FOUND, null);
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    /** The stored record after the update, or the newer stored record on conflict. */
+    public T getCurrent() {
+        return current;
+    }
+
+    public boolean isUpdated() {
+        return status == Status.UPDATED;
+    }
+
+    public boolean isConflict() {
+        return status == Status.CONFLICT;
+    }
+}
@@ -28,6 +28,13 @@ public class Admin extends User {
     
    
     // ==================== UTILITY METHODS ====================
+
+    @Override
+    public Admin copy() {
+        Admin a = new Admin(getUserId(), getUsername(), getEmail(), getPasswordHash(), true);
+        a.setVersion(getVersion());
+        return a;
+    }
     
     @Override
     public String toString() {
@@ -11,6 +11,7 @@ public class Course {
     private List<Lesson> lessons;
     private List<String> students;
     private String status; // "PENDING", "APPROVED", "REJECTED"
+    private long version;  // bumped by the database on every successful update
 
     public Course() {
         this.lessons = new ArrayList<>();
@@ -66,8 +67,12 @@ public class Course {
         return lessons;
     }
 
+    /** Keeps copies of the lessons (and their quizzes), so the caller's objects stay its own. */
     public void setLessons(List<Lesson> lessons) {
-        this.lessons = lessons;
+        this.lessons = new ArrayList<>();
+        if (lessons != null) {
+            for (Lesson l : lessons) this.lessons.add(l.copy());
+        }
     }
 
     public List<String> getStudents() {
@@ -86,6 +91,14 @@ public class Course {
         this.status = status;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     
     // existing ops
     public void addLesson(Lesson lesson) { lessons.add(lesson); }
@@ -100,4 +113,12 @@ public class Course {
     }
     public void enrollStudent(String studentId) { if (!students.contains(studentId)) students.add(studentId); }
     public boolean isStudentEnrolled(String studentId) { return students.contains(studentId); }
+
+    public Course copy() {
+        Course c = new Course(courseId, title, description, instructorId, status);
+        for (Lesson l : lessons) c.lessons.add(l.copy());
+        c.students.addAll(students);
+        c.version = version;
+        return c;
+    }
 }
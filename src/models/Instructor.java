@@ -27,4 +27,12 @@ public class Instructor extends User {
     }
 
     public List<Integer> getCreatedCourses() { return createdCourses; }
+
+    @Override
+    public Instructor copy() {
+        Instructor i = new Instructor(getUserId(), getUsername(), getEmail(), getPasswordHash(), true);
+        i.createdCourses.addAll(createdCourses);
+        i.setVersion(getVersion());
+        return i;
+    }
 }
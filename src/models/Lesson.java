@@ -1,5 +1,6 @@
 package models;
 
+import java.util.ArrayList;
 import java.util.List;
 
 public class Lesson {
@@ -65,5 +66,11 @@ public class Lesson {
     public void setQuiz(Quiz quiz) {
         this.quiz = quiz;
     }
+
+    public Lesson copy() {
+        Lesson l = new Lesson(lessonId, title, content, resources == null ? null : new ArrayList<>(resources));
+        l.quiz = quiz == null ? null : quiz.copy();
+        return l;
+    }
     
 }
@@ -0,0 +1,59 @@
+package models;
+
+import java.util.Base64;
+
+/**
+ * The options a student picked in one quiz attempt, 3 bits per question.
+ *
+ * Each question is stored as option + 1 (1..7), with 0 meaning "not answered",
+ * so a 5-question quiz fits in 2 bytes. In users.json the bytes are written as
+ * unpadded base64 (3 characters for 5 questions).
+ */
+public final class PackedAnswers {
+
+    public static final int BITS = 3;
+    /** Highest option index that can be stored (the UI has A-D). */
+    public static final int MAX_OPTION = (1 << BITS) - 2;
+
+    private PackedAnswers() {
+    }
+
+    /** Packs the selected option of each question; -1 (or anything out of range) is "not answered". */
+    public static byte[] pack(int[] answers) {
+        byte[] packed = new byte[(answers.length * BITS + 7) / 8];
+        for (int i = 0; i < answers.length; i++) {
+            int a = answers[i];
+            int code = a >= 0 && a <= MAX_OPTION ? a + 1 : 0;
+            int bit = i * BITS;
+            for (int b = 0; b < BITS; b++, bit++) {
+                if ((code & (1 << b)) != 0) packed[bit >> 3] |= (byte) (1 << (bit & 7));
+            }
+        }
+        return packed;
+    }
+
+    /** The option picked for question {@code index}, or -1 if it was not answered or not recorded. */
+    public static int answerAt(byte[] packed, int index) {
+        int bit = index * BITS;
+        if (packed == null || index < 0 || (bit + BITS - 1) >> 3 >= packed.length) return -1;
+        int code = 0;
+        for (int b = 0; b < BITS; b++, bit++) {
+            if ((packed[bit >> 3] & (1 << (bit & 7))) != 0) code |= 1 << b;
+        }
+        return code - 1;
+    }
+
+    public static int[] unpack(byte[] packed, int questions) {
+        int[] answers = new int[questions];
+        for (int i = 0; i < questions; i++) answers[i] = answerAt(packed, i);
+        return answers;
+    }
+
+    public static String encode(byte[] packed) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(packed);
+    }
+
+    public static byte[] decode(String text) {
+        return Base64.getUrlDecoder().decode(text);
+    }
+}
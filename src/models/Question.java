@@ -1,5 +1,6 @@
 package models;
 
+import java.util.ArrayList;
 import java.util.List;
 
 public class Question {
@@ -39,4 +40,8 @@ public class Question {
     public void setCorrectOptionIndex(int correctOptionIndex) {
         this.correctOptionIndex = correctOptionIndex;
     }
+
+    public Question copy() {
+        return new Question(questionText, options == null ? null : new ArrayList<>(options), correctOptionIndex);
+    }
 }
\ No newline at end of file
@@ -48,4 +48,12 @@ public class Quiz {
     public int totalQuestions() {
         return questions != null ? questions.size() : 0;
     }
+
+    public Quiz copy() {
+        List<Question> qs = new ArrayList<>();
+        if (questions != null) {
+            for (Question q : questions) qs.add(q.copy());
+        }
+        return new Quiz(qs, passingPercentage, maxAttempts);
+    }
 }
\ No newline at end of file
@@ -7,6 +7,7 @@ public class QuizAttempt {
     private int correctCount;
     private int totalQuestions;
     private String lessonId;
+    private byte[] answers; // see PackedAnswers; null for attempts saved before answers were recorded
 
     public QuizAttempt() {}
 
@@ -18,6 +19,12 @@ public class QuizAttempt {
         this.totalQuestions = totalQuestions;
     }
 
+    /** An attempt that also keeps the option picked for each question (-1 = not answered). */
+    public QuizAttempt(String lessonId, long timestamp, int score, int correctCount, int totalQuestions, int[] answers) {
+        this(lessonId, timestamp, score, correctCount, totalQuestions);
+        this.answers = answers == null ? null : PackedAnswers.pack(answers);
+    }
+
     public long getTimestamp() {
         return timestamp;
     }
@@ -57,4 +64,27 @@ public class QuizAttempt {
     public void setLessonId(String lessonId) {
         this.lessonId = lessonId;
     }
+
+    public boolean hasAnswers() {
+        return answers != null;
+    }
+
+    /** The option picked for question {@code index}, or -1 if it was not answered or not recorded. */
+    public int getAnswer(int index) {
+        return PackedAnswers.answerAt(answers, index);
+    }
+
+    public byte[] getPackedAnswers() {
+        return answers;
+    }
+
+    public void setPackedAnswers(byte[] answers) {
+        this.answers = answers;
+    }
+
+    public QuizAttempt copy() {
+        QuizAttempt a = new QuizAttempt(lessonId, timestamp, score, correctCount, totalQuestions);
+        a.answers = answers == null ? null : answers.clone();
+        return a;
+    }
 }
\ No newline at end of file
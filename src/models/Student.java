@@ -103,4 +103,18 @@ public class Student extends User{
     certificates.add(c);
     }
 
+    @Override
+    public Student copy() {
+        Student s = new Student(new ArrayList<>(enrolledCourseIds), new ArrayList<>(completedLessonIds),
+                getUserId(), getUsername(), getEmail(), getPasswordHash(), getRole(), true);
+        for (Map.Entry<String, List<QuizAttempt>> e : quizAttemptsByLesson.entrySet()) {
+            List<QuizAttempt> attempts = new ArrayList<>(e.getValue().size());
+            for (QuizAttempt a : e.getValue()) attempts.add(a.copy());
+            s.quizAttemptsByLesson.put(e.getKey(), attempts);
+        }
+        s.certificates.addAll(certificates); // Certificate is immutable
+        s.setVersion(getVersion());
+        return s;
+    }
+
 }
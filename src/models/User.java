@@ -1,5 +1,6 @@
 package models;
 
+import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 
@@ -9,6 +10,7 @@ public abstract class User {
     private String email;
     private String passwordHash;
     private String role;
+    private long version; // bumped by the database on every successful update
 
     public static final String ROLE_STUDENT = "STUDENT";
     public static final String ROLE_INSTRUCTOR = "INSTRUCTOR";
@@ -63,10 +65,11 @@ public abstract class User {
         return value.trim();
     }
 
-    private String hashPassword(String rawPassword) {
+    /** SHA-256 hex of the UTF-8 password: the one hash stored and checked at login. */
+    public static String hashPassword(String rawPassword) {
         try {
             MessageDigest md = MessageDigest.getInstance("SHA-256");
-            byte[] bytes = md.digest(rawPassword.getBytes());
+            byte[] bytes = md.digest(rawPassword.getBytes(StandardCharsets.UTF_8));
             StringBuilder sb = new StringBuilder();
             for (byte b : bytes) sb.append(String.format("%02x", b));
             return sb.toString();
@@ -81,9 +84,14 @@ public abstract class User {
     public String getEmail() { return email; }
     public String getPasswordHash() { return passwordHash; }
     public String getRole() { return role; }
+    public long getVersion() { return version; }
 
     public void setUsername(String username) { this.username = requireNonEmpty("username", username); }
     public void setEmail(String email) { this.email = validateEmail(email); }
     public void setRawPassword(String rawPassword) { this.passwordHash = hashPassword(requireNonEmpty("password", rawPassword)); }
     public void setRole(String role) { this.role = validateRole(role); }
+    public void setVersion(long version) { this.version = version; }
+
+    /** Deep copy, used by the database so callers never share mutable state with its cache. */
+    public abstract User copy();
 }
@@ -0,0 +1,363 @@
+package server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import jsondatabase.JsonDatabaseManager;
+import models.*;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import services.AuthService;
+import services.EnrollmentService;
+import services.QuizService;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Optional JSON API over the same data folder as the desktop app, for serving many
+ * students from one process.
+ *
+ * Each request runs on its own virtual thread, so a request waiting on the store's
+ * locks or a journal fsync does not hold up a platform thread. Idle keep-alive
+ * connections cost no thread at all (the JDK server parks them on its selector).
+ * Memory stays bounded: request bodies are capped, the number of requests in
+ * progress is capped (503 beyond it) and login tokens are capped and expire.
+ *
+ * <pre>
+ *   POST /api/login                                  {"username","password"} -> {"token",...}
+ *   POST /api/logout
+ *   GET  /api/courses                                approved courses
+ *   POST /api/courses/{courseId}/enroll
+ *   GET  /api/courses/{courseId}/lessons/{lessonId}  lesson content and quiz (no answers)
+ *   POST /api/courses/{courseId}/lessons/{lessonId}/quiz   {"answers":[0,2,1,...]}
+ *   GET  /api/progress                               per enrolled course
+ *   GET  /api/certificates
+ * </pre>
+ * Every call but login needs {@code Authorization: Bearer <token>}.
+ *
+ * Start with {@code ant serve} or
+ * {@code java server.ApiServer [--port 8080] [--data data]}.
+ */
+public class ApiServer {
+
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+    private static final int MAX_IN_FLIGHT = 10_000;
+    private static final int MAX_SESSIONS = 200_000;
+    private static final long SESSION_IDLE_MILLIS = 30 * 60 * 1000L;
+
+    private final HttpServer http;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Semaphore inFlight = new Semaphore(MAX_IN_FLIGHT);
+    private final Sessions sessions = new Sessions(MAX_SESSIONS, SESSION_IDLE_MILLIS);
+
+    private final JsonDatabaseManager db;
+    private final AuthService auth;
+    private final EnrollmentService enrollment;
+    private final QuizService quizzes;
+
+    public ApiServer(JsonDatabaseManager db, int port) throws IOException {
+        this.db = db;
+        this.auth = new AuthService(db);
+        this.enrollment = new EnrollmentService(db);
+        this.quizzes = new QuizService(db);
+
+        http = HttpServer.create(new InetSocketAddress(port), 1024);
+        http.setExecutor(executor);
+        http.createContext("/api/", this::handle);
+    }
+
+    public void start() {
+        http.start();
+    }
+
+    public int getPort() {
+        return http.getAddress().getPort();
+    }
+
+    /** Stops accepting requests, waits up to {@code delaySeconds} for running ones. */
+    public void stop(int delaySeconds) {
+        http.stop(delaySeconds);
+        executor.shutdown();
+    }
+
+    // ===================================================================
+    // ROUTING
+    // ===================================================================
+
+    /** Signals an error response; the message is sent to the client. */
+    private static final class ApiException extends RuntimeException {
+        final int status;
+
+        ApiException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    private void handle(HttpExchange ex) throws IOException {
+        if (!inFlight.tryAcquire()) {
+            send(ex, 503, error("Server busy, try again."));
+            return;
+        }
+        try {
+            Object body = route(ex);
+            send(ex, 200, body);
+        } catch (ApiException e) {
+            send(ex, e.status, error(e.getMessage()));
+        } catch (IllegalArgumentException | JSONException e) {
+            send(ex, 400, error(e.getMessage()));
+        } catch (IllegalStateException e) {
+            send(ex, 409, error(e.getMessage()));
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            send(ex, 500, error("Internal error."));
+        } finally {
+            inFlight.release();
+        }
+    }
+
+    private Object route(HttpExchange ex) throws IOException {
+        String method = ex.getRequestMethod();
+        String[] parts = ex.getRequestURI().getPath().substring("/api/".length()).split("/");
+
+        if (parts.length == 1 && parts[0].equals("login")) {
+            requireMethod(method, "POST");
+            return login(readJson(ex));
+        }
+
+        String token = bearerToken(ex);
+        int userId = sessions.userId(token);
+        if (userId < 0) throw new ApiException(401, "Please log in.");
+
+        switch (parts[0]) {
+            case "logout":
+                requireMethod(method, "POST");
+                sessions.remove(token);
+                return new JSONObject().put("ok", true);
+            case "courses":
+                if (parts.length == 1) {
+                    requireMethod(method, "GET");
+                    return catalog(student(userId));
+                }
+                if (parts.length == 3 && parts[2].equals("enroll")) {
+                    requireMethod(method, "POST");
+                    return enroll(userId, parts[1]);
+                }
+                if (parts.length == 4 && parts[2].equals("lessons")) {
+                    requireMethod(method, "GET");
+                    return lesson(student(userId), parts[1], parts[3]);
+                }
+                if (parts.length == 5 && parts[2].equals("lessons") && parts[4].equals("quiz")) {
+                    requireMethod(method, "POST");
+                    return submitQuiz(student(userId), parts[1], parts[3], readJson(ex));
+                }
+                break;
+            case "progress":
+                requireMethod(method, "GET");
+                return progress(student(userId));
+            case "certificates":
+                requireMethod(method, "GET");
+                return certificates(student(userId));
+            default:
+                break;
+        }
+        throw new ApiException(404, "Not found.");
+    }
+
+    // ===================================================================
+    // ENDPOINTS
+    // ===================================================================
+
+    private JSONObject login(JSONObject req) {
+        User user;
+        try {
+            user = auth.login(req.optString("username"), req.optString("password"), req.optString("role", null));
+        } catch (IllegalArgumentException e) {
+            throw new ApiException(401, e.getMessage());
+        }
+        String token = sessions.create(user.getUserId());
+        if (token == null) throw new ApiException(503, "Too many sessions, try again later.");
+        return new JSONObject()
+                .put("token", token)
+                .put("userId", user.getUserId())
+                .put("username", user.getUsername())
+                .put("role", user.getRole());
+    }
+
+    private JSONArray catalog(Student s) {
+        JSONArray arr = new JSONArray();
+        for (Course c : db.getVisibleCoursesForStudents()) {
+            arr.put(new JSONObject()
+                    .put("courseId", c.getCourseId())
+                    .put("title", c.getTitle())
+                    .put("description", c.getDescription())
+                    .put("instructorId", c.getInstructorId())
+                    .put("lessons", c.getLessons().size())
+                    .put("enrolled", s.getEnrolledCourseIds().contains(c.getCourseId())));
+        }
+        return arr;
+    }
+
+    private JSONObject enroll(int userId, String courseId) {
+        Student s = enrollment.enroll(userId, courseId);
+        return new JSONObject().put("enrolledCourseIds", new JSONArray(s.getEnrolledCourseIds()));
+    }
+
+    private JSONObject lesson(Student s, String courseId, String lessonId) {
+        requireEnrolled(s, courseId);
+        Lesson l = quizzes.findLesson(courseId, lessonId);
+        JSONObject obj = new JSONObject()
+                .put("lessonId", l.getLessonId())
+                .put("title", l.getTitle())
+                .put("content", l.getContent())
+                .put("resources", new JSONArray(l.getResources()))
+                .put("completed", s.hasCompletedLesson(lessonId))
+                .put("attempts", s.getAttemptsForLesson(lessonId).size());
+        Quiz quiz = l.getQuiz();
+        if (quiz != null) {
+            JSONArray questions = new JSONArray();
+            for (Question q : quiz.getQuestions()) {
+                // The answer key stays on the server
+                questions.put(new JSONObject()
+                        .put("questionText", q.getQuestionText())
+                        .put("options", new JSONArray(q.getOptions())));
+            }
+            obj.put("quiz", new JSONObject()
+                    .put("passingPercentage", quiz.getPassingPercentage())
+                    .put("maxAttempts", quiz.getMaxAttempts())
+                    .put("questions", questions));
+        }
+        return obj;
+    }
+
+    private JSONObject submitQuiz(Student s, String courseId, String lessonId, JSONObject req) {
+        requireEnrolled(s, courseId);
+        JSONArray arr = req.getJSONArray("answers");
+        if (arr.length() > 10_000) throw new IllegalArgumentException("Too many answers.");
+        int[] answers = new int[arr.length()];
+        for (int i = 0; i < answers.length; i++) {
+            answers[i] = arr.optInt(i, -1);
+        }
+        QuizService.Submission sub = quizzes.submit(s.getUserId(), courseId, lessonId, answers);
+        return new JSONObject()
+                .put("score", sub.grade().score())
+                .put("correctCount", sub.grade().correctCount())
+                .put("totalQuestions", sub.grade().totalQuestions())
+                .put("passed", sub.grade().passed())
+                .put("timestamp", sub.attempt().getTimestamp());
+    }
+
+    private JSONArray progress(Student s) {
+        JSONArray arr = new JSONArray();
+        for (Course c : enrollment.enrolledCourses(s)) {
+            int completed = 0;
+            for (Lesson l : c.getLessons()) {
+                if (s.hasCompletedLesson(l.getLessonId())) completed++;
+            }
+            arr.put(new JSONObject()
+                    .put("courseId", c.getCourseId())
+                    .put("title", c.getTitle())
+                    .put("completedLessons", completed)
+                    .put("totalLessons", c.getLessons().size()));
+        }
+        return arr;
+    }
+
+    private JSONArray certificates(Student s) {
+        JSONArray arr = new JSONArray();
+        for (Certificate c : s.getCertificates()) {
+            arr.put(new JSONObject()
+                    .put("certificateId", c.getCertificateId())
+                    .put("courseId", c.getCourseId())
+                    .put("issueDate", c.getIssueDate()));
+        }
+        return arr;
+    }
+
+    // ===================================================================
+    // HELPERS
+    // ===================================================================
+
+    private Student student(int userId) {
+        if (db.getUserById(userId) instanceof Student s) return s;
+        throw new ApiException(403, "Only students can do this.");
+    }
+
+    private static void requireEnrolled(Student s, String courseId) {
+        if (!s.getEnrolledCourseIds().contains(courseId)) {
+            throw new ApiException(403, "You are not enrolled in this course.");
+        }
+    }
+
+    private static void requireMethod(String method, String expected) {
+        if (!method.equals(expected)) throw new ApiException(405, "Use " + expected + ".");
+    }
+
+    private static String bearerToken(HttpExchange ex) {
+        String header = ex.getRequestHeaders().getFirst("Authorization");
+        if (header == null || !header.startsWith("Bearer ")) return null;
+        return header.substring("Bearer ".length()).trim();
+    }
+
+    /** Reads a JSON object body of at most MAX_BODY_BYTES. */
+    private static JSONObject readJson(HttpExchange ex) throws IOException {
+        ByteArrayOutputStream buf = new ByteArrayOutputStream();
+        try (InputStream in = ex.getRequestBody()) {
+            byte[] chunk = new byte[8192];
+            int n;
+            while ((n = in.read(chunk)) > 0) {
+                if (buf.size() + n > MAX_BODY_BYTES) throw new ApiException(413, "Request body too large.");
+                buf.write(chunk, 0, n);
+            }
+        }
+        String text = buf.toString(StandardCharsets.UTF_8);
+        return text.isBlank() ? new JSONObject() : new JSONObject(text);
+    }
+
+    private static JSONObject error(String message) {
+        return new JSONObject().put("error", message == null ? "Error." : message);
+    }
+
+    private static void send(HttpExchange ex, int status, Object body) throws IOException {
+        byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+        ex.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        ex.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = ex.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    // ===================================================================
+    // COMMAND LINE
+    // ===================================================================
+
+    public static void main(String[] args) throws IOException {
+        int port = 8080;
+        String data = "data";
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--port" -> port = Integer.parseInt(args[i + 1]);
+                case "--data" -> data = args[i + 1];
+                default -> {
+                    System.err.println("Usage: ApiServer [--port N] [--data folder]");
+                    System.exit(2);
+                }
+            }
+        }
+        // The JDK server closes keep-alive connections beyond this many idle ones (default 200)
+        if (System.getProperty("sun.net.httpserver.maxIdleConnections") == null) {
+            System.setProperty("sun.net.httpserver.maxIdleConnections", "20000");
+        }
+        ApiServer server = new ApiServer(new JsonDatabaseManager(data), port);
+        server.start();
+        System.out.println("SkillForge API listening on port " + server.getPort() + " (data folder: " + data + ")");
+    }
+}
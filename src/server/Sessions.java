@@ -0,0 +1,69 @@
+package server;
+
+import java.security.SecureRandom;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Login tokens of the HTTP API.
+ *
+ * A token expires after it has not been used for {@code idleMillis}. The table never
+ * grows past {@code maxSessions}: expired tokens are swept when it is full, and new
+ * logins are refused while it is still full after the sweep.
+ */
+final class Sessions {
+
+    private record Session(int userId, long[] lastSeen) {
+    }
+
+    private final SecureRandom random = new SecureRandom();
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private final int maxSessions;
+    private final long idleMillis;
+
+    Sessions(int maxSessions, long idleMillis) {
+        this.maxSessions = maxSessions;
+        this.idleMillis = idleMillis;
+    }
+
+    /** A new token for the user, or null if the table is full. */
+    String create(int userId) {
+        if (sessions.size() >= maxSessions) {
+            sweep();
+            if (sessions.size() >= maxSessions) return null;
+        }
+        byte[] bytes = new byte[18];
+        random.nextBytes(bytes);
+        String token = HexFormat.of().formatHex(bytes);
+        sessions.put(token, new Session(userId, new long[]{System.currentTimeMillis()}));
+        return token;
+    }
+
+    /** The user id of a live token, or -1. */
+    int userId(String token) {
+        if (token == null) return -1;
+        Session s = sessions.get(token);
+        if (s == null) return -1;
+        long now = System.currentTimeMillis();
+        if (now - s.lastSeen()[0] > idleMillis) {
+            sessions.remove(token);
+            return -1;
+        }
+        s.lastSeen()[0] = now; // a racy refresh is fine, it only moves the expiry
+        return s.userId();
+    }
+
+    void remove(String token) {
+        if (token != null) sessions.remove(token);
+    }
+
+    int size() {
+        return sessions.size();
+    }
+
+    private void sweep() {
+        long now = System.currentTimeMillis();
+        sessions.values().removeIf(s -> now - s.lastSeen()[0] > idleMillis);
+    }
+}
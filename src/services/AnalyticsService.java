@@ -0,0 +1,120 @@
+package services;
+
+import jsondatabase.ActivitySeries;
+import jsondatabase.JsonDatabaseManager;
+import jsondatabase.LessonFunnel;
+import jsondatabase.ScoreHistogram;
+import models.Course;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Course and lesson statistics for instructors and admins.
+ */
+public class AnalyticsService {
+
+    private final JsonDatabaseManager db;
+    private final GradingEngine grading;
+
+    public AnalyticsService(JsonDatabaseManager db) {
+        this.db = db;
+        this.grading = GradingEngine.of(db);
+    }
+
+    /** Average of each student's best score on the lesson's quiz (0 if nobody took it). */
+    public double lessonAverageScore(String lessonId) {
+        return db.getLessonAverageScore(lessonId);
+    }
+
+    /** Completed lessons over possible lessons of the enrolled students, in percent. */
+    public double courseCompletionRate(String courseId) {
+        return db.getCourseCompletionRate(courseId);
+    }
+
+    /** Lesson title to average best score, in lesson order. */
+    public Map<String, Double> coursePerformance(String courseId) {
+        return db.getCoursePerformanceData(courseId);
+    }
+
+    /** How many students have each best score on the quiz of the course's lesson, with median and percentiles. */
+    public ScoreHistogram lessonScoreHistogram(String courseId, String lessonId) {
+        return db.getLessonScoreHistogram(courseId, lessonId);
+    }
+
+    /** The best-score histograms of all the course's quizzes together. */
+    public ScoreHistogram courseScoreHistogram(String courseId) {
+        return db.getCourseScoreHistogram(courseId);
+    }
+
+    /** How many enrolled students completed each lesson, and each lesson with all before it; null if no such course. */
+    public LessonFunnel lessonFunnel(String courseId) {
+        return db.getLessonFunnel(courseId);
+    }
+
+    /** Attempts on the course's quizzes per minute, hour or day, latest {@code buckets} buckets. */
+    public ActivitySeries courseActivity(String courseId, ActivitySeries.Resolution resolution, int buckets) {
+        return db.getCourseActivity(courseId, resolution, buckets);
+    }
+
+    /** Attempts on the whole platform per minute, hour or day. */
+    public ActivitySeries platformActivity(ActivitySeries.Resolution resolution, int buckets) {
+        return db.getPlatformActivity(resolution, buckets);
+    }
+
+    /** About how many distinct students were active in the course over the last {@code days} days (at most 7). */
+    public long activeStudents(String courseId, int days) {
+        return db.getActiveStudents(List.of(courseId), days);
+    }
+
+    /** The same over all of an instructor's courses; a student active in two of them counts once. */
+    public long activeStudentsOfInstructor(int instructorId, int days) {
+        List<String> courseIds = new ArrayList<>();
+        for (Course c : db.getCoursesByInstructor(String.valueOf(instructorId))) courseIds.add(c.getCourseId());
+        return db.getActiveStudents(courseIds, days);
+    }
+
+    /** About how many distinct students were active anywhere over the last {@code days} days. */
+    public long activeStudentsOnPlatform(int days) {
+        return db.getActiveStudentsOnPlatform(days);
+    }
+
+    /**
+     * Correct rate and option frequencies of each question of the lesson's quiz.
+     *
+     * @throws IllegalArgumentException if the course, lesson or quiz does not exist
+     */
+    public List<ItemStatistics.Item> questionStatistics(String courseId, String lessonId) {
+        GradingEngine.AnswerKey key = grading.key(courseId, lessonId);
+        return ItemStatistics.of(db).items(key);
+    }
+
+    /**
+     * Difficulty and discrimination of each question of the lesson's quiz (cached per quiz version).
+     *
+     * @throws IllegalArgumentException if the course, lesson or quiz does not exist
+     */
+    public ItemAnalysis.Report itemAnalysis(String courseId, String lessonId) {
+        return ItemAnalysis.of(db).analyze(courseId, lessonId);
+    }
+
+    /**
+     * How many students would pass the lesson's quiz, and finish the course, at each pass mark.
+     *
+     * @throws IllegalArgumentException if the course, lesson or quiz does not exist
+     */
+    public PassThresholds.WhatIf passThresholds(String courseId, String lessonId) {
+        return PassThresholds.of(db).whatIf(courseId, lessonId);
+    }
+
+    /** The course's top students ({@link Leaderboards#TOP_K} at most), best first. */
+    public List<Leaderboards.Entry> topStudents(String courseId, Leaderboards.Ranking ranking) {
+        return Leaderboards.of(db).top(courseId, ranking);
+    }
+
+    /** Display name of a student, for leaderboards. */
+    public String studentName(int studentId) {
+        return Leaderboards.of(db).username(studentId);
+    }
+}
@@ -0,0 +1,73 @@
+package services;
+
+import jsondatabase.JsonDatabaseManager;
+import jsondatabase.UpdateResult;
+import models.*;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+
+/**
+ * Login and sign-up checks.
+ *
+ * Failures are reported as IllegalArgumentException with a message that can be
+ * shown to the user as is.
+ */
+public class AuthService {
+
+    private final JsonDatabaseManager db;
+
+    public AuthService(JsonDatabaseManager db) {
+        this.db = db;
+    }
+
+    /**
+     * Checks a username / password / role and returns the stored user.
+     * {@code role} may be null to accept any role.
+     */
+    public User login(String username, String password, String role) {
+        if (username == null || username.isBlank()) throw new IllegalArgumentException("Please enter username.");
+        if (password == null || password.isEmpty()) throw new IllegalArgumentException("Please enter password.");
+
+        User found = db.getUserByUsername(username.trim());
+        if (found == null) {
+            throw new IllegalArgumentException("User not found.");
+        }
+        if (role != null && !found.getRole().equalsIgnoreCase(role)) {
+            throw new IllegalArgumentException("Incorrect role selected.");
+        }
+        if (!MessageDigest.isEqual(found.getPasswordHash().getBytes(StandardCharsets.UTF_8),
+                User.hashPassword(password).getBytes(StandardCharsets.UTF_8))) {
+            throw new IllegalArgumentException("Incorrect password.");
+        }
+        return found;
+    }
+
+    /** Creates a new account; the model constructors hash the raw password. */
+    public User register(int userId, String username, String email, String password, String role) {
+        if (userId <= 0) throw new IllegalArgumentException("User ID must be a positive integer.");
+        if (db.getUserById(userId) != null) throw new IllegalArgumentException("User ID already exists.");
+        if (db.getUserByUsername(username) != null) throw new IllegalArgumentException("Username already taken.");
+
+        User newUser;
+        if (role.equalsIgnoreCase(User.ROLE_STUDENT)) {
+            newUser = new Student(new ArrayList<>(), new ArrayList<>(), userId, username, email, password, User.ROLE_STUDENT, false);
+        } else if (role.equalsIgnoreCase(User.ROLE_INSTRUCTOR)) {
+            newUser = new Instructor(userId, username, email, password, false);
+        } else if (role.equalsIgnoreCase(User.ROLE_ADMIN)) {
+            newUser = new Admin(userId, username, email, password, false);
+        } else {
+            throw new IllegalArgumentException("Unknown role selected.");
+        }
+
+        // Checked again inside the commit: another sign-up may have taken the id or the name meanwhile
+        UpdateResult<User> saved = db.insertUser(newUser);
+        if (saved.isConflict()) {
+            throw new IllegalArgumentException(saved.getCurrent().getUserId() == userId
+                    ? "User ID already exists." : "Username already taken.");
+        }
+        if (!saved.isUpdated()) throw new IllegalStateException("Could not save the new account.");
+        return newUser;
+    }
+}
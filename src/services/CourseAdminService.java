@@ -0,0 +1,56 @@
+package services;
+
+import jsondatabase.JsonDatabaseManager;
+import jsondatabase.UpdateResult;
+import models.Course;
+
+import java.util.List;
+
+/**
+ * Course review by admins and course management by instructors.
+ */
+public class CourseAdminService {
+
+    private final JsonDatabaseManager db;
+
+    public CourseAdminService(JsonDatabaseManager db) {
+        this.db = db;
+    }
+
+    public List<Course> pendingCourses() {
+        return coursesWithStatus("PENDING");
+    }
+
+    public List<Course> coursesWithStatus(String status) {
+        return db.getCoursesByStatus(status);
+    }
+
+    /** Courses owned by the instructor. */
+    public List<Course> instructorCourses(int instructorId) {
+        return db.getCoursesByInstructor(String.valueOf(instructorId));
+    }
+
+    /** Approves the course; false if it does not exist. */
+    public boolean approve(String courseId) {
+        return setStatus(courseId, "APPROVED");
+    }
+
+    /** Rejects the course; false if it does not exist. */
+    public boolean reject(String courseId) {
+        return setStatus(courseId, "REJECTED");
+    }
+
+    /** Applied to the stored copy, so a concurrent enrollment or edit is kept. */
+    public boolean setStatus(String courseId, String status) {
+        UpdateResult<Course> result = db.updateCourse(courseId, c -> c.setStatus(status));
+        return result.isUpdated();
+    }
+
+    /** Deletes the course; false if it does not exist. */
+    public boolean deleteCourse(String courseId) {
+        List<Course> courses = db.loadCourses();
+        if (!courses.removeIf(c -> c.getCourseId().equals(courseId))) return false;
+        db.saveCourses(courses);
+        return true;
+    }
+}
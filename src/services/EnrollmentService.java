@@ -0,0 +1,83 @@
+package services;
+
+import jsondatabase.JsonDatabaseManager;
+import jsondatabase.Transaction;
+import jsondatabase.UpdateResult;
+import models.Course;
+import models.Student;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.HashSet;
+
+/**
+ * Course catalog for students and enrollment.
+ */
+public class EnrollmentService {
+
+    private final JsonDatabaseManager db;
+
+    public EnrollmentService(JsonDatabaseManager db) {
+        this.db = db;
+    }
+
+    /** APPROVED courses the student is not enrolled in yet. */
+    public List<Course> availableCourses(Student student) {
+        Set<String> enrolled = new HashSet<>(student.getEnrolledCourseIds());
+        List<Course> result = new ArrayList<>();
+        for (Course c : db.getVisibleCoursesForStudents()) {
+            if (!enrolled.contains(c.getCourseId())) result.add(c);
+        }
+        return result;
+    }
+
+    /** Up to {@code limit} available courses picked for the student from what others took alongside theirs. */
+    public List<Course> recommendedCourses(Student student, int limit) {
+        return db.getRecommendedCourses(student.getUserId(), limit);
+    }
+
+    /** The student's enrolled courses that still exist. */
+    public List<Course> enrolledCourses(Student student) {
+        List<Course> result = new ArrayList<>();
+        for (String courseId : student.getEnrolledCourseIds()) {
+            Course c = db.getCourseById(courseId);
+            if (c != null) result.add(c);
+        }
+        return result;
+    }
+
+    /**
+     * Enrolls the student: the student's course list and the course's student list
+     * are saved in one transaction, so either both sides are saved or neither is.
+     *
+     * @return the stored student after enrolling
+     * @throws IllegalArgumentException if the course does not exist or is not open for enrollment
+     * @throws IllegalStateException if the student is already enrolled or the save failed
+     */
+    public Student enroll(int studentId, String courseId) {
+        Course course = db.getCourseById(courseId);
+        if (course == null) {
+            throw new IllegalArgumentException("Course not found!");
+        }
+        if (!"APPROVED".equalsIgnoreCase(course.getStatus())) {
+            throw new IllegalArgumentException("This course is not open for enrollment.");
+        }
+        if (db.getUserById(studentId) instanceof Student s && s.getEnrolledCourseIds().contains(courseId)) {
+            throw new IllegalStateException("You are already enrolled in this course!");
+        }
+
+        String studentKey = String.valueOf(studentId);
+        Transaction tx = db.beginTransaction()
+                .updateUser(studentId, u -> {
+                    if (!(u instanceof Student s)) throw new IllegalArgumentException("Only students can enroll.");
+                    s.enrollInCourse(courseId);
+                })
+                .updateCourse(courseId, c -> c.enrollStudent(studentKey));
+
+        if (tx.commit() != UpdateResult.Status.UPDATED) {
+            throw new IllegalStateException("Could not enroll in this course. Please try again.");
+        }
+        return (Student) tx.getUser(studentId);
+    }
+}
@@ -0,0 +1,204 @@
+package services;
+
+import jsondatabase.JsonDatabaseManager;
+import jsondatabase.Transaction;
+import jsondatabase.UpdateResult;
+import models.*;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+/**
+ * Grades quiz submissions against compiled answer keys.
+ *
+ * A quiz is compiled once into an {@link AnswerKey}: the correct option of every
+ * question packed into a byte array, plus the passing percentage. Keys are cached
+ * per lesson and remembered with the version of the course they were read from; any
+ * saved change of the course bumps that version, so the next lookup reads the quiz
+ * again instead of grading against an old key. Most such changes (an enrollment,
+ * an approval, another lesson's edit) leave the quiz as it was: the key is then kept,
+ * with its content stamp, so what other services cached for it stays valid.
+ *
+ * There is one engine per data folder, see {@link #of}. Batches are graded in
+ * parallel on the common fork-join pool.
+ */
+public class GradingEngine {
+
+    /** The compiled form of one quiz. */
+    public static final class AnswerKey {
+        final String courseId;
+        final String lessonId;
+        final long stamp; // hash of the content below, the same for keys of equal quizzes
+        private final byte[] correct;
+        private final int passingPercentage;
+        private final int maxAttempts;
+        private final int optionCount;
+
+        private AnswerKey(String courseId, String lessonId, Quiz quiz) {
+            this.courseId = courseId;
+            this.lessonId = lessonId;
+            List<Question> questions = quiz.getQuestions();
+            this.correct = new byte[questions.size()];
+            int options = 0;
+            for (int i = 0; i < correct.length; i++) {
+                correct[i] = (byte) questions.get(i).getCorrectOptionIndex();
+                options = Math.max(options, questions.get(i).getOptions().size());
+            }
+            this.optionCount = options;
+            this.passingPercentage = quiz.getPassingPercentage();
+            this.maxAttempts = quiz.getMaxAttempts();
+            long h = Arrays.hashCode(correct);
+            h = 31 * h + correct.length;
+            h = 31 * h + optionCount;
+            h = 31 * h + passingPercentage;
+            this.stamp = 31 * h + maxAttempts;
+        }
+
+        public int totalQuestions() {
+            return correct.length;
+        }
+
+        public int correctOption(int question) {
+            return correct[question];
+        }
+
+        /** Options of the question with the most options. */
+        public int optionCount() {
+            return optionCount;
+        }
+
+        public int getPassingPercentage() {
+            return passingPercentage;
+        }
+
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        boolean sameContent(AnswerKey other) {
+            return stamp == other.stamp && Arrays.equals(correct, other.correct)
+                    && optionCount == other.optionCount && passingPercentage == other.passingPercentage
+                    && maxAttempts == other.maxAttempts;
+        }
+
+        /** Grades the selected option of each question (-1 for unanswered). */
+        public QuizService.Grade grade(int[] answers) {
+            int n = Math.min(correct.length, answers == null ? 0 : answers.length);
+            int right = 0;
+            for (int i = 0; i < n; i++) {
+                if (answers[i] == correct[i]) right++;
+            }
+            int score = correct.length > 0 ? (right * 100) / correct.length : 0;
+            return new QuizService.Grade(right, correct.length, score, score >= passingPercentage);
+        }
+    }
+
+    /** One student's answers in a batch. */
+    public record Submission(int studentId, int[] answers) {
+    }
+
+    private static final Map<Path, GradingEngine> OPEN = new ConcurrentHashMap<>();
+
+    private record Cached(AnswerKey key, long courseVersion) {
+    }
+
+    private final JsonDatabaseManager db;
+    private final Map<String, Cached> keys = new ConcurrentHashMap<>();
+
+    private GradingEngine(JsonDatabaseManager db) {
+        this.db = db;
+    }
+
+    /** The answer-key cache of the manager's data folder, shared by every service. */
+    public static GradingEngine of(JsonDatabaseManager db) {
+        return OPEN.computeIfAbsent(db.getDataFolder(), folder -> new GradingEngine(db));
+    }
+
+    /**
+     * The answer key of a lesson's quiz, compiled on first use and re-read after every
+     * change of the course; an unchanged quiz keeps its key.
+     *
+     * @throws IllegalArgumentException if the course, lesson or quiz does not exist
+     */
+    public AnswerKey key(String courseId, String lessonId) {
+        String cacheKey = courseId + '\u0000' + lessonId;
+        long version = db.getCourseVersion(courseId);
+        Cached cached = keys.get(cacheKey);
+        if (cached != null && cached.courseVersion == version) return cached.key;
+
+        Course course = db.getCourseById(courseId);
+        if (course == null) {
+            keys.remove(cacheKey);
+            throw new IllegalArgumentException("Course not found!");
+        }
+        for (Lesson l : course.getLessons()) {
+            if (!l.getLessonId().equals(lessonId)) continue;
+            if (l.getQuiz() == null || l.getQuiz().totalQuestions() == 0) {
+                keys.remove(cacheKey);
+                throw new IllegalArgumentException("This lesson has no quiz.");
+            }
+            AnswerKey key = new AnswerKey(courseId, lessonId, l.getQuiz());
+            if (cached != null && cached.key.sameContent(key)) key = cached.key;
+            keys.put(cacheKey, new Cached(key, course.getVersion()));
+            return key;
+        }
+        keys.remove(cacheKey);
+        throw new IllegalArgumentException("Lesson not found!");
+    }
+
+    /** Drops every cached key of the course; the next lookup recompiles. */
+    public void invalidate(String courseId) {
+        keys.values().removeIf(c -> c.key.courseId.equals(courseId));
+    }
+
+    /**
+     * Grades every submission (in parallel) without saving anything.
+     * The attempts come back in the order of {@code submissions}.
+     */
+    public QuizAttempt[] gradeBatch(String courseId, String lessonId, List<Submission> submissions, long timestamp) {
+        AnswerKey key = key(courseId, lessonId);
+        QuizAttempt[] attempts = new QuizAttempt[submissions.size()];
+        IntStream.range(0, attempts.length).parallel().forEach(i -> {
+            QuizService.Grade g = key.grade(submissions.get(i).answers());
+            int[] answers = QuizService.answers(submissions.get(i).answers(), key.totalQuestions());
+            attempts[i] = new QuizAttempt(lessonId, timestamp, g.score(), g.correctCount(), g.totalQuestions(), answers);
+        });
+        return attempts;
+    }
+
+    /**
+     * Grades a batch and saves every attempt in one transaction (one journal write).
+     * Passing attempts complete the lesson, as with a single submission. Students who
+     * have used up the quiz's attempts are left out, checked under each student's lock.
+     *
+     * @return the graded attempts, in the order of {@code submissions}; null where nothing was saved
+     * @throws IllegalStateException if the batch could not be saved (e.g. an unknown student)
+     */
+    public QuizAttempt[] gradeAndRecord(String courseId, String lessonId, List<Submission> submissions) {
+        AnswerKey key = key(courseId, lessonId);
+        QuizAttempt[] attempts = gradeBatch(courseId, lessonId, submissions, System.currentTimeMillis());
+        Transaction tx = db.beginTransaction();
+        for (int i = 0; i < attempts.length; i++) {
+            int index = i;
+            QuizAttempt attempt = attempts[i];
+            tx.updateUser(submissions.get(i).studentId(), u -> {
+                attempts[index] = attempt; // the change is applied again if another process saved the student first
+                if (!(u instanceof Student s)) return;
+                if (key.getMaxAttempts() > 0 && s.getAttemptsForLesson(lessonId).size() >= key.getMaxAttempts()) {
+                    attempts[index] = null;
+                    return;
+                }
+                s.addQuizAttempt(lessonId, attempt);
+                if (attempt.getScore() >= key.getPassingPercentage()) s.markLessonCompleted(lessonId);
+            });
+        }
+        if (tx.commit() != UpdateResult.Status.UPDATED) {
+            throw new IllegalStateException("Could not save the graded batch.");
+        }
+        return attempts;
+    }
+}
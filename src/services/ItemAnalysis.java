@@ -0,0 +1,170 @@
+package services;
+
+import jsondatabase.JsonDatabaseManager;
+import models.PackedAnswers;
+import models.QuizAttempt;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Classical item analysis of a quiz: how hard each question is and how well it
+ * separates strong students from weak ones.
+ *
+ * Every stored attempt with recorded answers is regraded against the quiz's current
+ * answer key in one pass; an attempt belongs to the quiz of the course that
+ * {@link JsonDatabaseManager#getCourseOfLesson} finds for its student. The pass only keeps sums (attempts, total score, total
+ * score squared, and per question: correct answers and correct answers times total
+ * score), which merge by adding, so it runs as a parallel stream on the common
+ * fork-join pool; 1M attempts take well under a second.
+ *
+ * Reports are cached per course and lesson and reused while the answer key's content
+ * (any edit of the quiz changes it; edits of other lessons do not) and the quiz's
+ * attempt count in {@link ItemStatistics} are unchanged.
+ */
+public final class ItemAnalysis {
+
+    /**
+     * One question. {@code difficulty} is the share of correct answers (0-1, higher is
+     * easier); {@code discrimination} is the correlation between getting this question
+     * right and the score on the other questions (-1 to 1, below about 0.2 is weak).
+     */
+    public record Question(int question, double difficulty, double discrimination) {
+    }
+
+    /**
+     * The analysis of one quiz version, identified by its answer key's stamp.
+     * {@code reliability} is KR-20 (0-1), how consistently the questions measure the
+     * same thing; NaN below 2 attempts or questions.
+     */
+    public record Report(String courseId, String lessonId, long keyStamp, long attempts,
+                         double meanScore, double reliability, List<Question> questions) {
+    }
+
+    private static final Map<Path, ItemAnalysis> OPEN = new ConcurrentHashMap<>();
+
+    private final JsonDatabaseManager db;
+    private final GradingEngine grading;
+    private final Map<String, Cached> cache = new ConcurrentHashMap<>();
+
+    private record Cached(Report report, GradingEngine.AnswerKey key, long counted) {
+    }
+
+    private ItemAnalysis(JsonDatabaseManager db) {
+        this.db = db;
+        this.grading = GradingEngine.of(db);
+    }
+
+    /** The item analysis of the manager's data folder. */
+    public static ItemAnalysis of(JsonDatabaseManager db) {
+        return OPEN.computeIfAbsent(db.getDataFolder(), folder -> new ItemAnalysis(db));
+    }
+
+    /**
+     * The report for the lesson's quiz as it is now, from the cache if nothing changed.
+     *
+     * @throws IllegalArgumentException if the course, lesson or quiz does not exist
+     */
+    public Report analyze(String courseId, String lessonId) {
+        GradingEngine.AnswerKey key = grading.key(courseId, lessonId);
+        // Read the count before the pass: an attempt landing during it forces a recount next time
+        long counted = ItemStatistics.of(db).attempts(courseId, lessonId);
+        String cacheKey = courseId + '\u0000' + lessonId;
+        Cached cached = cache.get(cacheKey);
+        if (cached != null && cached.key.sameContent(key) && cached.counted == counted) {
+            return cached.report;
+        }
+
+        int n = key.totalQuestions();
+        Sums sums = db.streamQuizAttempts(courseId, lessonId)
+                .parallel()
+                .collect(() -> new Sums(n), (s, a) -> s.add(key, a), Sums::merge);
+        Report report = sums.report(courseId, lessonId, key.stamp);
+        cache.put(cacheKey, new Cached(report, key, counted));
+        return report;
+    }
+
+    // ===================================================================
+    // ONE-PASS SUMS
+    // ===================================================================
+
+    private static final class Sums {
+        long attempts;
+        long totalScore;
+        long totalScoreSquared;
+        final long[] correct;
+        final long[] correctTimesScore;
+        private final boolean[] right; // scratch for the attempt being added
+
+        Sums(int questions) {
+            correct = new long[questions];
+            correctTimesScore = new long[questions];
+            right = new boolean[questions];
+        }
+
+        void add(GradingEngine.AnswerKey key, QuizAttempt a) {
+            // Answers recorded for a different number of questions belong to an older quiz
+            if (!a.hasAnswers() || a.getTotalQuestions() != correct.length) return;
+            byte[] packed = a.getPackedAnswers();
+            int score = 0;
+            for (int q = 0; q < correct.length; q++) {
+                right[q] = PackedAnswers.answerAt(packed, q) == key.correctOption(q);
+                if (right[q]) score++;
+            }
+            attempts++;
+            totalScore += score;
+            totalScoreSquared += (long) score * score;
+            for (int q = 0; q < correct.length; q++) {
+                if (right[q]) {
+                    correct[q]++;
+                    correctTimesScore[q] += score;
+                }
+            }
+        }
+
+        void merge(Sums other) {
+            attempts += other.attempts;
+            totalScore += other.totalScore;
+            totalScoreSquared += other.totalScoreSquared;
+            for (int q = 0; q < correct.length; q++) {
+                correct[q] += other.correct[q];
+                correctTimesScore[q] += other.correctTimesScore[q];
+            }
+        }
+
+        Report report(String courseId, String lessonId, long keyStamp) {
+            int k = correct.length;
+            List<Question> questions = new ArrayList<>(k);
+            if (attempts == 0) {
+                for (int q = 0; q < k; q++) questions.add(new Question(q, Double.NaN, Double.NaN));
+                return new Report(courseId, lessonId, keyStamp, 0, Double.NaN, Double.NaN, questions);
+            }
+
+            double n = attempts;
+            double meanTotal = totalScore / n;
+            double varianceTotal = totalScoreSquared / n - meanTotal * meanTotal;
+            double sumItemVariance = 0;
+            for (int q = 0; q < k; q++) {
+                double p = correct[q] / n;
+                sumItemVariance += p * (1 - p);
+                // Correlate with the rest score (total minus this question), so a
+                // question does not get credit for correlating with itself
+                double meanRest = meanTotal - p;
+                double restSquared = (totalScoreSquared - 2.0 * correctTimesScore[q] + correct[q]) / n;
+                double varianceRest = restSquared - meanRest * meanRest;
+                double covariance = (correctTimesScore[q] - correct[q]) / n - p * meanRest;
+                double denominator = Math.sqrt(p * (1 - p) * varianceRest);
+                double discrimination = denominator > 1e-12 ? covariance / denominator : 0;
+                questions.add(new Question(q, p, discrimination));
+            }
+            double reliability = k > 1 && attempts > 1 && varianceTotal > 1e-12
+                    ? k / (k - 1.0) * (1 - sumItemVariance / varianceTotal)
+                    : Double.NaN;
+            double meanScore = k > 0 ? meanTotal * 100.0 / k : 0;
+            return new Report(courseId, lessonId, keyStamp, attempts, meanScore, reliability, questions);
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package services;
+
+import jsondatabase.ChangeEvent;
+import jsondatabase.JsonDatabaseManager;
+import models.Course;
+import models.Lesson;
+import models.PackedAnswers;
+import models.QuizAttempt;
+import models.Student;
+import models.User;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Flow;
+
+/**
+ * How often each option of each quiz question was picked, per course and lesson.
+ *
+ * Counts are built once from every stored attempt that has recorded answers and
+ * then kept up to date from {@link ChangeEvent.QuizAttemptRecorded} events, so a
+ * query never rescans users.json. A reload of the data files, a removed student or
+ * a course whose lesson list changed rebuilds them; events that arrive during a
+ * rebuild are held back and only counted if the rebuild did not already see their attempt.
+ *
+ * Lesson ids repeat across courses, so an attempt counts for the quiz of the course
+ * {@link JsonDatabaseManager#getCourseOfLesson} finds for its student, and is left
+ * out when there is no such course. Attempts stay with that course until the next
+ * rebuild, even if the student's enrollments change.
+ *
+ * There is one instance per data folder, see {@link #of}.
+ */
+public final class ItemStatistics {
+
+    /** Statistics of one question; rates are 0-1 of the attempts that recorded answers. */
+    public record Item(int question, int correctOption, long attempts, double correctRate,
+                       double unansweredRate, double[] optionRates) {
+
+        /** The wrong option picked most often, or -1 if nobody picked a wrong one. */
+        public int topDistractor() {
+            int best = -1;
+            for (int o = 0; o < optionRates.length; o++) {
+                if (o != correctOption && optionRates[o] > 0 && (best < 0 || optionRates[o] > optionRates[best])) best = o;
+            }
+            return best;
+        }
+    }
+
+    private static final int CODES = 1 << PackedAnswers.BITS; // 0 = not answered, 1.. = option + 1
+    private static final Map<Path, ItemStatistics> OPEN = new ConcurrentHashMap<>();
+
+    /** Option counts of one quiz: counts[question * CODES + code]. Guarded by the statistics' lock. */
+    private static final class LessonCounts {
+        long attempts;
+        long[] counts = new long[0];
+
+        void add(byte[] packed, int questions) {
+            if (counts.length < questions * CODES) counts = Arrays.copyOf(counts, questions * CODES);
+            attempts++;
+            for (int q = 0; q < questions; q++) {
+                counts[q * CODES + PackedAnswers.answerAt(packed, q) + 1]++;
+            }
+        }
+    }
+
+    private final JsonDatabaseManager db;
+    private final Object lock = new Object();
+    private Map<String, LessonCounts> lessons = new HashMap<>(); // by key(courseId, lessonId)
+    private Map<String, List<String>> lessonsOfCourse = new HashMap<>(); // as of the last rebuild
+    // While a rebuild scans the users, events wait here; a rebuild asked for meanwhile runs after it
+    private boolean rebuilding;
+    private boolean rebuildAgain;
+    private final List<Held> held = new ArrayList<>();
+
+    private record Held(String courseId, ChangeEvent.QuizAttemptRecorded event) {
+    }
+
+    private ItemStatistics(JsonDatabaseManager db) {
+        this.db = db;
+    }
+
+    /** The statistics of the manager's data folder, built on first use. */
+    public static ItemStatistics of(JsonDatabaseManager db) {
+        return OPEN.computeIfAbsent(db.getDataFolder(), folder -> {
+            ItemStatistics stats = new ItemStatistics(db);
+            stats.start();
+            return stats;
+        });
+    }
+
+    private void start() {
+        synchronized (lock) {
+            rebuilding = true;
+        }
+        // Subscribe before scanning, so no attempt can slip between the two
+        db.changes().subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(ChangeEvent event) {
+                handle(event);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                throwable.printStackTrace();
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+        rebuild();
+    }
+
+    // ===================================================================
+    // UPDATES
+    // ===================================================================
+
+    private void handle(ChangeEvent event) {
+        switch (event) {
+            case ChangeEvent.QuizAttemptRecorded e -> {
+                if (!e.attempt().hasAnswers()) return;
+                String courseId = db.getUserById(e.studentId()) instanceof Student s
+                        ? db.getCourseOfLesson(s, e.lessonId()) : null;
+                if (courseId == null) return; // no one course of the student's has the lesson
+                synchronized (lock) {
+                    if (rebuilding) {
+                        held.add(new Held(courseId, e));
+                    } else {
+                        count(lessons, courseId, e.lessonId(), e.attempt());
+                    }
+                }
+            }
+            case ChangeEvent.CourseUpdated e -> {
+                // Only a change to the lesson list moves attempts between courses
+                Course c = db.getCourseById(e.courseId());
+                List<String> now = c == null ? List.of() : lessonIds(c);
+                synchronized (lock) {
+                    if (now.equals(lessonsOfCourse.getOrDefault(e.courseId(), List.of()))) return;
+                }
+                startRebuild();
+            }
+            case ChangeEvent.CourseRemoved e -> startRebuild();
+            case ChangeEvent.DataReloaded e -> startRebuild();
+            case ChangeEvent.UserRemoved e -> startRebuild();
+            default -> {
+            }
+        }
+    }
+
+    private void startRebuild() {
+        synchronized (lock) {
+            if (rebuilding) {
+                rebuildAgain = true; // the running scan may have read the data before this change
+                return;
+            }
+            rebuilding = true;
+        }
+        // Not on the event thread: the store's publisher would block once its buffer is full
+        Thread.ofVirtual().name("skillforge-item-stats").start(this::rebuild);
+    }
+
+    /** Recounts everything; {@code rebuilding} must already be set. */
+    private void rebuild() {
+        while (true) {
+            Map<String, List<String>> courseLessons = new HashMap<>();
+            for (Course c : db.loadCourses()) courseLessons.put(c.getCourseId(), lessonIds(c));
+            Map<String, LessonCounts> fresh = new HashMap<>();
+            List<User> users = db.loadUsers();
+            for (User u : users) {
+                if (!(u instanceof Student s)) continue;
+                for (Map.Entry<String, List<QuizAttempt>> e : s.getQuizAttemptsByLesson().entrySet()) {
+                    String courseId = db.getCourseOfLesson(s, e.getKey());
+                    if (courseId == null) continue;
+                    for (QuizAttempt a : e.getValue()) {
+                        if (a.hasAnswers()) count(fresh, courseId, e.getKey(), a);
+                    }
+                }
+            }
+
+            synchronized (lock) {
+                if (!held.isEmpty()) {
+                    Set<Integer> ids = new HashSet<>();
+                    for (Held h : held) ids.add(h.event.studentId());
+                    Map<Integer, Student> scanned = new HashMap<>();
+                    for (User u : users) {
+                        if (u instanceof Student s && ids.contains(s.getUserId())) scanned.put(s.getUserId(), s);
+                    }
+                    for (Held h : held) {
+                        ChangeEvent.QuizAttemptRecorded e = h.event;
+                        if (!alreadyScanned(scanned.get(e.studentId()), e)) count(fresh, h.courseId, e.lessonId(), e.attempt());
+                    }
+                    held.clear();
+                }
+                lessons = fresh;
+                lessonsOfCourse = courseLessons;
+                if (!rebuildAgain) {
+                    rebuilding = false;
+                    return;
+                }
+                rebuildAgain = false;
+            }
+        }
+    }
+
+    private static boolean alreadyScanned(Student s, ChangeEvent.QuizAttemptRecorded e) {
+        if (s == null) return false;
+        for (QuizAttempt a : s.getQuizAttemptsByLesson().getOrDefault(e.lessonId(), List.of())) {
+            if (a.getTimestamp() == e.attempt().getTimestamp() && a.getScore() == e.attempt().getScore()
+                    && Arrays.equals(a.getPackedAnswers(), e.attempt().getPackedAnswers())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void count(Map<String, LessonCounts> into, String courseId, String lessonId, QuizAttempt a) {
+        into.computeIfAbsent(key(courseId, lessonId), k -> new LessonCounts()).add(a.getPackedAnswers(), a.getTotalQuestions());
+    }
+
+    private static String key(String courseId, String lessonId) {
+        return courseId + '\u0000' + lessonId;
+    }
+
+    private static List<String> lessonIds(Course c) {
+        List<String> ids = new ArrayList<>();
+        for (Lesson l : c.getLessons()) ids.add(l.getLessonId());
+        return ids;
+    }
+
+    // ===================================================================
+    // QUERIES
+    // ===================================================================
+
+    /** Attempts of the quiz of the course's lesson that recorded answers. */
+    public long attempts(String courseId, String lessonId) {
+        synchronized (lock) {
+            LessonCounts c = lessons.get(key(courseId, lessonId));
+            return c == null ? 0 : c.attempts;
+        }
+    }
+
+    /** How many attempts picked {@code option} (-1 = not answered) for the question. */
+    public long count(String courseId, String lessonId, int question, int option) {
+        if (option < -1 || option >= CODES - 1) return 0;
+        synchronized (lock) {
+            LessonCounts c = lessons.get(key(courseId, lessonId));
+            int i = question * CODES + option + 1;
+            return c == null || question < 0 || i >= c.counts.length ? 0 : c.counts[i];
+        }
+    }
+
+    /**
+     * Correct rate and option frequencies of every question, graded against the
+     * quiz's current answer key.
+     */
+    public List<Item> items(GradingEngine.AnswerKey key) {
+        int options = key.optionCount();
+        long attempts;
+        long[] counts;
+        synchronized (lock) {
+            LessonCounts c = lessons.get(key(key.courseId, key.lessonId));
+            attempts = c == null ? 0 : c.attempts;
+            counts = c == null ? new long[0] : c.counts.clone();
+        }
+        List<Item> items = new ArrayList<>(key.totalQuestions());
+        for (int q = 0; q < key.totalQuestions(); q++) {
+            double[] rates = new double[options];
+            double unanswered = 0;
+            if (attempts > 0 && (q + 1) * CODES <= counts.length) {
+                unanswered = counts[q * CODES] / (double) attempts;
+                for (int o = 0; o < options && o + 1 < CODES; o++) {
+                    rates[o] = counts[q * CODES + o + 1] / (double) attempts;
+                }
+            }
+            int correct = key.correctOption(q);
+            double correctRate = correct >= 0 && correct < options ? rates[correct] : 0;
+            items.add(new Item(q, correct, attempts, correctRate, unanswered, rates));
+        }
+        return items;
+    }
+}
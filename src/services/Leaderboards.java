@@ -0,0 +1,290 @@
+package services;
+
+import jsondatabase.ChangeEvent;
+import jsondatabase.JsonDatabaseManager;
+import jsondatabase.ProgressSnapshot;
+import models.Course;
+import models.Lesson;
+import models.Quiz;
+import models.Student;
+import models.User;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Flow;
+
+/**
+ * The top students of every course, in two rankings: highest average best quiz
+ * score, and first to finish every lesson.
+ *
+ * Each ranking keeps only the best {@link #TOP_K} students in a sorted set plus an
+ * index by student, so a saved attempt moves one student at O(log K) per course.
+ * A student's standing is recomputed from the stored records, never accumulated,
+ * so handling the same change twice is harmless. Scores only go up as attempts are
+ * added; a change that can lower them (quiz edited, student removed, files reloaded)
+ * rebuilds the affected boards from the course's enrolled students.
+ *
+ * There is one instance per data folder, see {@link #of}.
+ */
+public final class Leaderboards {
+
+    public static final int TOP_K = 10;
+
+    /** One student's standing in a course; {@code completedAt} is 0 until every lesson is done. */
+    public record Entry(int studentId, double averageScore, long completedAt) {
+    }
+
+    public enum Ranking { AVERAGE_SCORE, FIRST_TO_FINISH }
+
+    private static final Comparator<Entry> BY_SCORE = Comparator
+            .comparingDouble(Entry::averageScore).reversed()
+            .thenComparingInt(Entry::studentId);
+    private static final Comparator<Entry> BY_FINISH = Comparator
+            .comparingLong(Entry::completedAt)
+            .thenComparingInt(Entry::studentId);
+
+    private static final Map<Path, Leaderboards> OPEN = new ConcurrentHashMap<>();
+
+    /** The K best entries of one ranking; the worst one is {@code ranked.last()}. */
+    private static final class Board {
+        private final TreeSet<Entry> ranked;
+        private final Map<Integer, Entry> members = new HashMap<>();
+
+        Board(Comparator<Entry> order) {
+            ranked = new TreeSet<>(order);
+        }
+
+        /** Puts the student at their new standing (null = not eligible); O(log K). */
+        void offer(int studentId, Entry entry) {
+            Entry old = members.remove(studentId);
+            if (old != null) ranked.remove(old);
+            if (entry == null) return;
+            if (ranked.size() == TOP_K) {
+                Entry worst = ranked.last();
+                if (ranked.comparator().compare(entry, worst) >= 0) return;
+                ranked.pollLast();
+                members.remove(worst.studentId());
+            }
+            ranked.add(entry);
+            members.put(studentId, entry);
+        }
+
+        List<Entry> top() {
+            return new ArrayList<>(ranked);
+        }
+    }
+
+    private static final class CourseBoards {
+        final Board byScore = new Board(BY_SCORE);
+        final Board byFinish = new Board(BY_FINISH);
+        final String shape;
+
+        CourseBoards(String shape) {
+            this.shape = shape;
+        }
+
+        void offer(ProgressSnapshot p) {
+            byScore.offer(p.studentId(), scoreEntry(p));
+            byFinish.offer(p.studentId(), finishEntry(p));
+        }
+
+        boolean ranks(int studentId) {
+            return byScore.members.containsKey(studentId) || byFinish.members.containsKey(studentId);
+        }
+    }
+
+    private final JsonDatabaseManager db;
+    // Guarded by itself: the first build (caller's thread) and events (publisher's thread) both write
+    private final Map<String, CourseBoards> courses = new HashMap<>();
+
+    private Leaderboards(JsonDatabaseManager db) {
+        this.db = db;
+    }
+
+    /** The leaderboards of the manager's data folder, built on first use. */
+    public static Leaderboards of(JsonDatabaseManager db) {
+        return OPEN.computeIfAbsent(db.getDataFolder(), folder -> {
+            Leaderboards boards = new Leaderboards(db);
+            boards.start();
+            return boards;
+        });
+    }
+
+    private void start() {
+        // Subscribe before the first build, so no attempt can slip between the two
+        db.changes().subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(ChangeEvent event) {
+                try {
+                    handle(event);
+                } catch (RuntimeException e) {
+                    e.printStackTrace();
+                }
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                throwable.printStackTrace();
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+        rebuildAll();
+    }
+
+    /** The top students of the course, best first. */
+    public List<Entry> top(String courseId, Ranking ranking) {
+        synchronized (courses) {
+            CourseBoards boards = courses.get(courseId);
+            if (boards == null) return List.of();
+            return (ranking == Ranking.AVERAGE_SCORE ? boards.byScore : boards.byFinish).top();
+        }
+    }
+
+    // ===================================================================
+    // UPDATES
+    // ===================================================================
+
+    private void handle(ChangeEvent event) {
+        synchronized (courses) {
+            switch (event) {
+                // Also sent for every saved attempt, enrollment and completed lesson
+                case ChangeEvent.UserUpdated e -> {
+                    if (db.getUserById(e.userId()) instanceof Student s) {
+                        for (String courseId : s.getEnrolledCourseIds()) update(s.getUserId(), courseId);
+                    }
+                }
+                case ChangeEvent.UserRemoved e -> {
+                    List<String> affected = new ArrayList<>();
+                    for (Map.Entry<String, CourseBoards> c : courses.entrySet()) {
+                        if (c.getValue().ranks(e.userId())) affected.add(c.getKey());
+                    }
+                    for (String courseId : affected) rebuild(courseId);
+                }
+                case ChangeEvent.CourseUpdated e -> {
+                    // Enrollments arrive as UserUpdated; only a change to the lessons or quizzes re-ranks
+                    Course c = db.getCourseById(e.courseId());
+                    CourseBoards boards = courses.get(e.courseId());
+                    if (c == null) {
+                        courses.remove(e.courseId());
+                    } else if (boards == null || !boards.shape.equals(shape(c))) {
+                        rebuild(e.courseId(), c);
+                    }
+                }
+                case ChangeEvent.CourseRemoved e -> courses.remove(e.courseId());
+                case ChangeEvent.DataReloaded e -> rebuildAll();
+                default -> {
+                }
+            }
+        }
+    }
+
+    private void rebuildAll() {
+        synchronized (courses) {
+            courses.clear();
+            for (Course c : db.loadCourses()) rebuild(c.getCourseId(), c);
+        }
+    }
+
+    private void rebuild(String courseId) {
+        Course c = db.getCourseById(courseId);
+        if (c == null) {
+            courses.remove(courseId);
+        } else {
+            rebuild(courseId, c);
+        }
+    }
+
+    private void rebuild(String courseId, Course c) {
+        CourseBoards fresh = new CourseBoards(shape(c));
+        for (String id : c.getStudents()) {
+            try {
+                ProgressSnapshot p = db.getProgress(Integer.parseInt(id.trim()), courseId);
+                if (p != null) fresh.offer(p);
+            } catch (NumberFormatException e) {
+                // not a student id; skip
+            }
+        }
+        courses.put(courseId, fresh);
+    }
+
+    private void update(int studentId, String courseId) {
+        ProgressSnapshot p = db.getProgress(studentId, courseId);
+        if (p == null) return;
+        CourseBoards boards = courses.get(courseId);
+        if (boards == null) {
+            rebuild(courseId); // a course added since the last build
+        } else {
+            boards.offer(p);
+        }
+    }
+
+    /** What the rankings depend on in a course: its lessons and their quizzes' pass marks. */
+    private static String shape(Course c) {
+        StringBuilder sb = new StringBuilder();
+        for (Lesson l : c.getLessons()) {
+            Quiz q = l.getQuiz();
+            sb.append(l.getLessonId()).append('/')
+              .append(q == null || q.totalQuestions() == 0 ? -1 : q.getPassingPercentage()).append(';');
+        }
+        return sb.toString();
+    }
+
+    /** Ranked by score once any quiz of the course was taken. */
+    private static Entry scoreEntry(ProgressSnapshot p) {
+        for (ProgressSnapshot.LessonProgress l : p.lessons()) {
+            if (l.hasQuiz() && l.attempts() > 0) return new Entry(p.studentId(), averageScore(p), completedAt(p));
+        }
+        return null;
+    }
+
+    /** Ranked by finish time once every lesson is done. */
+    private static Entry finishEntry(ProgressSnapshot p) {
+        long at = completedAt(p);
+        return at == 0 ? null : new Entry(p.studentId(), averageScore(p), at);
+    }
+
+    /** Average of the best score of every quiz in the course, a quiz not taken counting as 0. */
+    private static double averageScore(ProgressSnapshot p) {
+        int quizzes = 0;
+        int total = 0;
+        for (ProgressSnapshot.LessonProgress l : p.lessons()) {
+            if (!l.hasQuiz()) continue;
+            quizzes++;
+            total += Math.max(0, l.bestScore());
+        }
+        return quizzes == 0 ? 0 : (double) total / quizzes;
+    }
+
+    /** When the last quiz of the course was first passed, if every lesson is done; else 0. */
+    private static long completedAt(ProgressSnapshot p) {
+        long at = 0;
+        for (ProgressSnapshot.LessonProgress l : p.lessons()) {
+            if (!l.completed()) return 0;
+            if (l.hasQuiz()) {
+                if (!l.passed()) return 0;
+                at = Math.max(at, l.passedAt());
+            }
+        }
+        return at;
+    }
+
+    /** Display name for a ranked student. */
+    public String username(int studentId) {
+        User u = db.getUserById(studentId);
+        return u == null ? "#" + studentId : u.getUsername();
+    }
+}
@@ -0,0 +1,340 @@
+package services;
+
+import jsondatabase.ChangeEvent;
+import jsondatabase.JsonDatabaseManager;
+import jsondatabase.ProgressSnapshot;
+import jsondatabase.ScoreHistogram;
+import models.Course;
+import models.Lesson;
+import models.Student;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Flow;
+
+/**
+ * What would happen to a quiz's students at a different pass mark.
+ *
+ * Who would pass is read from the course's best-score histogram of the lesson. Who
+ * would finish the course needs one more histogram per lesson: the best scores on
+ * that lesson of the students who have already completed every other lesson of the
+ * course, since only they finish as soon as they pass it. Lesson ids repeat across
+ * courses, so both only count a student's score where
+ * {@link JsonDatabaseManager#getCourseOfLesson} puts it. Those are kept up to date from change
+ * events (each student's share is remembered, so a save moves it in O(lessons), and
+ * so are the courses each student has a share in, so a save only visits the student's
+ * own courses), and a what-if is then a sum over 101 buckets, never a scan of the users.
+ *
+ * There is one instance per data folder, see {@link #of}.
+ */
+public final class PassThresholds {
+
+    /** Every threshold 0-100 for one quiz, answered from counts taken together. */
+    public static final class WhatIf {
+        private final int passMark;
+        private final long[] passing = new long[ScoreHistogram.BUCKETS + 1];
+        private final long[] completing = new long[ScoreHistogram.BUCKETS + 1];
+
+        private WhatIf(int passMark, ScoreHistogram scores, int[] ready) {
+            this.passMark = passMark;
+            // Running totals from the top: index t holds the students at t or above
+            for (int s = ScoreHistogram.BUCKETS - 1; s >= 0; s--) {
+                passing[s] = passing[s + 1] + scores.count(s);
+                completing[s] = completing[s + 1] + (ready == null ? 0 : ready[s]);
+            }
+        }
+
+        /** The quiz's pass mark now. */
+        public int passMark() {
+            return passMark;
+        }
+
+        /** Students who took the quiz. */
+        public long attempted() {
+            return passing[0];
+        }
+
+        /** Students whose best score reaches the threshold. */
+        public long passing(int threshold) {
+            return passing[clamp(threshold)];
+        }
+
+        /** Students who would have every lesson of the course done, so a certificate. */
+        public long completing(int threshold) {
+            return completing[clamp(threshold)];
+        }
+
+        /** Certificates gained (positive) or lost (negative) compared with the current pass mark. */
+        public long certificateChange(int threshold) {
+            return completing(threshold) - completing(passMark);
+        }
+
+        private static int clamp(int threshold) {
+            return Math.max(0, Math.min(ScoreHistogram.BUCKETS, threshold));
+        }
+    }
+
+    private static final Map<Path, PassThresholds> OPEN = new ConcurrentHashMap<>();
+
+    /** The "others done" histograms of one course; ready[lesson][best score]. */
+    private static final class CourseCounts {
+        final List<String> lessonIds;
+        final int[][] ready;
+        final Map<Integer, int[]> shares = new HashMap<>(); // student -> bucket counted per lesson (-1 none)
+
+        CourseCounts(List<String> lessonIds) {
+            this.lessonIds = lessonIds;
+            this.ready = new int[lessonIds.size()][ScoreHistogram.BUCKETS];
+        }
+
+        /** Replaces the student's share (null = no longer enrolled); {@code scored}: per lesson, whether its score counts here. */
+        void put(int studentId, ProgressSnapshot p, boolean[] scored) {
+            int[] old = shares.remove(studentId);
+            if (old != null) {
+                for (int i = 0; i < old.length; i++) {
+                    if (old[i] >= 0) ready[i][old[i]]--;
+                }
+            }
+            if (p == null) return;
+            int[] share = share(p, scored);
+            for (int i = 0; i < share.length; i++) {
+                if (share[i] >= 0) ready[i][share[i]]++;
+            }
+            shares.put(studentId, share);
+        }
+
+        private int[] share(ProgressSnapshot p, boolean[] scored) {
+            List<ProgressSnapshot.LessonProgress> lessons = p.lessons();
+            int done = 0;
+            for (ProgressSnapshot.LessonProgress l : lessons) {
+                if (l.completed()) done++;
+            }
+            int[] share = new int[lessons.size()];
+            for (int i = 0; i < share.length; i++) {
+                ProgressSnapshot.LessonProgress l = lessons.get(i);
+                int othersDone = done - (l.completed() ? 1 : 0);
+                share[i] = othersDone == share.length - 1 && l.bestScore() >= 0 && scored[i]
+                        ? Math.min(l.bestScore(), ScoreHistogram.BUCKETS - 1)
+                        : -1;
+            }
+            return share;
+        }
+    }
+
+    private final JsonDatabaseManager db;
+    private final GradingEngine grading;
+    // Guarded by courses: the first build (caller's thread) and events (publisher's thread) both write
+    private final Map<String, CourseCounts> courses = new HashMap<>();
+    private final Map<Integer, Set<String>> coursesOfStudent = new HashMap<>(); // the courses with a share of the student
+
+    private PassThresholds(JsonDatabaseManager db) {
+        this.db = db;
+        this.grading = GradingEngine.of(db);
+    }
+
+    /** The pass-mark simulator of the manager's data folder, built on first use. */
+    public static PassThresholds of(JsonDatabaseManager db) {
+        return OPEN.computeIfAbsent(db.getDataFolder(), folder -> {
+            PassThresholds thresholds = new PassThresholds(db);
+            thresholds.start();
+            return thresholds;
+        });
+    }
+
+    private void start() {
+        // Subscribe before the first build, so no save can slip between the two
+        db.changes().subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(ChangeEvent event) {
+                try {
+                    handle(event);
+                } catch (RuntimeException e) {
+                    e.printStackTrace();
+                }
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                throwable.printStackTrace();
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+        rebuildAll();
+    }
+
+    /**
+     * Pass and completion counts of the lesson's quiz at every threshold.
+     *
+     * @throws IllegalArgumentException if the course, lesson or quiz does not exist
+     */
+    public WhatIf whatIf(String courseId, String lessonId) {
+        GradingEngine.AnswerKey key = grading.key(courseId, lessonId);
+        ScoreHistogram scores = db.getLessonScoreHistogram(courseId, lessonId);
+        synchronized (courses) {
+            CourseCounts counts = courses.get(courseId);
+            int i = counts == null ? -1 : counts.lessonIds.indexOf(lessonId);
+            return new WhatIf(key.getPassingPercentage(), scores, i < 0 ? null : counts.ready[i].clone());
+        }
+    }
+
+    // ===================================================================
+    // UPDATES
+    // ===================================================================
+
+    private void handle(ChangeEvent event) {
+        synchronized (courses) {
+            switch (event) {
+                // Also sent for every saved attempt, enrollment and completed lesson
+                case ChangeEvent.UserUpdated e -> {
+                    Student s = db.getUserById(e.userId()) instanceof Student st ? st : null;
+                    Set<String> enrolled = s == null ? Set.of() : new HashSet<>(s.getEnrolledCourseIds());
+                    // The student's courses now, and the ones they had a share in (maybe unenrolled since)
+                    Set<String> visit = new HashSet<>(enrolled);
+                    visit.addAll(coursesOfStudent.getOrDefault(e.userId(), Set.of()));
+                    for (String courseId : visit) {
+                        CourseCounts counts = courses.get(courseId);
+                        if (counts == null) continue;
+                        if (enrolled.contains(courseId)) {
+                            update(courseId, counts, s);
+                        } else {
+                            put(courseId, counts, e.userId(), null, null); // unenrolled, or no longer a student
+                        }
+                    }
+                }
+                case ChangeEvent.UserRemoved e -> {
+                    for (String courseId : new ArrayList<>(coursesOfStudent.getOrDefault(e.userId(), Set.of()))) {
+                        CourseCounts counts = courses.get(courseId);
+                        if (counts != null) put(courseId, counts, e.userId(), null, null);
+                    }
+                }
+                case ChangeEvent.CourseUpdated e -> {
+                    // Only a change to the lesson list moves students between histograms
+                    Course c = db.getCourseById(e.courseId());
+                    CourseCounts counts = courses.get(e.courseId());
+                    if (c == null) {
+                        courseGone(e.courseId());
+                    } else if (counts == null || !counts.lessonIds.equals(lessonIds(c))) {
+                        Set<String> moved = new HashSet<>(lessonIds(c));
+                        if (counts != null) moved.addAll(counts.lessonIds);
+                        rebuild(c);
+                        rebuildSharing(moved, e.courseId());
+                    }
+                }
+                case ChangeEvent.CourseRemoved e -> courseGone(e.courseId());
+                case ChangeEvent.DataReloaded e -> rebuildAll();
+                default -> {
+                }
+            }
+        }
+    }
+
+    private void rebuildAll() {
+        synchronized (courses) {
+            courses.clear();
+            coursesOfStudent.clear();
+            for (Course c : db.loadCourses()) rebuild(c);
+        }
+    }
+
+    private void rebuild(Course c) {
+        remove(c.getCourseId());
+        CourseCounts fresh = new CourseCounts(lessonIds(c));
+        courses.put(c.getCourseId(), fresh);
+        for (String id : c.getStudents()) {
+            try {
+                int studentId = Integer.parseInt(id.trim());
+                ProgressSnapshot p = db.getProgress(studentId, c.getCourseId());
+                if (p != null && db.getUserById(studentId) instanceof Student s) put(c.getCourseId(), fresh, studentId, p, s);
+            } catch (NumberFormatException e) {
+                // not a student id; skip
+            }
+        }
+    }
+
+    private void courseGone(String courseId) {
+        CourseCounts old = courses.get(courseId);
+        remove(courseId);
+        if (old != null) rebuildSharing(new HashSet<>(old.lessonIds), courseId);
+    }
+
+    /** Rebuilds the other courses with any of these lesson ids: their students' scores may count elsewhere now. */
+    private void rebuildSharing(Set<String> lessonIds, String changedCourseId) {
+        for (String courseId : new ArrayList<>(courses.keySet())) {
+            if (courseId.equals(changedCourseId)) continue;
+            CourseCounts counts = courses.get(courseId);
+            if (counts.lessonIds.stream().noneMatch(lessonIds::contains)) continue;
+            Course c = db.getCourseById(courseId);
+            if (c != null) rebuild(c);
+        }
+    }
+
+    private void remove(String courseId) {
+        CourseCounts old = courses.remove(courseId);
+        if (old == null) return;
+        for (Integer studentId : old.shares.keySet()) forget(studentId, courseId);
+    }
+
+    /** Replaces the student's share in the course and keeps the reverse map in step; {@code s} is needed with {@code p}. */
+    private void put(String courseId, CourseCounts counts, int studentId, ProgressSnapshot p, Student s) {
+        counts.put(studentId, p, p == null ? null : scored(courseId, s, p));
+        if (p != null) {
+            coursesOfStudent.computeIfAbsent(studentId, id -> new HashSet<>()).add(courseId);
+        } else {
+            forget(studentId, courseId);
+        }
+    }
+
+    private void forget(int studentId, String courseId) {
+        Set<String> ids = coursesOfStudent.get(studentId);
+        if (ids != null && ids.remove(courseId) && ids.isEmpty()) coursesOfStudent.remove(studentId);
+    }
+
+    /** Per lesson, whether the student's score on it counts for this course, as in the score histograms. */
+    private boolean[] scored(String courseId, Student s, ProgressSnapshot p) {
+        boolean[] scored = new boolean[p.lessons().size()];
+        for (int i = 0; i < scored.length; i++) {
+            scored[i] = courseId.equals(db.getCourseOfLesson(s, p.lessons().get(i).lessonId()));
+        }
+        return scored;
+    }
+
+    private void update(String courseId, CourseCounts counts, Student s) {
+        int studentId = s.getUserId();
+        ProgressSnapshot p = db.getProgress(studentId, courseId);
+        if (p != null && !sameLessons(p, counts.lessonIds)) {
+            // The course changed and its CourseUpdated is still on the way
+            Course c = db.getCourseById(courseId);
+            if (c != null) rebuild(c);
+            return;
+        }
+        put(courseId, counts, studentId, p, s);
+    }
+
+    private static boolean sameLessons(ProgressSnapshot p, List<String> lessonIds) {
+        if (p.lessons().size() != lessonIds.size()) return false;
+        for (int i = 0; i < lessonIds.size(); i++) {
+            if (!p.lessons().get(i).lessonId().equals(lessonIds.get(i))) return false;
+        }
+        return true;
+    }
+
+    private static List<String> lessonIds(Course c) {
+        List<String> ids = new ArrayList<>();
+        for (Lesson l : c.getLessons()) ids.add(l.getLessonId());
+        return ids;
+    }
+}
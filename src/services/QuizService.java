@@ -0,0 +1,80 @@
+package services;
+
+import jsondatabase.JsonDatabaseManager;
+import models.*;
+
+/**
+ * Quiz grading and attempt bookkeeping.
+ */
+public class QuizService {
+
+    /** Score of one submission. */
+    public record Grade(int correctCount, int totalQuestions, int score, boolean passed) {
+    }
+
+    /** A graded and saved attempt. */
+    public record Submission(QuizAttempt attempt, Grade grade) {
+    }
+
+    private final JsonDatabaseManager db;
+    private final GradingEngine grading;
+
+    public QuizService(JsonDatabaseManager db) {
+        this.db = db;
+        this.grading = GradingEngine.of(db);
+    }
+
+    /** False once the student has used up the quiz's attempts (0 means unlimited). */
+    public boolean canTakeQuiz(int studentId, Lesson lesson) {
+        Quiz quiz = lesson.getQuiz();
+        return quiz != null && db.canTakeQuiz(studentId, lesson.getLessonId(), quiz.getMaxAttempts());
+    }
+
+    /**
+     * Grades the answers against the quiz's compiled key and records the attempt;
+     * a passing score also completes the lesson (and may earn the course certificate).
+     *
+     * @throws IllegalArgumentException if the course, lesson or quiz does not exist
+     * @throws IllegalStateException if no attempts are left
+     */
+    public Submission submit(int studentId, String courseId, String lessonId, int[] answers) {
+        GradingEngine.AnswerKey key = grading.key(courseId, lessonId);
+        if (!db.canTakeQuiz(studentId, lessonId, key.getMaxAttempts())) {
+            throw new IllegalStateException("You have reached the maximum number of attempts for this quiz.");
+        }
+
+        Grade grade = key.grade(answers);
+        QuizAttempt attempt = new QuizAttempt(lessonId, System.currentTimeMillis(),
+                grade.score(), grade.correctCount(), grade.totalQuestions(), answers(answers, key.totalQuestions()));
+        // The check above is a fast path; this one is atomic with the save
+        if (!db.recordQuizAttempt(studentId, lessonId, attempt, key.getPassingPercentage(), key.getMaxAttempts())) {
+            if (db.getUserById(studentId) == null) throw new IllegalArgumentException("Student not found!");
+            throw new IllegalStateException("You have reached the maximum number of attempts for this quiz.");
+        }
+        return new Submission(attempt, grade);
+    }
+
+    /** The answers trimmed or padded (with "not answered") to the quiz's length. */
+    static int[] answers(int[] answers, int questions) {
+        int[] out = new int[questions];
+        for (int i = 0; i < questions; i++) {
+            out[i] = answers != null && i < answers.length ? answers[i] : -1;
+        }
+        return out;
+    }
+
+    /** The answer-key cache behind {@link #submit}, also for grading batches. */
+    public GradingEngine grading() {
+        return grading;
+    }
+
+    /** The stored lesson, for reading its content or quiz. */
+    public Lesson findLesson(String courseId, String lessonId) {
+        Course course = db.getCourseById(courseId);
+        if (course == null) throw new IllegalArgumentException("Course not found!");
+        for (Lesson l : course.getLessons()) {
+            if (l.getLessonId().equals(lessonId)) return l;
+        }
+        throw new IllegalArgumentException("Lesson not found!");
+    }
+}
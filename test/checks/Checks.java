@@ -0,0 +1,61 @@
+package checks;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+
+/**
+ * A minimal check runner, so behaviour checks need no extra jars (see the
+ * {@code check} target in build.xml). Every *Check class has a
+ * {@code public static void main(String[])} that throws on the first failed check;
+ * the runner calls each one and reports them all.
+ *
+ * <pre>
+ *   ant check
+ * </pre>
+ */
+public final class Checks {
+
+    private Checks() {
+    }
+
+    public static void check(boolean condition, String what) {
+        if (!condition) throw new AssertionError(what);
+    }
+
+    public static void equal(Object expected, Object actual, String what) {
+        if (!Objects.equals(expected, actual)) {
+            throw new AssertionError(what + ": expected " + expected + " but was " + actual);
+        }
+    }
+
+    /** A new empty data folder for one check. */
+    public static String tempFolder(String name) {
+        try {
+            return Files.createTempDirectory("skillforge-" + name).toString();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** Runs the named check classes; exits with 1 if any failed. */
+    public static void main(String[] classNames) throws Exception {
+        int failed = 0;
+        for (String name : classNames) {
+            Method main = Class.forName(name).getMethod("main", String[].class);
+            long start = System.nanoTime();
+            try {
+                main.invoke(null, (Object) new String[0]);
+                System.out.printf("PASS %s (%d ms)%n", name, (System.nanoTime() - start) / 1_000_000);
+            } catch (InvocationTargetException e) {
+                failed++;
+                System.out.println("FAIL " + name + ": " + e.getCause());
+                e.getCause().printStackTrace(System.out);
+            }
+        }
+        System.out.println((classNames.length - failed) + " of " + classNames.length + " checks passed.");
+        if (failed > 0) System.exit(1);
+    }
+}
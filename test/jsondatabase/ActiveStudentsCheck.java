@@ -0,0 +1,68 @@
+package jsondatabase;
+
+import models.Course;
+import models.Lesson;
+import models.QuizAttempt;
+import models.Student;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static checks.Checks.check;
+import static checks.Checks.equal;
+import static checks.Checks.tempFolder;
+import static jsondatabase.GroupCommitCheck.student;
+
+/**
+ * Active students per course. Lesson ids repeat across courses, so an attempt counts
+ * for the student's own course with that lesson, never for another course's "L01".
+ */
+public final class ActiveStudentsCheck {
+
+    public static void main(String[] args) {
+        JsonDatabaseManager db = new JsonDatabaseManager(tempFolder("active"));
+        db.addCourse(course("C1", "L01", "L02"));
+        db.addCourse(course("C2", "L01"));
+        enroll(db, 1, "C1");
+        enroll(db, 2, "C2");
+        enroll(db, 3, "C1", "C2");
+
+        attempt(db, 1, "L01");
+        equal(1L, db.getActiveStudents(List.of("C1"), 7), "student 1 in C1");
+        equal(0L, db.getActiveStudents(List.of("C2"), 7), "not in C2, which also has L01");
+
+        attempt(db, 2, "L01");
+        equal(1L, db.getActiveStudents(List.of("C2"), 7), "student 2 in C2");
+        equal(1L, db.getActiveStudents(List.of("C1"), 7), "C1 unchanged");
+
+        // In both courses: no way to tell which L01, so only the platform counts it
+        attempt(db, 3, "L01");
+        equal(1L, db.getActiveStudents(List.of("C1"), 7), "ambiguous attempt not in C1");
+        equal(1L, db.getActiveStudents(List.of("C2"), 7), "ambiguous attempt not in C2");
+        equal(3L, db.getActiveStudentsOnPlatform(7), "every student on the platform");
+
+        // A lesson only C1 has is unambiguous
+        attempt(db, 3, "L02");
+        equal(2L, db.getActiveStudents(List.of("C1"), 7), "student 3 in C1 through L02");
+        equal(3L, db.getActiveStudents(List.of("C1", "C2"), 7), "union of the courses");
+    }
+
+    private static Course course(String id, String... lessonIds) {
+        Course c = new Course(id, id, id, "7", "APPROVED");
+        List<Lesson> lessons = new ArrayList<>();
+        for (String l : lessonIds) lessons.add(new Lesson(l, l, "", new ArrayList<>()));
+        c.setLessons(lessons);
+        return c;
+    }
+
+    private static void enroll(JsonDatabaseManager db, int id, String... courseIds) {
+        Student s = student(id);
+        for (String c : courseIds) s.enrollInCourse(c);
+        db.addUser(s);
+    }
+
+    private static void attempt(JsonDatabaseManager db, int studentId, String lessonId) {
+        QuizAttempt a = new QuizAttempt(lessonId, System.currentTimeMillis(), 80, 4, 5);
+        check(db.recordQuizAttempt(studentId, lessonId, a, 60, 0), "attempt saved");
+    }
+}
@@ -0,0 +1,78 @@
+package jsondatabase;
+
+import models.Course;
+import models.Lesson;
+import models.QuizAttempt;
+import models.Student;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static checks.Checks.check;
+import static checks.Checks.equal;
+import static checks.Checks.tempFolder;
+import static jsondatabase.GroupCommitCheck.student;
+
+/**
+ * Attempts over time per course. Two courses that both have "L01" count only their
+ * own students' attempts; the platform counts every attempt, and a student's
+ * attempts follow their enrollments and the courses' lesson lists.
+ */
+public final class ActivityRollupCheck {
+
+    private static final ActivitySeries.Resolution DAY = ActivitySeries.Resolution.DAY;
+
+    public static void main(String[] args) {
+        JsonDatabaseManager db = new JsonDatabaseManager(tempFolder("activity"));
+        db.addCourse(course("C1", "L01", "L02"));
+        db.addCourse(course("C2", "L01"));
+        enroll(db, 1, "C1");
+        enroll(db, 2, "C2");
+        enroll(db, 3, "C1", "C2");
+
+        attempt(db, 1, "L01");
+        attempt(db, 1, "L02");
+        attempt(db, 2, "L01");
+        attempt(db, 2, "L01");
+        attempt(db, 3, "L01");
+        equal(2L, db.getCourseActivity("C1", DAY, 7).total(), "C1 attempts");
+        equal(1L, db.getLessonActivity("C1", "L01", DAY, 7).total(), "C1's L01 attempts");
+        equal(2L, db.getCourseActivity("C2", DAY, 7).total(), "C2 attempts");
+        equal(5L, db.getPlatformActivity(DAY, 7).total(), "platform attempts, ambiguous one included");
+
+        // Student 2 joins C1 too: their L01 attempts can no longer be told apart
+        check(db.updateUser(2, u -> ((Student) u).enrollInCourse("C1")).isUpdated(), "enroll 2 in C1");
+        equal(0L, db.getCourseActivity("C2", DAY, 7).total(), "C2 after student 2 became ambiguous");
+        equal(2L, db.getCourseActivity("C1", DAY, 7).total(), "C1 unchanged");
+
+        // C2 drops its L01: every L01 attempt is C1's
+        check(db.updateCourse("C2", c -> c.setLessons(lessons("L03"))).isUpdated(), "edit C2's lessons");
+        equal(4L, db.getLessonActivity("C1", "L01", DAY, 7).total(), "C1's L01 after the edit");
+        equal(5L, db.getCourseActivity("C1", DAY, 7).total(), "C1 after the edit");
+        equal(0L, db.getLessonActivity("C2", "L01", DAY, 7).total(), "C2 has no L01");
+        equal(5L, db.getPlatformActivity(DAY, 7).total(), "platform unchanged");
+    }
+
+    private static Course course(String id, String... lessonIds) {
+        Course c = new Course(id, id, id, "7", "APPROVED");
+        c.setLessons(lessons(lessonIds));
+        return c;
+    }
+
+    private static List<Lesson> lessons(String... lessonIds) {
+        List<Lesson> lessons = new ArrayList<>();
+        for (String l : lessonIds) lessons.add(new Lesson(l, l, "", new ArrayList<>()));
+        return lessons;
+    }
+
+    private static void enroll(JsonDatabaseManager db, int id, String... courseIds) {
+        Student s = student(id);
+        for (String c : courseIds) s.enrollInCourse(c);
+        db.addUser(s);
+    }
+
+    private static void attempt(JsonDatabaseManager db, int studentId, String lessonId) {
+        QuizAttempt a = new QuizAttempt(lessonId, System.currentTimeMillis(), 80, 4, 5);
+        check(db.recordQuizAttempt(studentId, lessonId, a, 60, 0), "attempt saved");
+    }
+}
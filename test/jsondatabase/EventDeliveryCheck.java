@@ -0,0 +1,86 @@
+package jsondatabase;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static checks.Checks.check;
+import static checks.Checks.equal;
+import static checks.Checks.tempFolder;
+import static jsondatabase.GroupCommitCheck.student;
+
+/**
+ * A subscriber that stops reading fills its buffer. Saves and checkpoints go on
+ * regardless, the stuck subscriber is told to reload once it reads again, and the
+ * other subscribers get every event and no reload.
+ */
+public final class EventDeliveryCheck {
+
+    public static void main(String[] args) throws Exception {
+        String folder = tempFolder("events");
+        JsonDatabaseManager db = new JsonDatabaseManager(folder);
+        db.addUser(student(1));
+
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch stuckReloaded = new CountDownLatch(1);
+        subscribe(db, event -> {
+            try {
+                release.await(); // a screen that does not get round to its events
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (event instanceof ChangeEvent.DataReloaded) stuckReloaded.countDown();
+        });
+        AtomicInteger updates = new AtomicInteger();
+        AtomicInteger reloads = new AtomicInteger();
+        subscribe(db, event -> {
+            if (event instanceof ChangeEvent.UserUpdated) updates.incrementAndGet();
+            if (event instanceof ChangeEvent.DataReloaded) reloads.incrementAndGet();
+        });
+
+        int saves = Flow.defaultBufferSize() * 2;
+        for (int n = 0; n < saves; n++) {
+            String email = "save" + n + "@example.com";
+            check(db.updateUser(1, u -> u.setEmail(email)).isUpdated(), "save " + n);
+        }
+        String last = "save" + (saves - 1) + "@example.com";
+        Path users = Path.of(folder).resolve("users.json");
+        long deadline = System.currentTimeMillis() + 15_000;
+        while (!Files.readString(users).contains(last) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+        }
+        check(Files.readString(users).contains(last), "checkpoint wrote users.json while a subscriber was stuck");
+
+        release.countDown();
+        check(stuckReloaded.await(15, TimeUnit.SECONDS), "stuck subscriber told to reload");
+        while (updates.get() < saves && System.currentTimeMillis() < deadline) Thread.sleep(50);
+        equal(saves, updates.get(), "events seen by the subscriber that kept up");
+        equal(0, reloads.get(), "reloads sent to the subscriber that kept up");
+    }
+
+    private static void subscribe(JsonDatabaseManager db, Consumer<ChangeEvent> onEvent) {
+        db.changes().subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(ChangeEvent event) {
+                onEvent.accept(event);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+    }
+}
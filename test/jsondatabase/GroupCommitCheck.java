@@ -0,0 +1,145 @@
+package jsondatabase;
+
+import models.QuizAttempt;
+import models.Student;
+import models.User;
+import org.json.JSONObject;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static checks.Checks.check;
+import static checks.Checks.equal;
+import static checks.Checks.tempFolder;
+
+/**
+ * Concurrent submissions: commits to different students only meet on the folder
+ * lock for the append and publish, and share their journal force.
+ */
+public final class GroupCommitCheck {
+
+    private static final int STUDENTS = 64;
+    private static final int COMMITS_PER_STUDENT = 10;
+
+    public static void main(String[] args) throws Exception {
+        buildsRunInParallel();
+        journalForcesAreShared();
+        commitsFromManySubmitters();
+    }
+
+    /** A commit still building its record (a slow change) must not hold up a commit to another student. */
+    private static void buildsRunInParallel() throws Exception {
+        JsonDatabaseManager db = new JsonDatabaseManager(tempFolder("parallel-builds"));
+        db.addUser(student(1));
+        db.addUser(student(2));
+        CountDownLatch building = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try (ExecutorService pool = Executors.newFixedThreadPool(2)) {
+            Future<UpdateResult<User>> slow = pool.submit(() -> db.updateUser(1, u -> {
+                building.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            check(building.await(5, TimeUnit.SECONDS), "slow commit started");
+            Future<UpdateResult<User>> fast = pool.submit(() -> db.updateUser(2, u -> { }));
+            check(fast.get(5, TimeUnit.SECONDS).isUpdated(), "other student committed while the first was building");
+            check(!slow.isDone(), "slow commit still building");
+            release.countDown();
+            check(slow.get(5, TimeUnit.SECONDS).isUpdated(), "slow commit finished");
+        }
+    }
+
+    /** Appenders waiting on a force are covered by the next one: fewer fsyncs than records, more records per second. */
+    private static void journalForcesAreShared() throws Exception {
+        Journal journal = new Journal(Path.of(tempFolder("journal")).resolve("journal.log"));
+        appendsPerSecond(journal, 1, 200); // warm up
+        double alone = appendsPerSecond(journal, 1, 800);
+        long forcesBefore = journal.forces();
+        double together = appendsPerSecond(journal, 16, 800);
+        long forces = journal.forces() - forcesBefore;
+        System.out.printf("  journal: 1 appender %.0f records/s, 16 appenders %.0f records/s, %d forces for 800 records%n",
+                alone, together, forces);
+        check(forces < 800, "concurrent appenders share forces");
+        check(together > alone, "throughput grows with concurrent appenders");
+        List<JSONObject> records = new ArrayList<>();
+        journal.readFrom(0, records);
+        equal(1800, records.size(), "records in the journal");
+        journal.close();
+    }
+
+    private static double appendsPerSecond(Journal journal, int threads, int records) throws Exception {
+        Object folderLock = new Object(); // the folder lock DataStore holds around an append
+        long start = System.nanoTime();
+        try (ExecutorService pool = Executors.newFixedThreadPool(threads)) {
+            List<Future<?>> done = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                done.add(pool.submit(() -> {
+                    for (int n = 0; n < records / threads; n++) {
+                        long written;
+                        synchronized (folderLock) {
+                            written = journal.append(new JSONObject().put("users", "x".repeat(200)));
+                        }
+                        journal.force(written);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> f : done) f.get();
+        }
+        return records / ((System.nanoTime() - start) / 1e9);
+    }
+
+    /** Every attempt submitted from many threads at once is saved, once, on the right student. */
+    private static void commitsFromManySubmitters() throws Exception {
+        JsonDatabaseManager db = new JsonDatabaseManager(tempFolder("group-commit"));
+        Transaction tx = db.beginTransaction();
+        for (int i = 0; i < STUDENTS; i++) tx.putUser(student(1000 + i));
+        equal(UpdateResult.Status.UPDATED, tx.commit(), "students added");
+
+        double alone = commitsPerSecond(db, 1, "L-one");
+        double together = commitsPerSecond(db, STUDENTS, "L-many");
+        System.out.printf("  store: 1 submitter %.0f commits/s, %d submitters %.0f commits/s%n",
+                alone, STUDENTS, together);
+
+        for (int i = 0; i < STUDENTS; i++) {
+            Student s = (Student) db.getUserById(1000 + i);
+            equal(COMMITS_PER_STUDENT, s.getAttemptsForLesson("L-many").size(), "attempts of student " + s.getUserId());
+            equal(2L * COMMITS_PER_STUDENT, s.getVersion(), "version of student " + s.getUserId());
+        }
+    }
+
+    /** Every student gets {@code COMMITS_PER_STUDENT} attempts, spread over {@code threads} submitters. */
+    private static double commitsPerSecond(JsonDatabaseManager db, int threads, String lessonId) throws Exception {
+        long start = System.nanoTime();
+        try (ExecutorService pool = Executors.newFixedThreadPool(threads)) {
+            List<Future<?>> done = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int first = t;
+                done.add(pool.submit(() -> {
+                    for (int n = 0; n < COMMITS_PER_STUDENT; n++) {
+                        for (int i = first; i < STUDENTS; i += threads) {
+                            QuizAttempt a = new QuizAttempt(lessonId, System.currentTimeMillis(), 80, 4, 5);
+                            check(db.recordQuizAttempt(1000 + i, lessonId, a, 60, 0), "attempt saved");
+                        }
+                    }
+                }));
+            }
+            for (Future<?> f : done) f.get();
+        }
+        return STUDENTS * COMMITS_PER_STUDENT / ((System.nanoTime() - start) / 1e9);
+    }
+
+    static Student student(int id) {
+        return new Student(null, null, id, "student" + id, "student" + id + "@example.com",
+                "password", User.ROLE_STUDENT, false);
+    }
+}
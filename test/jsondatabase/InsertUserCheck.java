@@ -0,0 +1,63 @@
+package jsondatabase;
+
+import models.Student;
+import models.User;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static checks.Checks.check;
+import static checks.Checks.equal;
+import static checks.Checks.tempFolder;
+import static jsondatabase.GroupCommitCheck.student;
+
+/** Sign-up is an insert: it never replaces a user, and a taken id or username (any case) is a CONFLICT. */
+public final class InsertUserCheck {
+
+    private static final int SIGN_UPS = 32;
+
+    public static void main(String[] args) throws Exception {
+        takenIdOrUsernameConflicts();
+        oneOfManySignUpsWins();
+    }
+
+    private static void takenIdOrUsernameConflicts() {
+        JsonDatabaseManager db = new JsonDatabaseManager(tempFolder("insert"));
+        check(db.insertUser(student(1)).isUpdated(), "new user added");
+
+        Student sameId = new Student(null, null, 1, "someone", "someone@example.com", "password", User.ROLE_STUDENT, false);
+        UpdateResult<User> byId = db.insertUser(sameId);
+        check(byId.isConflict(), "taken id");
+        equal("student1", byId.getCurrent().getUsername(), "conflict hands back the user in the way");
+
+        Student sameName = new Student(null, null, 2, "STUDENT1", "other@example.com", "password", User.ROLE_STUDENT, false);
+        UpdateResult<User> byName = db.insertUser(sameName);
+        check(byName.isConflict(), "taken username, other case");
+        equal(1, byName.getCurrent().getUserId(), "conflict hands back the user in the way");
+        check(db.getUserById(2) == null, "nothing added");
+        equal(1, db.getUserByUsername("Student1").getUserId(), "lookup ignores case");
+    }
+
+    /** Sign-ups with one username and different ids take different lock stripes; only one may win. */
+    private static void oneOfManySignUpsWins() throws Exception {
+        JsonDatabaseManager db = new JsonDatabaseManager(tempFolder("insert-race"));
+        List<Future<UpdateResult<User>>> results = new ArrayList<>();
+        try (ExecutorService pool = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < SIGN_UPS; i++) {
+                Student s = new Student(null, null, 100 + i, "popular", "popular" + i + "@example.com",
+                        "password", User.ROLE_STUDENT, false);
+                results.add(pool.submit(() -> db.insertUser(s)));
+            }
+        }
+        int added = 0;
+        for (Future<UpdateResult<User>> r : results) {
+            if (r.get().isUpdated()) added++;
+            else check(r.get().isConflict(), "the others conflict");
+        }
+        equal(1, added, "sign-ups that won");
+        equal(1, db.loadUsers().size(), "users stored");
+    }
+}
@@ -0,0 +1,50 @@
+package jsondatabase;
+
+import models.Course;
+import models.Student;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static checks.Checks.check;
+import static checks.Checks.equal;
+import static checks.Checks.tempFolder;
+import static jsondatabase.GroupCommitCheck.student;
+
+/** Recommendations come from co-enrollment counts: the courses most often taken with the student's own. */
+public final class RecommendationCheck {
+
+    public static void main(String[] args) {
+        JsonDatabaseManager db = new JsonDatabaseManager(tempFolder("recommend"));
+        for (String id : List.of("A", "B", "C", "D")) db.addCourse(new Course(id, id, id, "7", "APPROVED"));
+        // A (five students) is taken with B by three of them and with C by one; D has four of its own
+        enroll(db, 1, "A", "B");
+        enroll(db, 2, "A", "B");
+        enroll(db, 3, "A", "B");
+        enroll(db, 4, "A", "C");
+        enroll(db, 5, "D");
+        enroll(db, 6, "D");
+        enroll(db, 7, "D");
+        enroll(db, 8, "D");
+        enroll(db, 9, "A");
+        enroll(db, 10);
+
+        equal(List.of("B", "C"), ids(db.getRecommendedCourses(9, 2)), "taken together with A");
+        equal(List.of("B"), ids(db.getRecommendedCourses(9, 1)), "best match only");
+        check(db.getRecommendedCourses(9, 0).isEmpty(), "limit 0");
+        check(db.getRecommendedCourses(9, -1).isEmpty(), "negative limit");
+        equal(List.of("A", "D"), ids(db.getRecommendedCourses(10, 2)), "no courses yet: most enrolled");
+    }
+
+    private static void enroll(JsonDatabaseManager db, int id, String... courseIds) {
+        Student s = student(id);
+        for (String c : courseIds) s.enrollInCourse(c);
+        db.addUser(s);
+    }
+
+    private static List<String> ids(List<Course> courses) {
+        List<String> ids = new ArrayList<>();
+        for (Course c : courses) ids.add(c.getCourseId());
+        return ids;
+    }
+}
@@ -0,0 +1,83 @@
+package jsondatabase;
+
+import models.Course;
+import models.Lesson;
+import models.QuizAttempt;
+import models.Student;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static checks.Checks.check;
+import static checks.Checks.equal;
+import static checks.Checks.tempFolder;
+import static jsondatabase.GroupCommitCheck.student;
+
+/**
+ * Best-score histograms per course and lesson. Two courses that both have "L01"
+ * keep separate histograms; a student enrolled in both counts in neither, and
+ * enrollments or lesson lists that change move the student's score with them.
+ */
+public final class ScoreHistogramCheck {
+
+    public static void main(String[] args) {
+        JsonDatabaseManager db = new JsonDatabaseManager(tempFolder("histograms"));
+        db.addCourse(course("C1", "L01", "L02"));
+        db.addCourse(course("C2", "L01"));
+        enroll(db, 1, "C1");
+        enroll(db, 2, "C2");
+        enroll(db, 3, "C1", "C2");
+
+        attempt(db, 1, "L01", 80);
+        attempt(db, 2, "L01", 40);
+        attempt(db, 3, "L01", 60);
+        ScoreHistogram c1 = db.getLessonScoreHistogram("C1", "L01");
+        ScoreHistogram c2 = db.getLessonScoreHistogram("C2", "L01");
+        equal(1L, c1.count(), "students in C1's L01");
+        equal(1, c1.count(80), "student 1's score in C1");
+        equal(1L, c2.count(), "students in C2's L01");
+        equal(1, c2.count(40), "student 2's score in C2");
+        equal(1L, db.getCourseScoreHistogram("C1").count(), "C1 course histogram");
+
+        // Enrolled in both now: student 2's L01 can no longer be told apart
+        check(db.updateUser(2, u -> ((Student) u).enrollInCourse("C1")).isUpdated(), "enroll 2 in C1");
+        equal(0L, db.getLessonScoreHistogram("C2", "L01").count(), "ambiguous student left C2");
+        equal(1L, db.getLessonScoreHistogram("C1", "L01").count(), "and did not join C1");
+
+        // C2 drops its L01: every L01 attempt of a C1 student is C1's again
+        check(db.updateCourse("C2", c -> c.setLessons(lessons("L03"))).isUpdated(), "edit C2's lessons");
+        ScoreHistogram moved = db.getLessonScoreHistogram("C1", "L01");
+        equal(3L, moved.count(), "students in C1's L01 after the edit");
+        equal(1, moved.count(40), "student 2 counted in C1");
+        equal(1, moved.count(60), "student 3 counted in C1");
+        equal(0L, db.getLessonScoreHistogram("C2", "L01").count(), "C2 has no L01");
+
+        // A better score replaces the old one in the student's course
+        attempt(db, 1, "L01", 95);
+        equal(0, db.getLessonScoreHistogram("C1", "L01").count(80), "old best taken out");
+        equal(1, db.getLessonScoreHistogram("C1", "L01").count(95), "new best put in");
+    }
+
+    private static Course course(String id, String... lessonIds) {
+        Course c = new Course(id, id, id, "7", "APPROVED");
+        c.setLessons(lessons(lessonIds));
+        return c;
+    }
+
+    private static List<Lesson> lessons(String... lessonIds) {
+        List<Lesson> lessons = new ArrayList<>();
+        for (String l : lessonIds) lessons.add(new Lesson(l, l, "", new ArrayList<>()));
+        return lessons;
+    }
+
+    private static void enroll(JsonDatabaseManager db, int id, String... courseIds) {
+        Student s = student(id);
+        for (String c : courseIds) s.enrollInCourse(c);
+        db.addUser(s);
+    }
+
+    private static void attempt(JsonDatabaseManager db, int studentId, String lessonId, int score) {
+        QuizAttempt a = new QuizAttempt(lessonId, System.currentTimeMillis(), score, score / 20, 5);
+        check(db.recordQuizAttempt(studentId, lessonId, a, 60, 0), "attempt saved");
+    }
+}
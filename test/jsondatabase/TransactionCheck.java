@@ -0,0 +1,135 @@
+package jsondatabase;
+
+import models.Course;
+import models.Student;
+import models.User;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static checks.Checks.check;
+import static checks.Checks.equal;
+import static checks.Checks.tempFolder;
+import static jsondatabase.GroupCommitCheck.student;
+
+/**
+ * Transactions are all-or-nothing, and a store opened on a folder replays the
+ * journal records that no checkpoint has written to the files yet.
+ */
+public final class TransactionCheck {
+
+    public static void main(String[] args) throws Exception {
+        commitSavesEveryRecord();
+        conflictSavesNothing();
+        missingRecordSavesNothing();
+        journalIsReplayedOnOpen();
+        closedFolderReopens();
+    }
+
+    private static void commitSavesEveryRecord() {
+        JsonDatabaseManager db = withStudentAndCourse("tx-commit");
+        UpdateResult.Status status = db.beginTransaction()
+                .updateUser(1, u -> ((Student) u).enrollInCourse("C1"))
+                .updateCourse("C1", c -> c.enrollStudent("1"))
+                .commit();
+        equal(UpdateResult.Status.UPDATED, status, "enrollment committed");
+        check(((Student) db.getUserById(1)).getEnrolledCourseIds().contains("C1"), "student saved");
+        check(db.getCourseById("C1").getStudents().contains("1"), "course saved");
+
+        Transaction tx = db.beginTransaction();
+        tx.commit();
+        try {
+            tx.commit();
+            check(false, "second commit refused");
+        } catch (IllegalStateException expected) {
+            // a transaction commits once
+        }
+    }
+
+    private static void conflictSavesNothing() {
+        JsonDatabaseManager db = withStudentAndCourse("tx-conflict");
+        User stale = db.getUserById(1);
+        check(db.updateUser(1, u -> u.setEmail("other@example.com")).isUpdated(), "concurrent save");
+
+        UpdateResult.Status status = db.beginTransaction()
+                .putUser(stale)
+                .updateCourse("C1", c -> c.enrollStudent("1"))
+                .commit();
+        equal(UpdateResult.Status.CONFLICT, status, "stale copy in the transaction");
+        check(!db.getCourseById("C1").getStudents().contains("1"), "course not saved either");
+        equal("other@example.com", db.getUserById(1).getEmail(), "concurrent save kept");
+    }
+
+    private static void missingRecordSavesNothing() {
+        JsonDatabaseManager db = withStudentAndCourse("tx-missing");
+        UpdateResult.Status status = db.beginTransaction()
+                .updateUser(1, u -> ((Student) u).enrollInCourse("C404"))
+                .updateCourse("C404", c -> c.enrollStudent("1"))
+                .commit();
+        equal(UpdateResult.Status.NOT_FOUND, status, "missing course");
+        check(((Student) db.getUserById(1)).getEnrolledCourseIds().isEmpty(), "student not saved either");
+    }
+
+    /** Journal records (as a crash before the checkpoint leaves them) are applied; a torn last line is dropped. */
+    private static void journalIsReplayedOnOpen() throws Exception {
+        Path folder = Path.of(tempFolder("tx-replay"));
+        Course course = new Course("C1", "Title", "Description", "7", "APPROVED");
+        Student enrolled = student(1);
+        enrolled.enrollInCourse("C1");
+        course.enrollStudent("1");
+        try (Journal journal = new Journal(folder.resolve("journal.log"))) {
+            journal.force(journal.append(new JSONObject()
+                    .put("users", new JSONArray().put(JsonCodec.toJson(student(1))))
+                    .put("courses", new JSONArray())));
+            journal.force(journal.append(new JSONObject()
+                    .put("users", new JSONArray().put(JsonCodec.toJson(enrolled)))
+                    .put("courses", new JSONArray().put(JsonCodec.toJson(course)))));
+        }
+        Files.writeString(folder.resolve("journal.log"), "{\"users\":[{\"userId\":2,",
+                StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        JsonDatabaseManager db = new JsonDatabaseManager(folder.toString());
+        check(((Student) db.getUserById(1)).getEnrolledCourseIds().contains("C1"), "later record wins");
+        check(db.getCourseById("C1").getStudents().contains("1"), "course replayed");
+        check(db.getUserById(2) == null, "torn record ignored");
+
+        // The torn line was cut off, so the next commit is a readable record of its own
+        check(db.updateUser(1, u -> u.setEmail("after@example.com")).isUpdated(), "commit after replay");
+        try (Journal journal = new Journal(folder.resolve("journal.log"))) {
+            List<JSONObject> records = new ArrayList<>();
+            long end = journal.readFrom(0, records);
+            if (end > 0) {
+                // Not checkpointed yet: every line parses and the last one is the new commit
+                equal(end, journal.size(), "no torn bytes left");
+                JSONObject last = records.get(records.size() - 1).getJSONArray("users").getJSONObject(0);
+                equal("after@example.com", last.getString("email"), "new commit journaled");
+            }
+        }
+    }
+
+    /** Closing writes the files, so a store opened on the folder afterwards has every commit. */
+    private static void closedFolderReopens() {
+        String folder = tempFolder("tx-reopen");
+        JsonDatabaseManager db = new JsonDatabaseManager(folder);
+        db.addUser(student(1));
+        check(db.updateUser(1, u -> ((Student) u).enrollInCourse("C1")).isUpdated(), "commit before close");
+        db.close();
+
+        JsonDatabaseManager reopened = new JsonDatabaseManager(folder);
+        check(((Student) reopened.getUserById(1)).getEnrolledCourseIds().contains("C1"), "commit kept after reopening");
+        reopened.close();
+    }
+
+    private static JsonDatabaseManager withStudentAndCourse(String name) {
+        JsonDatabaseManager db = new JsonDatabaseManager(tempFolder(name));
+        db.addUser(student(1));
+        db.addCourse(new Course("C1", "Title", "Description", "7", "APPROVED"));
+        return db;
+    }
+}
@@ -0,0 +1,77 @@
+package jsondatabase;
+
+import models.Course;
+import models.Student;
+import models.User;
+
+import static checks.Checks.check;
+import static checks.Checks.equal;
+import static checks.Checks.tempFolder;
+import static jsondatabase.GroupCommitCheck.student;
+
+/**
+ * Compare-and-set saves: a copy saves only if nobody saved the record since it was
+ * read; otherwise CONFLICT hands back the stored record and nothing changes.
+ */
+public final class VersionedUpdateCheck {
+
+    public static void main(String[] args) {
+        staleUserCopyConflicts();
+        staleCourseCopyConflicts();
+        missingRecordsAreNotFound();
+    }
+
+    private static void staleUserCopyConflicts() {
+        JsonDatabaseManager db = new JsonDatabaseManager(tempFolder("cas-users"));
+        db.addUser(student(1));
+        User first = db.getUserById(1);
+        User second = db.getUserById(1);
+        long version = first.getVersion();
+
+        first.setEmail("first@example.com");
+        UpdateResult<User> saved = db.updateUser(first);
+        check(saved.isUpdated(), "first copy saved");
+        equal(version + 1, first.getVersion(), "caller's copy gets the new version");
+        equal(version + 1, db.getUserById(1).getVersion(), "stored version");
+
+        second.setEmail("second@example.com");
+        UpdateResult<User> stale = db.updateUser(second);
+        check(stale.isConflict(), "stale copy conflicts");
+        equal("first@example.com", stale.getCurrent().getEmail(), "conflict hands back the stored user");
+        equal("first@example.com", db.getUserById(1).getEmail(), "stale copy not saved");
+
+        // Re-applying the change on the current record succeeds
+        User retry = stale.getCurrent();
+        retry.setEmail("second@example.com");
+        check(db.updateUser(retry).isUpdated(), "retry on the current record saved");
+        equal(version + 2, db.getUserById(1).getVersion(), "version after the retry");
+
+        // A merge-style change never conflicts, since it runs on the stored record
+        UpdateResult<User> merged = db.updateUser(1, u -> ((Student) u).enrollInCourse("C1"));
+        check(merged.isUpdated(), "change applied");
+        check(((Student) db.getUserById(1)).getEnrolledCourseIds().contains("C1"), "change kept");
+        equal("second@example.com", db.getUserById(1).getEmail(), "earlier save kept");
+    }
+
+    private static void staleCourseCopyConflicts() {
+        JsonDatabaseManager db = new JsonDatabaseManager(tempFolder("cas-courses"));
+        db.addCourse(new Course("C1", "Title", "Description", "7", "PENDING"));
+        Course first = db.getCourseById("C1");
+        Course second = db.getCourseById("C1");
+
+        first.setTitle("Renamed");
+        check(db.updateCourse(first).isUpdated(), "first copy saved");
+        second.setDescription("Changed");
+        UpdateResult<Course> stale = db.updateCourse(second);
+        check(stale.isConflict(), "stale copy conflicts");
+        equal("Renamed", stale.getCurrent().getTitle(), "conflict hands back the stored course");
+        equal("Description", db.getCourseById("C1").getDescription(), "stale copy not saved");
+    }
+
+    private static void missingRecordsAreNotFound() {
+        JsonDatabaseManager db = new JsonDatabaseManager(tempFolder("cas-missing"));
+        equal(UpdateResult.Status.NOT_FOUND, db.updateUser(404, u -> { }).getStatus(), "missing user");
+        equal(UpdateResult.Status.NOT_FOUND, db.updateCourse("C404", c -> { }).getStatus(), "missing course");
+        check(db.getUserById(404) == null, "nothing was added");
+    }
+}
@@ -0,0 +1,50 @@
+package jsondatabase;
+
+import models.User;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static checks.Checks.check;
+import static checks.Checks.equal;
+import static checks.Checks.tempFolder;
+import static jsondatabase.GroupCommitCheck.student;
+
+/**
+ * The legacy whole-list saves replace records in place: a reader that takes no lock
+ * sees each user as it was or as it is, never missing, and dropped users go away.
+ */
+public final class WholeListSaveCheck {
+
+    private static final int USERS = 2000;
+    private static final int SAVES = 20;
+
+    public static void main(String[] args) throws Exception {
+        JsonDatabaseManager db = new JsonDatabaseManager(tempFolder("whole-list"));
+        List<User> all = new ArrayList<>();
+        for (int i = 1; i <= USERS; i++) all.add(student(i));
+        db.saveUsers(all);
+
+        AtomicBoolean saving = new AtomicBoolean(true);
+        AtomicInteger missing = new AtomicInteger();
+        Thread reader = new Thread(() -> {
+            while (saving.get()) {
+                if (db.getUserById(1) == null) missing.incrementAndGet();
+                if (db.getUserByUsername("student" + USERS) == null) missing.incrementAndGet();
+            }
+        });
+        reader.start();
+        for (int n = 0; n < SAVES; n++) db.saveUsers(db.loadUsers());
+        saving.set(false);
+        reader.join();
+        equal(0, missing.get(), "lookups that found no user during a save");
+
+        // A user left out of the list is removed, from the records and the username index
+        db.saveUsers(new ArrayList<>(db.loadUsers().subList(0, USERS - 1)));
+        check(db.getUserById(USERS) == null, "dropped user removed");
+        check(db.getUserByUsername("student" + USERS) == null, "dropped username freed");
+        equal(USERS - 1, db.loadUsers().size(), "users left");
+    }
+}
@@ -0,0 +1,53 @@
+package models;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static checks.Checks.check;
+import static checks.Checks.equal;
+
+/** Answers survive pack, encode, decode and unpack; anything out of range reads back as "not answered". */
+public final class PackedAnswersCheck {
+
+    public static void main(String[] args) {
+        roundTrips();
+        sizes();
+        outOfRangeIsNotAnswered();
+    }
+
+    private static void roundTrips() {
+        Random random = new Random(42);
+        for (int questions = 0; questions <= 40; questions++) {
+            int[] answers = new int[questions];
+            for (int i = 0; i < questions; i++) answers[i] = random.nextInt(PackedAnswers.MAX_OPTION + 2) - 1;
+            String text = PackedAnswers.encode(PackedAnswers.pack(answers));
+            int[] back = PackedAnswers.unpack(PackedAnswers.decode(text), questions);
+            check(Arrays.equals(answers, back), "round trip of " + Arrays.toString(answers) + " via " + text);
+        }
+        byte[] packed = PackedAnswers.pack(new int[]{0, 3, -1, PackedAnswers.MAX_OPTION, 1});
+        equal(0, PackedAnswers.answerAt(packed, 0), "first answer");
+        equal(-1, PackedAnswers.answerAt(packed, 2), "skipped question");
+        equal(PackedAnswers.MAX_OPTION, PackedAnswers.answerAt(packed, 3), "highest option");
+        equal(1, PackedAnswers.answerAt(packed, 4), "answer across a byte boundary");
+    }
+
+    private static void sizes() {
+        equal(2, PackedAnswers.pack(new int[5]).length, "bytes for 5 questions");
+        equal(3, PackedAnswers.encode(PackedAnswers.pack(new int[5])).length(), "characters for 5 questions");
+        equal(0, PackedAnswers.encode(PackedAnswers.pack(new int[0])).length(), "no questions");
+        String text = PackedAnswers.encode(PackedAnswers.pack(new int[40]));
+        check(text.chars().allMatch(c -> Character.isLetterOrDigit(c) || c == '-' || c == '_'), "URL-safe, unpadded: " + text);
+    }
+
+    private static void outOfRangeIsNotAnswered() {
+        byte[] packed = PackedAnswers.pack(new int[]{-5, PackedAnswers.MAX_OPTION + 1, 2});
+        equal(-1, PackedAnswers.answerAt(packed, 0), "negative option");
+        equal(-1, PackedAnswers.answerAt(packed, 1), "option too high to store");
+        equal(2, PackedAnswers.answerAt(packed, 2), "neighbour unaffected");
+        equal(-1, PackedAnswers.answerAt(packed, 3), "question past the end");
+        equal(-1, PackedAnswers.answerAt(packed, -1), "negative index");
+        equal(-1, PackedAnswers.answerAt(null, 0), "attempt recorded without answers");
+        check(Arrays.equals(new int[]{2, -1, -1}, PackedAnswers.unpack(PackedAnswers.pack(new int[]{2}), 3)),
+                "more questions than recorded");
+    }
+}
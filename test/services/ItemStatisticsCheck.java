@@ -0,0 +1,71 @@
+package services;
+
+import jsondatabase.JsonDatabaseManager;
+import models.Course;
+import models.Lesson;
+import models.QuizAttempt;
+import models.Student;
+import models.User;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static checks.Checks.check;
+import static checks.Checks.equal;
+import static checks.Checks.tempFolder;
+
+/**
+ * Option counts are kept per course and lesson: two courses that both have "L01"
+ * never share counts, and a student with "L01" in two courses counts in neither.
+ */
+public final class ItemStatisticsCheck {
+
+    public static void main(String[] args) throws Exception {
+        JsonDatabaseManager db = new JsonDatabaseManager(tempFolder("item-stats"));
+        db.addCourse(course("C1"));
+        db.addCourse(course("C2"));
+        enroll(db, 1, "C1");
+        enroll(db, 2, "C2");
+        enroll(db, 3, "C1", "C2");
+
+        // Counted by the first scan
+        attempt(db, 1, 0);
+        attempt(db, 2, 1);
+        attempt(db, 3, 2);
+        ItemStatistics stats = ItemStatistics.of(db);
+        equal(1L, stats.attempts("C1", "L01"), "C1 attempts after the scan");
+        equal(1L, stats.attempts("C2", "L01"), "C2 attempts after the scan");
+        equal(1L, stats.count("C1", "L01", 0, 0), "student 1's option in C1");
+        equal(0L, stats.count("C1", "L01", 0, 1), "student 2's option not in C1");
+        equal(0L, stats.count("C1", "L01", 0, 2), "ambiguous student's option not in C1");
+
+        // Counted from events; they arrive in order, so once student 1's is in, student 3's was seen
+        attempt(db, 3, 2);
+        attempt(db, 1, 0);
+        long deadline = System.currentTimeMillis() + 15_000;
+        while (stats.attempts("C1", "L01") < 2 && System.currentTimeMillis() < deadline) Thread.sleep(20);
+        equal(2L, stats.attempts("C1", "L01"), "C1 attempts after the events");
+        equal(1L, stats.attempts("C2", "L01"), "C2 attempts after the events");
+        equal(0L, stats.count("C1", "L01", 0, 2), "ambiguous attempt still left out");
+    }
+
+    private static Course course(String id) {
+        Course c = new Course(id, id, id, "7", "APPROVED");
+        List<Lesson> lessons = new ArrayList<>();
+        lessons.add(new Lesson("L01", "L01", "", new ArrayList<>()));
+        c.setLessons(lessons);
+        return c;
+    }
+
+    private static void enroll(JsonDatabaseManager db, int id, String... courseIds) {
+        Student s = new Student(null, null, id, "student" + id, "student" + id + "@example.com",
+                "password", User.ROLE_STUDENT, false);
+        for (String c : courseIds) s.enrollInCourse(c);
+        db.addUser(s);
+    }
+
+    private static void attempt(JsonDatabaseManager db, int studentId, int option) {
+        QuizAttempt a = new QuizAttempt("L01", System.currentTimeMillis(), 100, 1, 1, new int[]{option});
+        check(db.recordQuizAttempt(studentId, "L01", a, 60, 0), "attempt saved");
+    }
+}
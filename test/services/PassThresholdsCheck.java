@@ -0,0 +1,85 @@
+package services;
+
+import jsondatabase.JsonDatabaseManager;
+import models.Course;
+import models.Lesson;
+import models.Question;
+import models.Quiz;
+import models.QuizAttempt;
+import models.Student;
+import models.User;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static checks.Checks.check;
+import static checks.Checks.equal;
+import static checks.Checks.tempFolder;
+
+/**
+ * What-ifs count a student's score for the course it belongs to: two courses that
+ * both have "L01" see only their own students, and a student with "L01" in two
+ * courses is in neither the passing nor the completing counts.
+ */
+public final class PassThresholdsCheck {
+
+    public static void main(String[] args) throws Exception {
+        JsonDatabaseManager db = new JsonDatabaseManager(tempFolder("thresholds"));
+        db.addCourse(course("C1", "L01", "L02"));
+        db.addCourse(course("C2", "L01"));
+        student(db, 1, 80, "C1");
+        student(db, 2, 40, "C2");
+        student(db, 3, 70, "C1", "C2");
+
+        PassThresholds thresholds = PassThresholds.of(db);
+        PassThresholds.WhatIf c1 = thresholds.whatIf("C1", "L01");
+        equal(1L, c1.attempted(), "C1 students with a score");
+        equal(1L, c1.passing(60), "C1 passing at 60");
+        equal(1L, c1.completing(0), "C1 completing, ambiguous student left out");
+        PassThresholds.WhatIf c2 = thresholds.whatIf("C2", "L01");
+        equal(1L, c2.attempted(), "C2 students with a score");
+        equal(0L, c2.passing(60), "C2 passing at 60");
+        equal(1L, c2.passing(40), "C2 passing at 40");
+
+        // C2 drops its L01, so student 3's score is C1's now
+        check(db.updateCourse("C2", c -> c.setLessons(lessons("L03"))).isUpdated(), "edit C2's lessons");
+        long deadline = System.currentTimeMillis() + 15_000;
+        while (thresholds.whatIf("C1", "L01").completing(0) < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        c1 = thresholds.whatIf("C1", "L01");
+        equal(2L, c1.attempted(), "C1 students with a score after the edit");
+        equal(2L, c1.completing(0), "C1 completing after the edit");
+        equal(1L, c1.completing(75), "C1 completing at 75 after the edit");
+    }
+
+    private static Course course(String id, String... lessonIds) {
+        Course c = new Course(id, id, id, "7", "APPROVED");
+        c.setLessons(lessons(lessonIds));
+        return c;
+    }
+
+    private static List<Lesson> lessons(String... lessonIds) {
+        List<Lesson> lessons = new ArrayList<>();
+        for (String id : lessonIds) {
+            Lesson l = new Lesson(id, id, "", new ArrayList<>());
+            List<Question> questions = new ArrayList<>();
+            questions.add(new Question("Q", new ArrayList<>(List.of("A", "B")), 0));
+            l.setQuiz(new Quiz(questions, 60, 0));
+            lessons.add(l);
+        }
+        return lessons;
+    }
+
+    /** A student of the courses who completed L02 and scored {@code score} on L01. */
+    private static void student(JsonDatabaseManager db, int id, int score, String... courseIds) {
+        Student s = new Student(null, null, id, "student" + id, "student" + id + "@example.com",
+                "password", User.ROLE_STUDENT, false);
+        for (String c : courseIds) s.enrollInCourse(c);
+        s.markLessonCompleted("L02");
+        db.addUser(s);
+        for (String c : courseIds) check(db.updateCourse(c, course -> course.enrollStudent(String.valueOf(id))).isUpdated(), "enroll");
+        QuizAttempt a = new QuizAttempt("L01", System.currentTimeMillis(), score, score / 100, 1);
+        check(db.recordQuizAttempt(id, "L01", a, 60, 0), "attempt saved");
+    }
+}